@@ -2,6 +2,9 @@ package com.store.inventory;
 
 import com.mongodb.client.*;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.store.inventory.service.OrderIdIndex;
+import com.store.inventory.service.PrefixTrie;
 import java.time.LocalDate;
 import java.util.*;
 import org.bson.Document;
@@ -17,6 +20,13 @@ public class App {
     private static Map<String, Product> inventory = new HashMap<>();
     private static Map<String, Supplier> suppliers = new HashMap<>();
     private static List<Order> orders = new ArrayList<>();
+    // IDs already used, checked before any stock is touched
+    private static OrderIdIndex orderIds = new OrderIdIndex(1 << 16);
+    private static OrderIdIndex sellOrderIds = new OrderIdIndex(1 << 16);
+    // Known SKUs and supplier IDs, for completing partly typed ones
+    private static PrefixTrie skuTrie = new PrefixTrie();
+    private static PrefixTrie supplierIdTrie = new PrefixTrie();
+    private static final int COMPLETION_COUNT = 10;
 
     public static final String ANSI_RESET = "\u001B[0m";
     public static final String ANSI_RED = "\u001B[31m";
@@ -147,6 +157,7 @@ public class App {
         loadProductsFromMongo();
         loadSuppliersFromMongo();
         loadOrdersFromMongo();
+        loadSellOrderIdsFromMongo();
     }
 
     private static void loadProductsFromMongo() {
@@ -170,6 +181,7 @@ public class App {
                 dateReceived
             );
             inventory.put(sku, product);
+            skuTrie.add(sku);
         }
     }
 
@@ -182,6 +194,7 @@ public class App {
 
             Supplier supplier = new Supplier(id, name, contact);
             suppliers.put(id, supplier);
+            supplierIdTrie.add(id);
         }
     }
 
@@ -201,6 +214,18 @@ public class App {
 
             Order order = new Order(orderId, supplierId, items, orderDate);
             orders.add(order);
+            orderIds.add(orderId);
+        }
+    }
+
+    // Sell orders are not kept in memory; only their IDs are needed
+    private static void loadSellOrderIdsFromMongo() {
+        FindIterable<Document> documents = database
+            .getCollection("sell_orders")
+            .find()
+            .projection(Projections.include("_id"));
+        for (Document doc : documents) {
+            sellOrderIds.add(String.valueOf(doc.get("_id")));
         }
     }
 
@@ -228,8 +253,11 @@ public class App {
             if (price < 0) {
                 throw new IllegalArgumentException("Price cannot be negative.");
             }
-            System.out.print("Enter supplier ID: ");
-            String supplierId = scanner.nextLine();
+            String supplierId = readKey(
+                scanner,
+                "Enter supplier ID (prefix? lists matches): ",
+                supplierIdTrie
+            );
             System.out.print("Enter date received (YYYY-MM-DD): ");
             String dateReceived = scanner.nextLine();
 
@@ -243,6 +271,7 @@ public class App {
                 dateReceived
             );
             inventory.put(sku, product);
+            skuTrie.add(sku);
             saveProductToMongo(product);
             System.out.println("Product added to inventory.");
         } catch (NumberFormatException e) {
@@ -286,8 +315,11 @@ public class App {
 
     private static void updateProduct(Scanner scanner) {
         try {
-            System.out.print("Enter product SKU: ");
-            String sku = scanner.nextLine();
+            String sku = readKey(
+                scanner,
+                "Enter product SKU (prefix? lists matches): ",
+                skuTrie
+            );
             if (inventory.containsKey(sku)) {
                 Product product = inventory.get(sku);
                 System.out.println("Current product details: " + product);
@@ -322,6 +354,7 @@ public class App {
                 System.out.println("Product updated.");
             } else {
                 System.out.println("Product not found in the inventory.");
+                suggest(skuTrie, sku);
             }
         } catch (NumberFormatException e) {
             System.out.println(
@@ -337,24 +370,77 @@ public class App {
     }
 
     private static void removeProduct(Scanner scanner) {
-        System.out.print("Enter product SKU to remove: ");
-        String sku = scanner.nextLine();
+        String sku = readKey(
+            scanner,
+            "Enter product SKU to remove (prefix? lists matches): ",
+            skuTrie
+        );
         if (inventory.remove(sku) != null) {
+            skuTrie.remove(sku);
             removeProductFromMongo(sku);
             System.out.println("Product removed from inventory.");
         } else {
             System.out.println("Product not found in the inventory.");
+            suggest(skuTrie, sku);
         }
     }
 
     private static void searchProduct(Scanner scanner) {
-        System.out.print("Enter product SKU to search: ");
-        String sku = scanner.nextLine();
+        String sku = readKey(
+            scanner,
+            "Enter product SKU to search (prefix? lists matches): ",
+            skuTrie
+        );
         Product product = inventory.get(sku);
         if (product != null) {
             System.out.println("Product found: " + product);
         } else {
             System.out.println("Product not found in the inventory.");
+            suggest(skuTrie, sku);
+        }
+    }
+
+    // Reads a SKU or supplier ID. Input ending in '?' lists the known keys
+    // starting with what precedes it, then asks again.
+    private static String readKey(
+        Scanner scanner,
+        String prompt,
+        PrefixTrie keys
+    ) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine();
+            if (!input.endsWith("?")) {
+                return input;
+            }
+            String prefix = input.substring(0, input.length() - 1);
+            List<String> completions = keys.complete(prefix, COMPLETION_COUNT);
+            if (completions.isEmpty()) {
+                System.out.println(
+                    ANSI_YELLOW + "Nothing starts with " + prefix + ANSI_RESET
+                );
+            } else {
+                System.out.println(String.join("  ", completions));
+            }
+        }
+    }
+
+    // After a miss, completions of the longest leading part of what was
+    // typed that anything starts with
+    private static void suggest(PrefixTrie keys, String typed) {
+        String prefix = typed;
+        List<String> completions = keys.complete(prefix, COMPLETION_COUNT);
+        while (completions.isEmpty() && prefix.length() > 1) {
+            prefix = prefix.substring(0, prefix.length() - 1);
+            completions = keys.complete(prefix, COMPLETION_COUNT);
+        }
+        if (!completions.isEmpty()) {
+            System.out.println(
+                ANSI_YELLOW +
+                    "Did you mean: " +
+                    String.join(", ", completions) +
+                    ANSI_RESET
+            );
         }
     }
 
@@ -412,6 +498,7 @@ public class App {
 
         Supplier supplier = new Supplier(id, name, contact);
         suppliers.put(id, supplier);
+        supplierIdTrie.add(id);
         saveSupplierToMongo(supplier);
         System.out.println("Supplier added.");
     }
@@ -434,14 +521,31 @@ public class App {
         try {
             System.out.print("Enter order ID: ");
             String orderId = scanner.nextLine();
-            System.out.print("Enter supplier ID: ");
-            String supplierId = scanner.nextLine();
+            if (orderIds.contains(orderId)) {
+                System.out.println(
+                    ANSI_RED +
+                        "Error: Order with ID " +
+                        orderId +
+                        " already exists." +
+                        ANSI_RESET
+                );
+                return;
+            }
+            String supplierId = readKey(
+                scanner,
+                "Enter supplier ID (prefix? lists matches): ",
+                supplierIdTrie
+            );
 
             List<OrderItem> items = new ArrayList<>();
             boolean addingItems = true;
             while (addingItems) {
-                System.out.print("Enter product SKU (or 'done' to finish): ");
-                String sku = scanner.nextLine();
+                String sku = readKey(
+                    scanner,
+                    "Enter product SKU (or 'done' to finish; " +
+                        "prefix? lists matches): ",
+                    skuTrie
+                );
                 if (sku.equalsIgnoreCase("done")) {
                     addingItems = false;
                 } else if (inventory.containsKey(sku)) {
@@ -462,6 +566,7 @@ public class App {
                     System.out.println(
                         ANSI_RED + "Product not found. Try again." + ANSI_RESET
                     );
+                    suggest(skuTrie, sku);
                 }
             }
 
@@ -472,6 +577,7 @@ public class App {
                 LocalDate.now()
             );
             orders.add(order);
+            orderIds.add(orderId);
             saveOrderToMongo(order);
             System.out.println(
                 ANSI_GREEN + "Order created and inventory updated." + ANSI_RESET
@@ -652,14 +758,28 @@ public class App {
         try {
             System.out.print("Enter sell order ID: ");
             String orderId = scanner.nextLine();
+            if (sellOrderIds.contains(orderId)) {
+                System.out.println(
+                    ANSI_RED +
+                        "Error: Sell order with ID " +
+                        orderId +
+                        " already exists." +
+                        ANSI_RESET
+                );
+                return;
+            }
             System.out.print("Enter customer name: ");
             String customerName = scanner.nextLine();
 
             List<OrderItem> items = new ArrayList<>();
             boolean addingItems = true;
             while (addingItems) {
-                System.out.print("Enter product SKU (or 'done' to finish): ");
-                String sku = scanner.nextLine();
+                String sku = readKey(
+                    scanner,
+                    "Enter product SKU (or 'done' to finish; " +
+                        "prefix? lists matches): ",
+                    skuTrie
+                );
                 if (sku.equalsIgnoreCase("done")) {
                     addingItems = false;
                 } else if (inventory.containsKey(sku)) {
@@ -685,6 +805,7 @@ public class App {
                     }
                 } else {
                     System.out.println("Product not found. Try again.");
+                    suggest(skuTrie, sku);
                 }
             }
 
@@ -696,6 +817,7 @@ public class App {
                     LocalDate.now()
                 );
                 // Note: SellOrder is saved separately, not in the orders list
+                sellOrderIds.add(orderId);
                 saveSellOrderToMongo(sellOrder);
                 System.out.println(
                     ANSI_GREEN + "Sell order created." + ANSI_RESET
@@ -8,12 +8,20 @@ public class Order {
   private String supplierId;
   private List<OrderItem> items;
   private LocalDate orderDate;
+  private String location;
 
   public Order(String orderId, String supplierId, List<OrderItem> items, LocalDate orderDate) {
+    this(orderId, supplierId, items, orderDate, null);
+  }
+
+  // location is where the goods arrive (or, for sell orders, leave from);
+  // null means the default location
+  public Order(String orderId, String supplierId, List<OrderItem> items, LocalDate orderDate, String location) {
     this.orderId = orderId;
     this.supplierId = supplierId;
     this.items = items;
     this.orderDate = orderDate;
+    this.location = location;
   }
 
   public String getOrderId() {
@@ -32,9 +40,13 @@ public class Order {
     return orderDate;
   }
 
+  public String getLocation() {
+    return location;
+  }
+
   @Override
   public String toString() {
-    return String.format("Order{orderId='%s', supplierId='%s', items=%s, orderDate=%s}",
-        orderId, supplierId, items, orderDate);
+    return String.format("Order{orderId='%s', supplierId='%s', items=%s, orderDate=%s, location=%s}",
+        orderId, supplierId, items, orderDate, location);
   }
 }
@@ -13,7 +13,17 @@ public class SellOrder extends Order {
     List<OrderItem> items,
     LocalDate orderDate
   ) {
-    super(orderId, null, items, orderDate);
+    this(orderId, customerName, items, orderDate, null);
+  }
+
+  public SellOrder(
+    String orderId,
+    String customerName,
+    List<OrderItem> items,
+    LocalDate orderDate,
+    String location
+  ) {
+    super(orderId, null, items, orderDate, location);
     this.customerName = customerName;
   }
 
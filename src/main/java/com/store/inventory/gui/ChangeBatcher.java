@@ -0,0 +1,44 @@
+package com.store.inventory.gui;
+
+import com.store.inventory.service.InventoryChange;
+import com.store.inventory.service.InventoryListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+
+// Collects service change events from any thread and hands them to the FX
+// thread in one batch, so a burst of mutations costs a single pulse.
+class ChangeBatcher implements InventoryListener {
+
+  private final ConcurrentLinkedQueue<InventoryChange> pending =
+    new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final Consumer<List<InventoryChange>> sink;
+
+  ChangeBatcher(Consumer<List<InventoryChange>> sink) {
+    this.sink = sink;
+  }
+
+  @Override
+  public void onChange(InventoryChange change) {
+    pending.add(change);
+    if (scheduled.compareAndSet(false, true)) {
+      Platform.runLater(this::drain);
+    }
+  }
+
+  private void drain() {
+    scheduled.set(false);
+    List<InventoryChange> batch = new ArrayList<>();
+    InventoryChange change;
+    while ((change = pending.poll()) != null) {
+      batch.add(change);
+    }
+    if (!batch.isEmpty()) {
+      sink.accept(batch);
+    }
+  }
+}
@@ -5,15 +5,40 @@ import com.store.inventory.OrderItem;
 import com.store.inventory.Product;
 import com.store.inventory.SellOrder;
 import com.store.inventory.Supplier;
+import com.store.inventory.service.AsyncInventoryService;
+import com.store.inventory.service.BestSeller;
+import com.store.inventory.service.InventoryChange;
 import com.store.inventory.service.InventoryService;
+import com.store.inventory.service.InventoryStats;
+import java.io.File;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import javafx.application.Application;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -23,12 +48,36 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 public class InventoryGUI extends Application {
 
+  private static final int LOW_STOCK_THRESHOLD = 10;
+  private static final int RECENT_PRODUCT_COUNT = 20;
+  private static final int RANKING_SIZE = 20;
+  private static final int FUZZY_RESULT_LIMIT = 50;
+  private static final java.time.Duration RESERVATION_TTL =
+    java.time.Duration.ofMinutes(10);
+  // Upper bound on dashboard refresh rate, however fast stock changes
+  private static final Duration DASHBOARD_REFRESH_INTERVAL = Duration.millis(
+    250
+  );
+
   private InventoryService inventoryService;
+  private AsyncInventoryService asyncService;
+  private ChangeBatcher changeBatcher;
   private Stage primaryStage;
+  private TabPane mainTabPane;
+
+  // Background work in flight; only touched on the FX thread. Reads may
+  // be abandoned with the Cancel button; writes are always left to finish.
+  private final List<CompletableFuture<?>> inFlight = new ArrayList<>();
+  private final List<CompletableFuture<?>> cancellable = new ArrayList<>();
+  private ProgressIndicator busyIndicator;
+  private Label statusLabel;
+  private Button cancelButton;
 
   // Tables
   private TableView<Product> productTable;
@@ -38,27 +87,56 @@ public class InventoryGUI extends Application {
 
   // Observable lists
   private ObservableList<Product> productData;
+  // SKU -> position in productData, so a change finds its row directly
+  private final Map<String, Integer> productRows = new HashMap<>();
   private ObservableList<Supplier> supplierData;
   private ObservableList<Order> orderData;
   private ObservableList<SellOrder> sellOrderData;
+  // IDs shown in each table. Changes are followed from before the first
+  // load, so an entry added meanwhile may arrive both ways.
+  private final Set<String> supplierIds = new HashSet<>();
+  private final Set<String> orderIds = new HashSet<>();
+  private final Set<String> sellOrderIds = new HashSet<>();
+
+  // Live product search; the table shows a filtered, sorted view of
+  // productData instead of a copy
+  private FilteredList<Product> filteredProducts;
+  private ProductFilter productFilter;
+  private CompletableFuture<ProductFilter> pendingSearch;
+  private final List<Product> touchedDuringSearch = new ArrayList<>();
+  private final PauseTransition searchDebounce = new PauseTransition(
+    Duration.millis(30)
+  );
 
   // Dashboard labels
   private Label totalProductsLabel;
   private Label totalQuantityLabel;
   private Label totalValueLabel;
   private Label lowStockLabel;
+  private ObservableList<Product> recentProductData;
+  private ComboBox<BestSeller.Window> bestSellerWindowCombo;
+  private ListView<String> bestSellerList;
+  private ListView<String> topValueList;
+  private Timeline dashboardTicker;
+  private boolean dashboardDirty;
+  private boolean dashboardRefreshing;
 
   @Override
   public void start(Stage primaryStage) {
     this.primaryStage = primaryStage;
-    this.inventoryService = InventoryService.getInstance();
+    this.asyncService = new AsyncInventoryService();
 
     primaryStage.setTitle("Inventory Management System - GUI");
     primaryStage.setMaximized(true);
 
-    TabPane mainTabPane = createMainTabPane();
+    mainTabPane = createMainTabPane();
+    mainTabPane.setDisable(true);
 
-    Scene scene = new Scene(mainTabPane, 1200, 800);
+    BorderPane root = new BorderPane();
+    root.setCenter(mainTabPane);
+    root.setBottom(createStatusBar());
+
+    Scene scene = new Scene(root, 1200, 800);
     try {
       scene
         .getStylesheets()
@@ -73,12 +151,46 @@ public class InventoryGUI extends Application {
 
     // Handle application close
     primaryStage.setOnCloseRequest(e -> {
-      inventoryService.close();
-      Platform.exit();
+      if (dashboardTicker != null) {
+        dashboardTicker.stop();
+      }
+      cancelPendingTasks();
+      if (inventoryService != null) {
+        inventoryService.removeListener(changeBatcher);
+      }
+      asyncService.close().whenComplete((r, ex) -> Platform.exit());
+    });
+
+    // Load initial data off the FX thread, then follow service changes
+    runAsync("Loading inventory...", asyncService.ready(), service -> {
+      inventoryService = service;
+      // Listen first: the snapshot reconcile and the change stream may
+      // already be updating the service. Batches run on this thread after
+      // the load and skip what it already showed.
+      changeBatcher = new ChangeBatcher(this::applyChanges);
+      inventoryService.addListener(changeBatcher);
+      refreshAllData();
+      inventoryService.startChangeStream();
+      startDashboardTicker();
+      mainTabPane.setDisable(false);
     });
+  }
 
-    // Load initial data
-    refreshAllData();
+  private HBox createStatusBar() {
+    HBox statusBar = new HBox(10);
+    statusBar.setPadding(new Insets(5, 10, 5, 10));
+    statusBar.setAlignment(Pos.CENTER_LEFT);
+
+    busyIndicator = new ProgressIndicator();
+    busyIndicator.setPrefSize(16, 16);
+    busyIndicator.setVisible(false);
+    statusLabel = new Label("Ready");
+    cancelButton = new Button("Cancel");
+    cancelButton.setVisible(false);
+    cancelButton.setOnAction(e -> cancelPendingTasks());
+
+    statusBar.getChildren().addAll(busyIndicator, statusLabel, cancelButton);
+    return statusBar;
   }
 
   private TabPane createMainTabPane() {
@@ -172,6 +284,33 @@ public class InventoryGUI extends Application {
 
     TableView<Product> recentProductsTable = createProductTable();
     recentProductsTable.setPrefHeight(300);
+    recentProductData = FXCollections.observableArrayList();
+    recentProductsTable.setItems(recentProductData);
+
+    // Rankings the service maintains as orders and stock change
+    Label bestSellersLabel = new Label("Best Sellers");
+    bestSellersLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+    bestSellerWindowCombo = new ComboBox<>();
+    bestSellerWindowCombo.getItems().addAll(BestSeller.Window.values());
+    bestSellerWindowCombo.setValue(BestSeller.Window.TODAY);
+    bestSellerWindowCombo.setOnAction(e -> refreshRankings());
+    bestSellerList = new ListView<>();
+    bestSellerList.setPrefHeight(200);
+    VBox bestSellersBox = new VBox(
+      10,
+      new HBox(10, bestSellersLabel, bestSellerWindowCombo),
+      bestSellerList
+    );
+
+    Label topValueLabel = new Label("Top Stock Value");
+    topValueLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+    topValueList = new ListView<>();
+    topValueList.setPrefHeight(200);
+    VBox topValueBox = new VBox(10, topValueLabel, topValueList);
+
+    HBox rankingsBox = new HBox(20, bestSellersBox, topValueBox);
+    HBox.setHgrow(bestSellersBox, Priority.ALWAYS);
+    HBox.setHgrow(topValueBox, Priority.ALWAYS);
 
     Button refreshButton = new Button("Refresh Dashboard");
     refreshButton.setOnAction(e -> refreshDashboard());
@@ -184,6 +323,7 @@ public class InventoryGUI extends Application {
         statsGrid,
         recentLabel,
         recentProductsTable,
+        rankingsBox,
         refreshButton
       );
 
@@ -219,19 +359,30 @@ public class InventoryGUI extends Application {
     // Product table
     productTable = createProductTable();
     productData = FXCollections.observableArrayList();
-    productTable.setItems(productData);
+    filteredProducts = new FilteredList<>(productData);
+    SortedList<Product> sortedProducts = new SortedList<>(filteredProducts);
+    sortedProducts.comparatorProperty().bind(productTable.comparatorProperty());
+    productTable.setItems(sortedProducts);
 
-    // Search box
+    // Search box; filters as the user types
     HBox searchBox = new HBox(10);
     searchBox.setPadding(new Insets(10));
     TextField searchField = new TextField();
     searchField.setPromptText("Search products...");
+    searchField
+      .textProperty()
+      .addListener((obs, oldText, newText) -> searchDebounce.playFromStart());
+    searchDebounce.setOnFinished(e -> searchProducts(searchField.getText()));
     Button searchButton = new Button("Search");
-    searchButton.setOnAction(e -> searchProducts(searchField.getText()));
+    searchButton.setOnAction(e -> {
+      searchDebounce.stop();
+      searchProducts(searchField.getText());
+    });
     Button clearButton = new Button("Clear");
     clearButton.setOnAction(e -> {
       searchField.clear();
-      refreshProductTable();
+      searchDebounce.stop();
+      searchProducts("");
     });
     searchBox
       .getChildren()
@@ -245,15 +396,32 @@ public class InventoryGUI extends Application {
     Button editButton = new Button("Edit Product");
     Button deleteButton = new Button("Delete Product");
     Button refreshButton = new Button("Refresh");
+    Button receiveButton = new Button("Receive Stock");
+    Button transferButton = new Button("Transfer Stock");
+    Button historyButton = new Button("Stock History");
+    Button exportButton = new Button("Export CSV");
 
     addButton.setOnAction(e -> showAddProductDialog());
     editButton.setOnAction(e -> showEditProductDialog());
     deleteButton.setOnAction(e -> deleteSelectedProduct());
     refreshButton.setOnAction(e -> refreshProductTable());
+    receiveButton.setOnAction(e -> showReceiveStockDialog());
+    transferButton.setOnAction(e -> showTransferStockDialog());
+    historyButton.setOnAction(e -> showStockHistoryDialog());
+    exportButton.setOnAction(e -> exportProducts());
 
     buttonBox
       .getChildren()
-      .addAll(addButton, editButton, deleteButton, refreshButton);
+      .addAll(
+        addButton,
+        editButton,
+        deleteButton,
+        refreshButton,
+        receiveButton,
+        transferButton,
+        historyButton,
+        exportButton
+      );
 
     VBox topBox = new VBox(searchBox, buttonBox);
     productPane.setTop(topBox);
@@ -395,7 +563,43 @@ public class InventoryGUI extends Application {
     contactCol.setCellValueFactory(new PropertyValueFactory<>("contact"));
     contactCol.setPrefWidth(200);
 
-    table.getColumns().addAll(idCol, nameCol, contactCol);
+    // Read from the service's per-supplier aggregates; nothing is summed here
+    TableColumn<Supplier, Integer> productsCol = new TableColumn<>("Products");
+    productsCol.setCellValueFactory(cellData ->
+      new javafx.beans.property.SimpleObjectProperty<>(
+        inventoryService
+          .getSupplierStats(cellData.getValue().getId())
+          .getProductCount()
+      )
+    );
+    productsCol.setPrefWidth(90);
+
+    TableColumn<Supplier, Long> unitsCol = new TableColumn<>("Units");
+    unitsCol.setCellValueFactory(cellData ->
+      new javafx.beans.property.SimpleObjectProperty<>(
+        inventoryService
+          .getSupplierStats(cellData.getValue().getId())
+          .getTotalQuantity()
+      )
+    );
+    unitsCol.setPrefWidth(90);
+
+    TableColumn<Supplier, String> valueCol = new TableColumn<>("Stock Value");
+    valueCol.setCellValueFactory(cellData ->
+      new javafx.beans.property.SimpleStringProperty(
+        String.format(
+          "$%.2f",
+          inventoryService
+            .getSupplierStats(cellData.getValue().getId())
+            .getStockValue()
+        )
+      )
+    );
+    valueCol.setPrefWidth(120);
+
+    table
+      .getColumns()
+      .addAll(idCol, nameCol, contactCol, productsCol, unitsCol, valueCol);
 
     return table;
   }
@@ -484,13 +688,7 @@ public class InventoryGUI extends Application {
     TextField descField = new TextField();
     TextField qtyField = new TextField();
     TextField priceField = new TextField();
-    ComboBox<String> supplierCombo = new ComboBox<>();
-
-    // Populate supplier combo
-    List<Supplier> suppliers = inventoryService.getAllSuppliers();
-    for (Supplier supplier : suppliers) {
-      supplierCombo.getItems().add(supplier.getId());
-    }
+    LazyPicker supplierPicker = createSupplierPicker();
 
     grid.add(new Label("SKU:"), 0, 0);
     grid.add(skuField, 1, 0);
@@ -503,7 +701,7 @@ public class InventoryGUI extends Application {
     grid.add(new Label("Price:"), 0, 4);
     grid.add(priceField, 1, 4);
     grid.add(new Label("Supplier:"), 0, 5);
-    grid.add(supplierCombo, 1, 5);
+    grid.add(supplierPicker, 1, 5);
 
     dialog.getDialogPane().setContent(grid);
 
@@ -515,13 +713,20 @@ public class InventoryGUI extends Application {
           String description = descField.getText();
           int quantity = Integer.parseInt(qtyField.getText());
           double price = Double.parseDouble(priceField.getText());
-          String supplierId = supplierCombo.getValue();
+          String supplierId = supplierPicker.getValue();
           String dateReceived = LocalDate.now().toString();
 
           if (sku.isEmpty() || name.isEmpty()) {
             showAlert("Error", "SKU and Name are required fields.");
             return null;
           }
+          if (
+            supplierId != null &&
+            inventoryService.findSupplierById(supplierId).isEmpty()
+          ) {
+            showAlert("Error", "Unknown supplier: " + supplierId);
+            return null;
+          }
 
           return new Product(
             sku,
@@ -545,9 +750,7 @@ public class InventoryGUI extends Application {
 
     Optional<Product> result = dialog.showAndWait();
     result.ifPresent(product -> {
-      inventoryService.addProduct(product);
-      refreshProductTable();
-      refreshDashboard();
+      runAsync("Adding product...", asyncService.addProduct(product));
     });
   }
 
@@ -602,13 +805,10 @@ public class InventoryGUI extends Application {
         int quantity = Integer.parseInt(qtyField.getText());
         double price = Double.parseDouble(priceField.getText());
 
-        inventoryService.updateProduct(
-          selectedProduct.getSku(),
-          quantity,
-          price
+        runAsync(
+          "Updating product...",
+          asyncService.updateProduct(selectedProduct.getSku(), quantity, price)
         );
-        refreshProductTable();
-        refreshDashboard();
       } catch (NumberFormatException e) {
         showAlert(
           "Error",
@@ -638,9 +838,15 @@ public class InventoryGUI extends Application {
 
     Optional<ButtonType> result = alert.showAndWait();
     if (result.isPresent() && result.get() == ButtonType.OK) {
-      inventoryService.removeProduct(selectedProduct.getSku());
-      refreshProductTable();
-      refreshDashboard();
+      runAsync(
+        "Deleting product...",
+        asyncService.removeProduct(selectedProduct.getSku()),
+        removed -> {
+          if (!removed) {
+            showAlert("Not Found", "The product no longer exists.");
+          }
+        }
+      );
     }
   }
 
@@ -694,8 +900,18 @@ public class InventoryGUI extends Application {
 
     Optional<Supplier> result = dialog.showAndWait();
     result.ifPresent(supplier -> {
-      inventoryService.addSupplier(supplier);
-      refreshSupplierTable();
+      runAsync(
+        "Adding supplier...",
+        asyncService.addSupplier(supplier),
+        added -> {
+          if (!added) {
+            showAlert(
+              "Error",
+              "A supplier with ID " + supplier.getId() + " already exists."
+            );
+          }
+        }
+      );
     });
   }
 
@@ -732,13 +948,10 @@ public class InventoryGUI extends Application {
     content.setPadding(new Insets(20));
 
     TextField orderIdField = new TextField();
-    ComboBox<String> supplierCombo = new ComboBox<>();
+    LazyPicker supplierPicker = createSupplierPicker();
 
-    // Populate supplier combo
-    List<Supplier> suppliers = inventoryService.getAllSuppliers();
-    for (Supplier supplier : suppliers) {
-      supplierCombo.getItems().add(supplier.getId());
-    }
+    // Goods may be ordered into a new location
+    ComboBox<String> locationCombo = createLocationCombo(true);
 
     // Order items section
     VBox itemsSection = new VBox(5);
@@ -747,31 +960,29 @@ public class InventoryGUI extends Application {
     List<OrderItem> orderItems = new ArrayList<>();
 
     HBox addItemBox = new HBox(5);
-    ComboBox<String> productCombo = new ComboBox<>();
     TextField qtyField = new TextField();
     qtyField.setPromptText("Quantity");
     Button addItemButton = new Button("Add Item");
 
-    // Populate product combo
-    List<Product> products = inventoryService.getAllProducts();
-    for (Product product : products) {
-      productCombo.getItems().add(product.getSku() + " - " + product.getName());
-    }
+    LazyPicker productPicker = createProductPicker(product -> "");
 
     addItemButton.setOnAction(e -> {
-      String selectedProduct = productCombo.getValue();
+      String sku = productPicker.getValue();
       String qtyText = qtyField.getText();
 
-      if (selectedProduct != null && !qtyText.isEmpty()) {
+      if (sku != null && !qtyText.isEmpty()) {
         try {
-          String sku = selectedProduct.split(" - ")[0];
           int quantity = Integer.parseInt(qtyText);
+          if (inventoryService.findProductBySku(sku).isEmpty()) {
+            showAlert("Error", "Unknown SKU: " + sku);
+            return;
+          }
 
           OrderItem item = new OrderItem(sku, quantity);
           orderItems.add(item);
           itemsList.getItems().add(sku + " x " + quantity);
 
-          productCombo.setValue(null);
+          productPicker.clear();
           qtyField.clear();
         } catch (NumberFormatException ex) {
           showAlert("Error", "Please enter a valid quantity.");
@@ -779,7 +990,7 @@ public class InventoryGUI extends Application {
       }
     });
 
-    addItemBox.getChildren().addAll(productCombo, qtyField, addItemButton);
+    addItemBox.getChildren().addAll(productPicker, qtyField, addItemButton);
     itemsSection.getChildren().addAll(itemsLabel, itemsList, addItemBox);
 
     content
@@ -788,7 +999,9 @@ public class InventoryGUI extends Application {
         new Label("Order ID:"),
         orderIdField,
         new Label("Supplier:"),
-        supplierCombo,
+        supplierPicker,
+        new Label("Deliver To:"),
+        locationCombo,
         itemsSection
       );
 
@@ -797,7 +1010,7 @@ public class InventoryGUI extends Application {
     dialog.setResultConverter(dialogButton -> {
       if (dialogButton == createButtonType) {
         String orderId = orderIdField.getText();
-        String supplierId = supplierCombo.getValue();
+        String supplierId = supplierPicker.getValue();
 
         if (orderId.isEmpty() || supplierId == null || orderItems.isEmpty()) {
           showAlert(
@@ -806,18 +1019,40 @@ public class InventoryGUI extends Application {
           );
           return null;
         }
+        if (inventoryService.findSupplierById(supplierId).isEmpty()) {
+          showAlert("Error", "Unknown supplier: " + supplierId);
+          return null;
+        }
+        if (inventoryService.hasOrder(orderId)) {
+          showAlert("Error", "An order with ID " + orderId + " already exists.");
+          return null;
+        }
 
-        return new Order(orderId, supplierId, orderItems, LocalDate.now());
+        return new Order(
+          orderId,
+          supplierId,
+          orderItems,
+          LocalDate.now(),
+          locationCombo.getValue()
+        );
       }
       return null;
     });
 
     Optional<Order> result = dialog.showAndWait();
     result.ifPresent(order -> {
-      inventoryService.addOrder(order);
-      refreshOrderTable();
-      refreshProductTable();
-      refreshDashboard();
+      runAsync(
+        "Creating order...",
+        asyncService.addOrder(order),
+        added -> {
+          if (!added) {
+            showAlert(
+              "Error",
+              "An order with ID " + order.getOrderId() + " already exists."
+            );
+          }
+        }
+      );
     });
   }
 
@@ -840,62 +1075,85 @@ public class InventoryGUI extends Application {
 
     TextField orderIdField = new TextField();
     TextField customerField = new TextField();
+    ComboBox<String> locationCombo = createLocationCombo(false);
 
     // Order items section
     VBox itemsSection = new VBox(5);
     Label itemsLabel = new Label("Sell Items:");
     ListView<String> itemsList = new ListView<>();
     List<OrderItem> orderItems = new ArrayList<>();
+    // Each added item holds its units until the order is created or dropped
+    List<String> reservationIds = new ArrayList<>();
 
     HBox addItemBox = new HBox(5);
-    ComboBox<String> productCombo = new ComboBox<>();
     TextField qtyField = new TextField();
     qtyField.setPromptText("Quantity");
     Button addItemButton = new Button("Add Item");
 
-    // Populate product combo
-    List<Product> products = inventoryService.getAllProducts();
-    for (Product product : products) {
-      productCombo
-        .getItems()
-        .add(
-          product.getSku() +
-            " - " +
-            product.getName() +
-            " (Available: " +
-            product.getQuantity() +
-            ")"
-        );
-    }
+    LazyPicker productPicker = createProductPicker(product ->
+      " (Available: " +
+      inventoryService.getAvailableToPromise(
+        product.getSku(),
+        locationCombo.getValue()
+      ) +
+      ")"
+    );
+    // Availability is per location
+    locationCombo
+      .valueProperty()
+      .addListener((obs, oldLocation, newLocation) -> productPicker.refresh());
 
     addItemButton.setOnAction(e -> {
-      String selectedProduct = productCombo.getValue();
+      String sku = productPicker.getValue();
       String qtyText = qtyField.getText();
 
-      if (selectedProduct != null && !qtyText.isEmpty()) {
+      if (sku != null && !qtyText.isEmpty()) {
         try {
-          String sku = selectedProduct.split(" - ")[0];
           int quantity = Integer.parseInt(qtyText);
-
-          // Check if enough stock is available
-          Optional<Product> product = inventoryService.findProductBySku(sku);
-          if (product.isPresent() && product.get().getQuantity() >= quantity) {
-            OrderItem item = new OrderItem(sku, quantity);
-            orderItems.add(item);
-            itemsList.getItems().add(sku + " x " + quantity);
-
-            productCombo.setValue(null);
-            qtyField.clear();
-          } else {
-            showAlert("Error", "Not enough stock available for this product.");
+          if (inventoryService.findProductBySku(sku).isEmpty()) {
+            showAlert("Error", "Unknown SKU: " + sku);
+            return;
           }
+
+          // Hold the units so no other clerk can sell them meanwhile
+          runAsync(
+            "Reserving stock...",
+            asyncService.reserve(
+              sku,
+              locationCombo.getValue(),
+              quantity,
+              RESERVATION_TTL
+            ),
+            reservationId -> {
+              if (!dialog.isShowing()) {
+                // Landed after the dialog closed; nobody will use the hold
+                reservationId.ifPresent(asyncService::release);
+                return;
+              }
+              if (reservationId.isPresent()) {
+                reservationIds.add(reservationId.get());
+                orderItems.add(new OrderItem(sku, quantity));
+                itemsList.getItems().add(sku + " x " + quantity);
+                // Holds are per location
+                locationCombo.setDisable(true);
+
+                productPicker.clear();
+                qtyField.clear();
+              } else {
+                showAlert(
+                  "Error",
+                  "Not enough stock available for this product."
+                );
+              }
+            }
+          );
         } catch (NumberFormatException ex) {
           showAlert("Error", "Please enter a valid quantity.");
         }
       }
     });
 
-    addItemBox.getChildren().addAll(productCombo, qtyField, addItemButton);
+    addItemBox.getChildren().addAll(productPicker, qtyField, addItemButton);
     itemsSection.getChildren().addAll(itemsLabel, itemsList, addItemBox);
 
     content
@@ -905,6 +1163,8 @@ public class InventoryGUI extends Application {
         orderIdField,
         new Label("Customer Name:"),
         customerField,
+        new Label("Ship From:"),
+        locationCombo,
         itemsSection
       );
 
@@ -924,34 +1184,382 @@ public class InventoryGUI extends Application {
           );
           return null;
         }
+        if (inventoryService.hasSellOrder(orderId)) {
+          showAlert(
+            "Error",
+            "A sell order with ID " + orderId + " already exists."
+          );
+          return null;
+        }
 
         return new SellOrder(
           orderId,
           customerName,
           orderItems,
-          LocalDate.now()
+          LocalDate.now(),
+          locationCombo.getValue()
         );
       }
       return null;
     });
 
     Optional<SellOrder> result = dialog.showAndWait();
-    result.ifPresent(sellOrder -> {
-      inventoryService.addSellOrder(sellOrder);
-      refreshSellOrderTable();
-      refreshProductTable();
-      refreshDashboard();
+    // Reserve callbacks keep adding to the list on this thread, so the
+    // worker gets a copy of the holds the order was built from
+    List<String> held = List.copyOf(reservationIds);
+    if (result.isEmpty()) {
+      releaseReservations(held);
+      return;
+    }
+    CompletableFuture<Boolean> confirm = asyncService.confirmSellOrder(
+      result.get(),
+      held
+    );
+    // A failed save keeps the holds; let them go rather than wait out the TTL
+    confirm.whenComplete((confirmed, error) -> {
+      if (error != null) {
+        releaseReservations(held);
+      }
     });
+    runAsync(
+      "Creating sell order...",
+      confirm,
+      confirmed -> {
+        if (!confirmed) {
+          releaseReservations(held);
+          showAlert(
+            "Error",
+            "The sell order was not created: its reservations expired and " +
+            "the stock was sold elsewhere, or the ID is already in use."
+          );
+        }
+      }
+    );
+  }
+
+  private void releaseReservations(List<String> reservationIds) {
+    for (String reservationId : reservationIds) {
+      asyncService.release(reservationId);
+    }
+  }
+
+  private void showReceiveStockDialog() {
+    Product selectedProduct = productTable
+      .getSelectionModel()
+      .getSelectedItem();
+    if (selectedProduct == null) {
+      showAlert("No Selection", "Please select a product to receive.");
+      return;
+    }
+
+    Dialog<ButtonType> dialog = new Dialog<>();
+    dialog.setTitle("Receive Stock");
+    dialog.setHeaderText("Receive " + selectedProduct.getSku() + " into:");
+    ButtonType receiveButtonType = new ButtonType(
+      "Receive",
+      ButtonBar.ButtonData.OK_DONE
+    );
+    dialog
+      .getDialogPane()
+      .getButtonTypes()
+      .addAll(receiveButtonType, ButtonType.CANCEL);
+
+    GridPane grid = new GridPane();
+    grid.setHgap(10);
+    grid.setVgap(10);
+    grid.setPadding(new Insets(20, 150, 10, 10));
+
+    ComboBox<String> locationCombo = createLocationCombo(true);
+    TextField qtyField = new TextField();
+    qtyField.setPromptText("Quantity");
+
+    grid.add(new Label("Location:"), 0, 0);
+    grid.add(locationCombo, 1, 0);
+    grid.add(new Label("Quantity:"), 0, 1);
+    grid.add(qtyField, 1, 1);
+    dialog.getDialogPane().setContent(grid);
+
+    Optional<ButtonType> result = dialog.showAndWait();
+    if (result.isPresent() && result.get() == receiveButtonType) {
+      try {
+        int quantity = Integer.parseInt(qtyField.getText());
+        runAsync(
+          "Receiving stock...",
+          asyncService.receiveStock(
+            selectedProduct.getSku(),
+            locationCombo.getValue(),
+            quantity
+          ),
+          received -> {
+            if (!received) {
+              showAlert("Error", "Stock could not be received.");
+            }
+          }
+        );
+      } catch (NumberFormatException e) {
+        showAlert("Error", "Please enter a valid quantity.");
+      }
+    }
+  }
+
+  private void showTransferStockDialog() {
+    Product selectedProduct = productTable
+      .getSelectionModel()
+      .getSelectedItem();
+    if (selectedProduct == null) {
+      showAlert("No Selection", "Please select a product to transfer.");
+      return;
+    }
+
+    Dialog<ButtonType> dialog = new Dialog<>();
+    dialog.setTitle("Transfer Stock");
+    dialog.setHeaderText(
+      "Stock of " +
+        selectedProduct.getSku() +
+        ": " +
+        inventoryService.getStockByLocation(selectedProduct.getSku())
+    );
+    ButtonType transferButtonType = new ButtonType(
+      "Transfer",
+      ButtonBar.ButtonData.OK_DONE
+    );
+    dialog
+      .getDialogPane()
+      .getButtonTypes()
+      .addAll(transferButtonType, ButtonType.CANCEL);
+
+    GridPane grid = new GridPane();
+    grid.setHgap(10);
+    grid.setVgap(10);
+    grid.setPadding(new Insets(20, 150, 10, 10));
+
+    ComboBox<String> fromCombo = createLocationCombo(false);
+    ComboBox<String> toCombo = createLocationCombo(true);
+    TextField qtyField = new TextField();
+    qtyField.setPromptText("Quantity");
+
+    grid.add(new Label("From:"), 0, 0);
+    grid.add(fromCombo, 1, 0);
+    grid.add(new Label("To:"), 0, 1);
+    grid.add(toCombo, 1, 1);
+    grid.add(new Label("Quantity:"), 0, 2);
+    grid.add(qtyField, 1, 2);
+    dialog.getDialogPane().setContent(grid);
+
+    Optional<ButtonType> result = dialog.showAndWait();
+    if (result.isPresent() && result.get() == transferButtonType) {
+      try {
+        int quantity = Integer.parseInt(qtyField.getText());
+        runAsync(
+          "Transferring stock...",
+          asyncService.transferStock(
+            selectedProduct.getSku(),
+            fromCombo.getValue(),
+            toCombo.getValue(),
+            quantity
+          ),
+          transferred -> {
+            if (!transferred) {
+              showAlert(
+                "Error",
+                "Not enough stock at " + fromCombo.getValue() + " to transfer."
+              );
+            }
+          }
+        );
+      } catch (NumberFormatException e) {
+        showAlert("Error", "Please enter a valid quantity.");
+      }
+    }
+  }
+
+  // Stock at the end of a chosen day, for the selected product (if any) and
+  // for the whole store
+  private void showStockHistoryDialog() {
+    Product selectedProduct = productTable
+      .getSelectionModel()
+      .getSelectedItem();
+
+    Dialog<ButtonType> dialog = new Dialog<>();
+    dialog.setTitle("Stock History");
+    dialog.setHeaderText("Stock at the end of a day:");
+    dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+
+    GridPane grid = new GridPane();
+    grid.setHgap(10);
+    grid.setVgap(10);
+    grid.setPadding(new Insets(20, 150, 10, 10));
+
+    DatePicker datePicker = new DatePicker(LocalDate.now());
+    Label productStockLabel = new Label("-");
+    Label storeStockLabel = new Label("-");
+
+    grid.add(new Label("Date:"), 0, 0);
+    grid.add(datePicker, 1, 0);
+    if (selectedProduct != null) {
+      grid.add(new Label(selectedProduct.getSku() + ":"), 0, 1);
+      grid.add(productStockLabel, 1, 1);
+    }
+    grid.add(new Label("Whole store:"), 0, 2);
+    grid.add(storeStockLabel, 1, 2);
+    dialog.getDialogPane().setContent(grid);
+
+    Consumer<LocalDate> lookup = date -> {
+      if (date == null) {
+        return;
+      }
+      Instant endOfDay = date
+        .plusDays(1)
+        .atStartOfDay(ZoneId.systemDefault())
+        .toInstant()
+        .minusMillis(1);
+      if (selectedProduct != null) {
+        runRead(
+          "Looking up stock history...",
+          asyncService.getStockAt(selectedProduct.getSku(), endOfDay),
+          quantity -> productStockLabel.setText(String.valueOf(quantity))
+        );
+      }
+      runRead(
+        "Looking up stock history...",
+        asyncService.getTotalStockAt(endOfDay),
+        quantity -> storeStockLabel.setText(String.valueOf(quantity))
+      );
+    };
+    datePicker.valueProperty().addListener((obs, oldDate, newDate) ->
+      lookup.accept(newDate)
+    );
+    lookup.accept(datePicker.getValue());
+
+    dialog.showAndWait();
+  }
+
+  // SKUs page by page as typed; a query no SKU starts with falls back to
+  // one page of products with similar names
+  private LazyPicker createProductPicker(Function<Product, String> detail) {
+    return new LazyPicker(
+      "Type a SKU or name...",
+      (query, after, limit) -> {
+        List<String> skus = inventoryService.completeSku(query, after, limit);
+        if (!skus.isEmpty() || after != null || query.isEmpty()) {
+          return skus;
+        }
+        List<String> similar = new ArrayList<>();
+        for (Product product : inventoryService.searchProductsFuzzy(
+          query,
+          limit
+        )) {
+          similar.add(product.getSku());
+        }
+        return similar;
+      },
+      sku ->
+        inventoryService
+          .findProductBySku(sku)
+          .map(product ->
+            sku + " - " + product.getName() + detail.apply(product)
+          )
+          .orElse(sku)
+    );
+  }
+
+  private LazyPicker createSupplierPicker() {
+    return new LazyPicker(
+      "Type a supplier ID...",
+      inventoryService::completeSupplierId,
+      id ->
+        inventoryService
+          .findSupplierById(id)
+          .map(supplier -> id + " - " + supplier.getName())
+          .orElse(id)
+    );
+  }
+
+  // Known locations, default selected; editable where a new one may be named
+  private ComboBox<String> createLocationCombo(boolean allowNew) {
+    ComboBox<String> combo = new ComboBox<>();
+    combo.getItems().addAll(inventoryService.getLocations());
+    combo.setValue(InventoryService.DEFAULT_LOCATION);
+    combo.setEditable(allowNew);
+    return combo;
+  }
+
+  private void exportProducts() {
+    FileChooser chooser = new FileChooser();
+    chooser.setTitle("Export Products");
+    chooser.setInitialFileName("products.csv");
+    chooser
+      .getExtensionFilters()
+      .add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+    File file = chooser.showSaveDialog(primaryStage);
+    if (file == null) {
+      return;
+    }
+    runRead(
+      "Exporting products...",
+      asyncService.exportProducts(file.toPath()),
+      rows ->
+        showAlert(
+          "Export",
+          "Exported " + rows + " products to " + file.getName()
+        )
+    );
   }
 
   private void searchProducts(String searchTerm) {
-    if (searchTerm.isEmpty()) {
-      refreshProductTable();
-    } else {
-      List<Product> searchResults = inventoryService.searchProducts(searchTerm);
-      productData.clear();
-      productData.addAll(searchResults);
+    String query = searchTerm.trim().toLowerCase();
+    if (pendingSearch != null) {
+      pendingSearch.cancel(true);
+      pendingSearch = null;
+    }
+    if (query.isEmpty()) {
+      productFilter = null;
+      filteredProducts.setPredicate(null);
+      return;
+    }
+    if (productFilter != null && productFilter.getQuery().equals(query)) {
+      return;
     }
+
+    // Typing more characters can only narrow the previous results
+    Collection<Product> candidates = productFilter != null &&
+      productFilter.narrowsTo(query)
+      ? productFilter.candidates()
+      : inventoryService.getAllProducts();
+    touchedDuringSearch.clear();
+    CompletableFuture<List<Product>> scan = asyncService.searchProducts(
+      query,
+      candidates
+    );
+    // Nothing contains the query; fall back to names that look like it
+    CompletableFuture<ProductFilter> search = scan.thenCompose(matches ->
+      matches.isEmpty()
+        ? asyncService
+          .searchProductsFuzzy(query, FUZZY_RESULT_LIMIT)
+          .thenApply(similar -> ProductFilter.fuzzy(query, similar))
+        : CompletableFuture.completedFuture(new ProductFilter(query, matches))
+    );
+    search.whenComplete((filter, error) -> {
+      if (search.isCancelled()) {
+        scan.cancel(true);
+      }
+    });
+    pendingSearch = search;
+    search.whenCompleteAsync(
+      (filter, error) -> {
+        if (search != pendingSearch || error != null) {
+          return;
+        }
+        pendingSearch = null;
+        // Products that changed while the search ran; the candidates are
+        // live, so a match may no longer hold
+        touchedDuringSearch.forEach(filter::recheck);
+        touchedDuringSearch.clear();
+        productFilter = filter;
+        filteredProducts.setPredicate(filter);
+      },
+      Platform::runLater
+    );
   }
 
   private void refreshAllData() {
@@ -963,40 +1571,300 @@ public class InventoryGUI extends Application {
   }
 
   private void refreshProductTable() {
-    productData.clear();
-    productData.addAll(inventoryService.getAllProducts());
+    productData.setAll(inventoryService.getAllProducts());
+    productRows.clear();
+    for (int i = 0; i < productData.size(); i++) {
+      productRows.put(productData.get(i).getSku(), i);
+    }
   }
 
   private void refreshSupplierTable() {
-    supplierData.clear();
-    supplierData.addAll(inventoryService.getAllSuppliers());
+    showOnly(
+      supplierData,
+      supplierIds,
+      inventoryService.getAllSuppliers(),
+      Supplier::getId
+    );
   }
 
   private void refreshOrderTable() {
-    orderData.clear();
-    orderData.addAll(inventoryService.getAllOrders());
+    showOnly(
+      orderData,
+      orderIds,
+      inventoryService.getAllOrders(),
+      Order::getOrderId
+    );
   }
 
   private void refreshSellOrderTable() {
-    sellOrderData.clear();
-    sellOrderData.addAll(inventoryService.getAllSellOrders());
+    showOnly(
+      sellOrderData,
+      sellOrderIds,
+      inventoryService.getAllSellOrders(),
+      SellOrder::getOrderId
+    );
   }
 
-  private void refreshDashboard() {
-    totalProductsLabel.setText(
-      String.valueOf(inventoryService.getTotalProducts())
-    );
-    totalQuantityLabel.setText(
-      String.valueOf(inventoryService.getTotalQuantity())
+  private static <T> void showOnly(
+    ObservableList<T> rows,
+    Set<String> shown,
+    List<T> items,
+    Function<T, String> id
+  ) {
+    shown.clear();
+    for (T item : items) {
+      shown.add(id.apply(item));
+    }
+    rows.setAll(items);
+  }
+
+  // Appends the items not shown yet, in one change to the table
+  private static <T> void showAlso(
+    ObservableList<T> rows,
+    Set<String> shown,
+    List<T> items,
+    Function<T, String> id
+  ) {
+    List<T> fresh = new ArrayList<>(items.size());
+    for (T item : items) {
+      if (shown.add(id.apply(item))) {
+        fresh.add(item);
+      }
+    }
+    rows.addAll(fresh);
+  }
+
+  // Applies one batch of service deltas; runs on the FX thread.
+  private void applyChanges(List<InventoryChange> changes) {
+    Map<String, InventoryChange> productChanges = new LinkedHashMap<>();
+    List<Supplier> addedSuppliers = new ArrayList<>();
+    List<Order> addedOrders = new ArrayList<>();
+    List<SellOrder> addedSellOrders = new ArrayList<>();
+
+    for (InventoryChange change : changes) {
+      switch (change.getEntity()) {
+        case PRODUCT:
+          // Only the latest state of each SKU matters
+          productChanges.remove(change.getKey());
+          productChanges.put(change.getKey(), change);
+          break;
+        case SUPPLIER:
+          addedSuppliers.add((Supplier) change.getValue());
+          break;
+        case ORDER:
+          addedOrders.add((Order) change.getValue());
+          break;
+        case SELL_ORDER:
+          addedSellOrders.add((SellOrder) change.getValue());
+          break;
+      }
+    }
+
+    if (!productChanges.isEmpty()) {
+      applyProductChanges(productChanges);
+      dashboardDirty = true;
+      // Supplier totals moved with the products; re-read the visible rows
+      supplierTable.refresh();
+    }
+    showAlso(supplierData, supplierIds, addedSuppliers, Supplier::getId);
+    showAlso(orderData, orderIds, addedOrders, Order::getOrderId);
+    showAlso(
+      sellOrderData,
+      sellOrderIds,
+      addedSellOrders,
+      SellOrder::getOrderId
     );
-    totalValueLabel.setText(
-      String.format("$%.2f", inventoryService.getTotalValue())
+  }
+
+  private void applyProductChanges(Map<String, InventoryChange> changes) {
+    for (InventoryChange change : changes.values()) {
+      if (change.getType() != InventoryChange.Type.REMOVED) {
+        Product product = (Product) change.getValue();
+        if (productFilter != null) {
+          productFilter.recheck(product);
+        }
+        if (pendingSearch != null) {
+          touchedDuringSearch.add(product);
+        }
+      }
+    }
+
+    List<Product> added = new ArrayList<>();
+    for (Map.Entry<String, InventoryChange> entry : changes.entrySet()) {
+      String sku = entry.getKey();
+      InventoryChange change = entry.getValue();
+      Integer row = productRows.get(sku);
+      if (change.getType() == InventoryChange.Type.REMOVED) {
+        if (row != null) {
+          removeProductRow(sku, row);
+        }
+      } else if (row != null) {
+        // Replace the row so the table re-reads its cells
+        productData.set(row, (Product) change.getValue());
+      } else {
+        added.add((Product) change.getValue());
+      }
+    }
+    // Appended after the removals above, so their positions are final
+    int next = productData.size();
+    for (Product product : added) {
+      productRows.put(product.getSku(), next++);
+    }
+    productData.addAll(added);
+  }
+
+  // Moves the last row into the gap instead of shifting every row after
+  // it. Only the unsorted table shows the move; a sorted one re-sorts.
+  private void removeProductRow(String sku, int row) {
+    productRows.remove(sku);
+    int last = productData.size() - 1;
+    if (row != last) {
+      Product moved = productData.get(last);
+      productData.set(row, moved);
+      productRows.put(moved.getSku(), row);
+    }
+    productData.remove(last);
+  }
+
+  // Coalesces change events into at most one dashboard refresh per tick
+  private void startDashboardTicker() {
+    dashboardTicker =
+      new Timeline(
+        new KeyFrame(
+          DASHBOARD_REFRESH_INTERVAL,
+          e -> {
+            if (dashboardDirty && !dashboardRefreshing) {
+              refreshDashboard();
+            }
+          }
+        )
+      );
+    dashboardTicker.setCycleCount(Animation.INDEFINITE);
+    dashboardTicker.play();
+  }
+
+  private void refreshDashboard() {
+    dashboardDirty = false;
+    dashboardRefreshing = true;
+    List<Product> products = inventoryService.getAllProducts();
+    List<Product> recent = new ArrayList<>(
+      products.subList(
+        Math.max(0, products.size() - RECENT_PRODUCT_COUNT),
+        products.size()
+      )
     );
-    lowStockLabel.setText(
-      String.valueOf(inventoryService.getLowStockCount(10))
+    Collections.reverse(recent);
+    recentProductData.setAll(recent);
+    refreshRankings();
+
+    asyncService
+      .getStats(LOW_STOCK_THRESHOLD)
+      .whenCompleteAsync(
+        (stats, error) -> {
+          dashboardRefreshing = false;
+          if (stats != null) {
+            showStats(stats);
+          }
+        },
+        Platform::runLater
+      );
+  }
+
+  private void refreshRankings() {
+    List<String> sellers = new ArrayList<>();
+    for (BestSeller seller : inventoryService.getBestSellers(
+      bestSellerWindowCombo.getValue(),
+      RANKING_SIZE
+    )) {
+      sellers.add(seller.getSku() + "  " + seller.getUnits() + " units");
+    }
+    bestSellerList.getItems().setAll(sellers);
+
+    List<String> valued = new ArrayList<>();
+    for (Product product : inventoryService.getTopByStockValue(RANKING_SIZE)) {
+      valued.add(
+        String.format(
+          "%s  $%.2f",
+          product.getSku(),
+          product.getQuantity() * product.getPrice()
+        )
+      );
+    }
+    topValueList.getItems().setAll(valued);
+  }
+
+  private void showStats(InventoryStats stats) {
+    totalProductsLabel.setText(String.valueOf(stats.getTotalProducts()));
+    totalQuantityLabel.setText(String.valueOf(stats.getTotalQuantity()));
+    totalValueLabel.setText(String.format("$%.2f", stats.getTotalValue()));
+    lowStockLabel.setText(String.valueOf(stats.getLowStockCount()));
+  }
+
+  private void runAsync(String status, CompletableFuture<?> future) {
+    runAsync(status, future, result -> {});
+  }
+
+  // Tracks a background call and delivers its result on the FX thread
+  private <T> void runAsync(
+    String status,
+    CompletableFuture<T> future,
+    Consumer<T> onSuccess
+  ) {
+    track(status, future, onSuccess, false);
+  }
+
+  // Same, for a read the Cancel button may abandon
+  private <T> void runRead(
+    String status,
+    CompletableFuture<T> future,
+    Consumer<T> onSuccess
+  ) {
+    track(status, future, onSuccess, true);
+  }
+
+  private <T> void track(
+    String status,
+    CompletableFuture<T> future,
+    Consumer<T> onSuccess,
+    boolean canCancel
+  ) {
+    inFlight.add(future);
+    if (canCancel) {
+      cancellable.add(future);
+    }
+    updateStatus(status);
+    future.whenCompleteAsync(
+      (result, error) -> {
+        inFlight.remove(future);
+        cancellable.remove(future);
+        updateStatus("Working...");
+        if (error == null) {
+          onSuccess.accept(result);
+        } else if (!(error instanceof CancellationException)) {
+          Throwable cause = error instanceof CompletionException &&
+            error.getCause() != null
+            ? error.getCause()
+            : error;
+          showAlert("Error", "Operation failed: " + cause.getMessage());
+        }
+      },
+      Platform::runLater
     );
   }
 
+  private void cancelPendingTasks() {
+    for (CompletableFuture<?> future : new ArrayList<>(cancellable)) {
+      future.cancel(true);
+    }
+  }
+
+  private void updateStatus(String status) {
+    boolean busy = !inFlight.isEmpty();
+    busyIndicator.setVisible(busy);
+    cancelButton.setVisible(!cancellable.isEmpty());
+    statusLabel.setText(busy ? status : "Ready");
+  }
+
   private void showAlert(String title, String message) {
     Alert alert = new Alert(Alert.AlertType.INFORMATION);
     alert.setTitle(title);
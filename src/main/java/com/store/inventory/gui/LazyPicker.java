@@ -0,0 +1,126 @@
+package com.store.inventory.gui;
+
+import java.util.List;
+import java.util.function.Function;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.layout.VBox;
+
+// Search field over a list of matching keys (SKUs, supplier IDs). Matches
+// are fetched from the service a page at a time, the next page only when
+// the list is scrolled near its end, and rows are labelled only once they
+// are on screen; opening a picker costs the same at any catalog size.
+class LazyPicker extends VBox {
+
+  // The page of keys matching the query that follows after (null for the
+  // first page); fewer than limit means there are no more
+  interface Pages {
+    List<String> next(String query, String after, int limit);
+  }
+
+  private static final int PAGE_SIZE = 50;
+  // Rows from the end at which the next page is requested
+  private static final int PREFETCH_ROWS = 10;
+
+  private final TextField field = new TextField();
+  private final ListView<String> list = new ListView<>();
+  private final Pages pages;
+  private String query = "";
+  private boolean exhausted;
+  // A load is scheduled and its page not yet added; however many rows near
+  // the end are laid out meanwhile, they share that one load
+  private boolean loadPending;
+
+  LazyPicker(String prompt, Pages pages, Function<String, String> label) {
+    super(5);
+    this.pages = pages;
+    field.setPromptText(prompt);
+    list.setPrefHeight(160);
+    list.setCellFactory(view ->
+      new ListCell<>() {
+        @Override
+        protected void updateItem(String key, boolean empty) {
+          super.updateItem(key, empty);
+          setText(empty || key == null ? null : label.apply(key));
+          if (
+            !empty &&
+            !loadPending &&
+            getIndex() >= list.getItems().size() - PREFETCH_ROWS
+          ) {
+            // Not while the list is laying out its cells
+            loadPending = true;
+            Platform.runLater(LazyPicker.this::loadIfNearEnd);
+          }
+        }
+      }
+    );
+    field
+      .textProperty()
+      .addListener((obs, oldText, newText) -> restart(newText.trim()));
+    getChildren().addAll(field, list);
+    restart("");
+  }
+
+  // The picked key; failing that, whatever was typed. Null if neither.
+  String getValue() {
+    String picked = list.getSelectionModel().getSelectedItem();
+    if (picked != null) {
+      return picked;
+    }
+    String typed = field.getText().trim();
+    return typed.isEmpty() ? null : typed;
+  }
+
+  void clear() {
+    field.clear();
+    list.getSelectionModel().clearSelection();
+  }
+
+  // Re-labels the rows on screen, e.g. after what the labels show changed
+  void refresh() {
+    list.refresh();
+  }
+
+  private void restart(String newQuery) {
+    query = newQuery;
+    exhausted = false;
+    list.getItems().clear();
+    loadNextPage();
+  }
+
+  // Cells are also laid out for rows just off screen, and a restart may
+  // have replaced the items since the load was scheduled, so check again
+  private void loadIfNearEnd() {
+    if (lastVisibleIndex() >= list.getItems().size() - PREFETCH_ROWS) {
+      loadNextPage();
+    }
+    loadPending = false;
+  }
+
+  private int lastVisibleIndex() {
+    Node flow = list.lookup(".virtual-flow");
+    if (flow instanceof VirtualFlow) {
+      IndexedCell<?> last = ((VirtualFlow<?>) flow).getLastVisibleCell();
+      if (last != null) {
+        return last.getIndex();
+      }
+    }
+    return list.getItems().size() - 1;
+  }
+
+  private void loadNextPage() {
+    if (exhausted) {
+      return;
+    }
+    List<String> items = list.getItems();
+    String after = items.isEmpty() ? null : items.get(items.size() - 1);
+    List<String> page = pages.next(query, after, PAGE_SIZE);
+    exhausted = page.size() < PAGE_SIZE;
+    items.addAll(page);
+  }
+}
@@ -0,0 +1,79 @@
+package com.store.inventory.gui;
+
+import com.store.inventory.Product;
+import com.store.inventory.service.InventoryService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+// Result of one product search, used as the FilteredList predicate. The match
+// set is computed off the FX thread and never modified afterwards; products
+// that change while the filter is active are re-tested into a small overlay.
+class ProductFilter implements Predicate<Product> {
+
+  private final String query;
+  private final Set<Product> matches;
+  private final Map<Product, Boolean> overrides = new HashMap<>();
+  private final boolean fuzzy;
+
+  ProductFilter(String query, Collection<Product> matches) {
+    this(query, matches, false);
+  }
+
+  private ProductFilter(
+    String query,
+    Collection<Product> matches,
+    boolean fuzzy
+  ) {
+    this.query = query;
+    this.matches = Collections.unmodifiableSet(new HashSet<>(matches));
+    this.fuzzy = fuzzy;
+  }
+
+  // Names similar to the query rather than containing it. Membership is
+  // fixed: names never change, and new products show on the next search.
+  static ProductFilter fuzzy(String query, Collection<Product> matches) {
+    return new ProductFilter(query, matches, true);
+  }
+
+  String getQuery() {
+    return query;
+  }
+
+  @Override
+  public boolean test(Product product) {
+    Boolean override = overrides.get(product);
+    return override != null ? override : matches.contains(product);
+  }
+
+  void recheck(Product product) {
+    if (fuzzy) {
+      return;
+    }
+    overrides.put(product, InventoryService.matchesSearch(product, query));
+  }
+
+  // A query that contains this one can only match a subset of our results
+  boolean narrowsTo(String newQuery) {
+    return !fuzzy && newQuery.contains(query);
+  }
+
+  Collection<Product> candidates() {
+    if (overrides.isEmpty()) {
+      return matches;
+    }
+    List<Product> candidates = new ArrayList<>(matches);
+    overrides.forEach((product, matched) -> {
+      if (matched && !matches.contains(product)) {
+        candidates.add(product);
+      }
+    });
+    return candidates;
+  }
+}
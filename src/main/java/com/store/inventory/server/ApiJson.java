@@ -0,0 +1,175 @@
+package com.store.inventory.server;
+
+import com.store.inventory.Product;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriter;
+import org.bson.json.JsonWriterSettings;
+
+// JSON in and out for the HTTP API, on the BSON library's JSON reader and
+// writer. Responses are chunked and encoded straight onto the connection,
+// so a large result is never held whole as a string.
+final class ApiJson {
+
+  interface Body {
+    void write(JsonWriter json);
+  }
+
+  // A request body over the size limit; answered with 413
+  static final class BodyTooLargeException extends RuntimeException {
+
+    BodyTooLargeException(long limit) {
+      super("Request body is larger than " + limit + " bytes");
+    }
+  }
+
+  private static final JsonWriterSettings SETTINGS = JsonWriterSettings
+    .builder()
+    .outputMode(JsonMode.RELAXED)
+    .build();
+  private static final int BUFFER_SIZE = 8192;
+  private static final int MAX_BODY_BYTES = Integer.getInteger(
+    "inventory.server.maxBodyBytes",
+    1 << 20
+  );
+
+  private ApiJson() {}
+
+  static void send(HttpExchange exchange, int status, Body body)
+    throws IOException {
+    exchange
+      .getResponseHeaders()
+      .set("Content-Type", "application/json; charset=utf-8");
+    // Length 0 selects chunked encoding; the connection stays open after
+    exchange.sendResponseHeaders(status, 0);
+    try (
+      Writer out = new BufferedWriter(
+        new OutputStreamWriter(
+          exchange.getResponseBody(),
+          StandardCharsets.UTF_8
+        ),
+        BUFFER_SIZE
+      )
+    ) {
+      JsonWriter json = new JsonWriter(out, SETTINGS);
+      json.writeStartDocument();
+      body.write(json);
+      json.writeEndDocument();
+      json.flush();
+    }
+  }
+
+  static void error(HttpExchange exchange, int status, String message)
+    throws IOException {
+    send(exchange, status, json -> json.writeString("error", message));
+  }
+
+  // Reads at most MAX_BODY_BYTES, whatever Content-Length claims
+  static Document readBody(HttpExchange exchange) throws IOException {
+    String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+    if (declared != null) {
+      try {
+        if (Long.parseLong(declared.trim()) > MAX_BODY_BYTES) {
+          throw new BodyTooLargeException(MAX_BODY_BYTES);
+        }
+      } catch (NumberFormatException e) {
+        // The server has already rejected or ignored it; read and see
+      }
+    }
+    String text;
+    try (InputStream in = exchange.getRequestBody()) {
+      byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+      if (bytes.length > MAX_BODY_BYTES) {
+        throw new BodyTooLargeException(MAX_BODY_BYTES);
+      }
+      text = new String(bytes, StandardCharsets.UTF_8);
+    }
+    if (text.isBlank()) {
+      throw new IllegalArgumentException("Request body is empty");
+    }
+    return Document.parse(text);
+  }
+
+  static Map<String, String> query(HttpExchange exchange) {
+    Map<String, String> params = new HashMap<>();
+    String raw = exchange.getRequestURI().getRawQuery();
+    if (raw == null) {
+      return params;
+    }
+    for (String pair : raw.split("&")) {
+      int eq = pair.indexOf('=');
+      String name = eq < 0 ? pair : pair.substring(0, eq);
+      String value = eq < 0 ? "" : pair.substring(eq + 1);
+      params.put(decode(name), decode(value));
+    }
+    return params;
+  }
+
+  static String requiredString(Document body, String field) {
+    Object value = body.get(field);
+    if (!(value instanceof String) || ((String) value).isBlank()) {
+      throw new IllegalArgumentException(field + " is required");
+    }
+    return (String) value;
+  }
+
+  // 3 and 3.0 are accepted; 2.9 is rejected rather than truncated
+  static int requiredInt(Document body, String field) {
+    Object value = body.get(field);
+    if (!(value instanceof Number)) {
+      throw new IllegalArgumentException(field + " must be a number");
+    }
+    double number = ((Number) value).doubleValue();
+    if (
+      number != Math.rint(number) ||
+      number < Integer.MIN_VALUE ||
+      number > Integer.MAX_VALUE
+    ) {
+      throw new IllegalArgumentException(field + " must be a whole number");
+    }
+    return (int) number;
+  }
+
+  // Writes the product as an unnamed document, e.g. an array element
+  static void writeProduct(JsonWriter json, Product product) {
+    json.writeStartDocument();
+    writeProductFields(json, product);
+    json.writeEndDocument();
+  }
+
+  static void writeProductFields(JsonWriter json, Product product) {
+    json.writeString("sku", product.getSku());
+    writeNullable(json, "name", product.getName());
+    writeNullable(json, "description", product.getDescription());
+    json.writeInt32("quantity", product.getQuantity());
+    json.writeDouble("price", product.getPrice());
+    writeNullable(json, "supplierId", product.getSupplierId());
+    writeNullable(json, "dateReceived", product.getDateReceived());
+  }
+
+  private static void writeNullable(
+    JsonWriter json,
+    String name,
+    String value
+  ) {
+    if (value == null) {
+      json.writeNull(name);
+    } else {
+      json.writeString(name, value);
+    }
+  }
+
+  private static String decode(String value) {
+    return URLDecoder.decode(value, StandardCharsets.UTF_8);
+  }
+}
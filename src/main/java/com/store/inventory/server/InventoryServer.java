@@ -0,0 +1,545 @@
+package com.store.inventory.server;
+
+import com.store.inventory.OrderItem;
+import com.store.inventory.Product;
+import com.store.inventory.SellOrder;
+import com.store.inventory.service.BestSeller;
+import com.store.inventory.service.InventoryService;
+import com.store.inventory.service.InventoryStats;
+import com.store.inventory.service.InventoryTenants;
+import com.store.inventory.service.PriceChange;
+import com.store.inventory.service.RepricingResult;
+import com.store.inventory.service.RepricingRule;
+import com.store.inventory.service.SellOrderResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+
+// Headless JSON-over-HTTP front end to InventoryService for POS terminals
+// and the web shop, on the JDK's built-in HTTP server. Connections are kept
+// alive between requests, every request runs on its own pooled thread, and
+// responses are streamed as they are encoded.
+//
+//   GET  /products/{sku}           product and its stock per location
+//   GET  /products?q=term&limit=n  name/SKU/description search; similar
+//                                  names when nothing contains the term
+//   POST /sell-orders              {"orderId", "customerName", "location",
+//                                   "items": [{"sku", "quantity"}]}
+//   POST /receipts                 {"sku", "location", "quantity"}
+//   GET  /stats?lowStock=n         dashboard figures; with &stored=true
+//                                  totalled from MongoDB instead of memory
+//   GET  /best-sellers?window=TODAY|THIS_WEEK|ALL_TIME&limit=n
+//   POST /repricing                {"percent" or "amount", "supplierId",
+//                                   "receivedFrom", "receivedTo", "minStock",
+//                                   "maxStock", "skuPattern", "dryRun"};
+//                                  a preview unless dryRun is false
+//
+// With inventory.server.multiTenant=true the server hosts many stores, and
+// every request names its store in an X-Store-Id header.
+public class InventoryServer {
+
+  private static final int PORT = Integer.getInteger(
+    "inventory.server.port",
+    8080
+  );
+  private static final int BACKLOG = 1024;
+  private static final boolean MULTI_TENANT = Boolean.getBoolean(
+    "inventory.server.multiTenant"
+  );
+  private static final String STORE_HEADER = "X-Store-Id";
+  private static final int DEFAULT_LIMIT = 50;
+  private static final int MAX_LIMIT = 1000;
+  private static final int DEFAULT_LOW_STOCK = 10;
+
+  // Null when serving a single store
+  private final InventoryTenants tenants;
+  private final InventoryService service;
+  private final HttpServer server;
+  private final ExecutorService workers;
+
+  public InventoryServer(InventoryService service, int port)
+    throws IOException {
+    this(service, null, port);
+  }
+
+  public InventoryServer(InventoryTenants tenants, int port)
+    throws IOException {
+    this(null, tenants, port);
+  }
+
+  private InventoryServer(
+    InventoryService service,
+    InventoryTenants tenants,
+    int port
+  ) throws IOException {
+    this.service = service;
+    this.tenants = tenants;
+    this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+    // Thread per request: workers are created as concurrency demands and
+    // reused across requests. Requests block on MongoDB, so a small fixed
+    // pool would queue them behind each other.
+    AtomicInteger threadCount = new AtomicInteger();
+    this.workers =
+      Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(
+          runnable,
+          "inventory-http-" + threadCount.incrementAndGet()
+        );
+        thread.setDaemon(true);
+        return thread;
+      });
+    server.setExecutor(workers);
+    server.createContext("/products", this::handleProducts);
+    server.createContext("/sell-orders", this::handleSellOrders);
+    server.createContext("/receipts", this::handleReceipts);
+    server.createContext("/stats", this::handleStats);
+    server.createContext("/best-sellers", this::handleBestSellers);
+    server.createContext("/repricing", this::handleRepricing);
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  // Waits up to a second for exchanges in progress to finish
+  public void stop() {
+    server.stop(1);
+    workers.shutdown();
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  public static void main(String[] args) throws IOException {
+    InventoryServer server;
+    Runnable closeStores;
+    if (MULTI_TENANT) {
+      InventoryTenants tenants = new InventoryTenants();
+      server = new InventoryServer(tenants, PORT);
+      closeStores = tenants::close;
+    } else {
+      InventoryService service = InventoryService.getInstance();
+      server = new InventoryServer(service, PORT);
+      closeStores = service::close;
+    }
+    Runtime
+      .getRuntime()
+      .addShutdownHook(
+        new Thread(
+          () -> {
+            server.stop();
+            closeStores.run();
+          },
+          "inventory-http-shutdown"
+        )
+      );
+    server.start();
+    System.out.println("Inventory API listening on port " + server.getPort());
+  }
+
+  private interface Handler {
+    void handle(HttpExchange exchange, InventoryService service)
+      throws IOException;
+  }
+
+  private void handleProducts(HttpExchange exchange) throws IOException {
+    respond(
+      exchange,
+      "GET",
+      (e, service) -> {
+        String path = e.getRequestURI().getPath();
+        if (path.length() > "/products/".length()) {
+          lookup(e, service, path.substring("/products/".length()));
+        } else {
+          search(e, service);
+        }
+      }
+    );
+  }
+
+  private static void lookup(
+    HttpExchange exchange,
+    InventoryService service,
+    String sku
+  ) throws IOException {
+    Optional<Product> product = service.findProductBySku(sku);
+    if (product.isEmpty()) {
+      ApiJson.error(exchange, 404, "No product with SKU " + sku);
+      return;
+    }
+    Map<String, Integer> stock = service.getStockByLocation(sku);
+    ApiJson.send(
+      exchange,
+      200,
+      json -> {
+        ApiJson.writeProductFields(json, product.get());
+        json.writeStartDocument("stock");
+        stock.forEach(json::writeInt32);
+        json.writeEndDocument();
+      }
+    );
+  }
+
+  private static void search(
+    HttpExchange exchange,
+    InventoryService service
+  ) throws IOException {
+    Map<String, String> params = ApiJson.query(exchange);
+    String term = params.getOrDefault("q", "").trim();
+    int limit = limit(params);
+    List<Product> matches = term.isEmpty()
+      ? service.getAllProducts()
+      : service.searchProducts(term);
+    boolean similar = false;
+    if (matches.isEmpty() && !term.isEmpty()) {
+      matches = service.searchProductsFuzzy(term, limit);
+      similar = true;
+    }
+    List<Product> page = matches.subList(0, Math.min(limit, matches.size()));
+    int total = matches.size();
+    boolean fuzzy = similar;
+    ApiJson.send(
+      exchange,
+      200,
+      json -> {
+        json.writeInt32("total", total);
+        json.writeBoolean("similar", fuzzy);
+        json.writeStartArray("products");
+        for (Product product : page) {
+          ApiJson.writeProduct(json, product);
+        }
+        json.writeEndArray();
+      }
+    );
+  }
+
+  // One order per request, through the batch path so that every outcome,
+  // not just success, comes back with its reason
+  private void handleSellOrders(HttpExchange exchange) throws IOException {
+    respond(
+      exchange,
+      "POST",
+      (e, service) -> {
+        Document body = ApiJson.readBody(e);
+        List<OrderItem> items = new ArrayList<>();
+        List<Document> itemDocs = body.getList("items", Document.class);
+        if (itemDocs == null || itemDocs.isEmpty()) {
+          throw new IllegalArgumentException("items are required");
+        }
+        for (Document item : itemDocs) {
+          int quantity = ApiJson.requiredInt(item, "quantity");
+          if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be positive");
+          }
+          String sku = ApiJson.requiredString(item, "sku");
+          items.add(new OrderItem(sku, quantity));
+        }
+        SellOrder sellOrder = new SellOrder(
+          ApiJson.requiredString(body, "orderId"),
+          body.getString("customerName"),
+          items,
+          LocalDate.now(),
+          body.getString("location")
+        );
+        SellOrderResult result = service
+          .addSellOrders(List.of(sellOrder))
+          .get(0);
+        ApiJson.send(
+          e,
+          statusOf(result.getStatus()),
+          json -> {
+            json.writeString("orderId", result.getOrderId());
+            json.writeString("status", result.getStatus().name());
+            if (result.getMessage() != null) {
+              json.writeString("message", result.getMessage());
+            }
+          }
+        );
+      }
+    );
+  }
+
+  private void handleReceipts(HttpExchange exchange) throws IOException {
+    respond(
+      exchange,
+      "POST",
+      (e, service) -> {
+        Document body = ApiJson.readBody(e);
+        String sku = ApiJson.requiredString(body, "sku");
+        String location = body.getString("location");
+        int quantity = ApiJson.requiredInt(body, "quantity");
+        if (quantity <= 0) {
+          throw new IllegalArgumentException("quantity must be positive");
+        }
+        if (!service.receiveStock(sku, location, quantity)) {
+          ApiJson.error(e, 404, "No product with SKU " + sku);
+          return;
+        }
+        int total = service
+          .findProductBySku(sku)
+          .map(Product::getQuantity)
+          .orElse(0);
+        ApiJson.send(
+          e,
+          200,
+          json -> {
+            json.writeString("sku", sku);
+            json.writeInt32("received", quantity);
+            json.writeInt32("quantity", total);
+          }
+        );
+      }
+    );
+  }
+
+  private void handleStats(HttpExchange exchange) throws IOException {
+    respond(
+      exchange,
+      "GET",
+      (e, service) -> {
+        Map<String, String> params = ApiJson.query(e);
+        String lowStock = params.get("lowStock");
+        int threshold = lowStock == null
+          ? DEFAULT_LOW_STOCK
+          : Integer.parseInt(lowStock);
+        // A report checked against the stored data reads every product, on
+        // the report replicas; the default answers from running totals
+        InventoryStats stats = Boolean.parseBoolean(params.get("stored"))
+          ? service.scanStats(threshold)
+          : service.getStats(threshold);
+        ApiJson.send(
+          e,
+          200,
+          json -> {
+            json.writeInt32("totalProducts", stats.getTotalProducts());
+            json.writeInt32("totalQuantity", stats.getTotalQuantity());
+            json.writeDouble("totalValue", stats.getTotalValue());
+            json.writeInt32("lowStockCount", stats.getLowStockCount());
+          }
+        );
+      }
+    );
+  }
+
+  private void handleBestSellers(HttpExchange exchange) throws IOException {
+    respond(
+      exchange,
+      "GET",
+      (e, service) -> {
+        Map<String, String> params = ApiJson.query(e);
+        BestSeller.Window window = BestSeller.Window.valueOf(
+          params.getOrDefault("window", "TODAY")
+        );
+        List<BestSeller> top = service.getBestSellers(window, limit(params));
+        ApiJson.send(
+          e,
+          200,
+          json -> {
+            json.writeString("window", window.name());
+            json.writeStartArray("bestSellers");
+            for (BestSeller seller : top) {
+              json.writeStartDocument();
+              json.writeString("sku", seller.getSku());
+              json.writeInt64("units", seller.getUnits());
+              json.writeInt64("maxOverestimate", seller.getMaxOverestimate());
+              json.writeEndDocument();
+            }
+            json.writeEndArray();
+          }
+        );
+      }
+    );
+  }
+
+  private void handleRepricing(HttpExchange exchange) throws IOException {
+    respond(
+      exchange,
+      "POST",
+      (e, service) -> {
+        Document body = ApiJson.readBody(e);
+        RepricingRule rule = repricingRule(body);
+        boolean dryRun = body.getBoolean("dryRun", true);
+        RepricingResult result = dryRun
+          ? service.previewRepricing(rule)
+          : service.applyRepricing(rule);
+        if (!dryRun && !result.isApplied()) {
+          ApiJson.error(e, 503, "Prices could not be saved; nothing changed");
+          return;
+        }
+        List<PriceChange> changes = result.getChanges();
+        List<PriceChange> shown = changes.subList(
+          0,
+          Math.min(limit(ApiJson.query(e)), changes.size())
+        );
+        ApiJson.send(
+          e,
+          200,
+          json -> {
+            json.writeBoolean("applied", result.isApplied());
+            json.writeString("rule", rule.toString());
+            json.writeInt32("affected", result.getAffectedCount());
+            json.writeDouble("valueBefore", result.getValueBefore());
+            json.writeDouble("valueAfter", result.getValueAfter());
+            json.writeDouble("valueDelta", result.getValueDelta());
+            json.writeStartArray("changes");
+            for (PriceChange change : shown) {
+              json.writeStartDocument();
+              json.writeString("sku", change.getSku());
+              json.writeDouble("oldPrice", change.getOldPrice());
+              json.writeDouble("newPrice", change.getNewPrice());
+              json.writeEndDocument();
+            }
+            json.writeEndArray();
+          }
+        );
+      }
+    );
+  }
+
+  private static RepricingRule repricingRule(Document body) {
+    Object percent = body.get("percent");
+    Object amount = body.get("amount");
+    RepricingRule rule;
+    if (percent instanceof Number) {
+      rule = RepricingRule.percent(((Number) percent).doubleValue());
+    } else if (amount instanceof Number) {
+      rule = RepricingRule.absolute(((Number) amount).doubleValue());
+    } else {
+      throw new IllegalArgumentException("percent or amount is required");
+    }
+    if (body.getString("supplierId") != null) {
+      rule = rule.forSupplier(body.getString("supplierId"));
+    }
+    String from = body.getString("receivedFrom");
+    String to = body.getString("receivedTo");
+    if (from != null || to != null) {
+      rule =
+        rule.receivedBetween(
+          from == null ? null : LocalDate.parse(from),
+          to == null ? null : LocalDate.parse(to)
+        );
+    }
+    if (body.containsKey("minStock") || body.containsKey("maxStock")) {
+      rule =
+        rule.stockBetween(
+          body.containsKey("minStock")
+            ? ApiJson.requiredInt(body, "minStock")
+            : null,
+          body.containsKey("maxStock")
+            ? ApiJson.requiredInt(body, "maxStock")
+            : null
+        );
+    }
+    if (body.getString("skuPattern") != null) {
+      rule = rule.skuMatching(body.getString("skuPattern"));
+    }
+    return rule;
+  }
+
+  // Checks the path and method, runs the handler and turns failures into
+  // JSON errors. A failure after the response has started can no longer be
+  // reported; the exchange is closed short, so the client sees a truncated
+  // response rather than a second one spliced into it. The exchange is
+  // always closed, which returns the connection for reuse.
+  private void respond(HttpExchange exchange, String method, Handler handler)
+    throws IOException {
+    try {
+      // A context matches any path with its prefix: /products also matches
+      // /productsXYZ, which is not ours
+      String context = exchange.getHttpContext().getPath();
+      String path = exchange.getRequestURI().getPath();
+      if (!path.equals(context) && !path.startsWith(context + "/")) {
+        ApiJson.error(exchange, 404, "No such resource: " + path);
+        return;
+      }
+      if (!method.equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", method);
+        ApiJson.error(exchange, 405, "Use " + method);
+        return;
+      }
+      if (tenants == null) {
+        handler.handle(exchange, service);
+      } else {
+        // The store stays loaded until the response is written
+        try (
+          InventoryTenants.Handle store = tenants.acquire(storeId(exchange))
+        ) {
+          handler.handle(exchange, store.service());
+        }
+      }
+    } catch (ApiJson.BodyTooLargeException e) {
+      fail(exchange, 413, e.getMessage(), e);
+    } catch (
+      IllegalArgumentException
+      | JsonParseException
+      | DateTimeParseException
+      | ClassCastException e
+    ) {
+      fail(exchange, 400, e.getMessage(), e);
+    } catch (RuntimeException e) {
+      System.err.println("API request failed: " + e.getMessage());
+      fail(exchange, 500, "Internal error", e);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static void fail(
+    HttpExchange exchange,
+    int status,
+    String message,
+    Exception cause
+  ) throws IOException {
+    // -1 until sendResponseHeaders has been called
+    if (exchange.getResponseCode() == -1) {
+      ApiJson.error(exchange, status, message);
+    } else {
+      System.err.println(
+        "API response cut short after headers: " + cause.getMessage()
+      );
+    }
+  }
+
+  private static String storeId(HttpExchange exchange) {
+    String storeId = exchange.getRequestHeaders().getFirst(STORE_HEADER);
+    if (storeId == null) {
+      throw new IllegalArgumentException(STORE_HEADER + " header is required");
+    }
+    return storeId;
+  }
+
+  private static int limit(Map<String, String> params) {
+    String limit = params.get("limit");
+    if (limit == null) {
+      return DEFAULT_LIMIT;
+    }
+    return Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(limit)));
+  }
+
+  private static int statusOf(SellOrderResult.Status status) {
+    switch (status) {
+      case ACCEPTED:
+        return 201;
+      case DUPLICATE:
+      case INSUFFICIENT_STOCK:
+        return 409;
+      case UNKNOWN_PRODUCT:
+        return 404;
+      default:
+        return 500;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.store.inventory.service;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Append-only list with O(1) immutable snapshots. Appends never touch slots
+// that an existing snapshot can see, so readers iterate without locking while
+// a single (externally synchronized) writer keeps appending.
+final class AppendOnlyList<T> {
+
+  private Object[] items;
+  private volatile Snapshot<T> current;
+
+  AppendOnlyList() {
+    this(16);
+  }
+
+  AppendOnlyList(int initialCapacity) {
+    items = new Object[Math.max(1, initialCapacity)];
+    current = new Snapshot<>(items, 0);
+  }
+
+  void append(T item) {
+    int size = current.size;
+    if (size == items.length) {
+      Object[] grown = new Object[size + (size >> 1) + 1];
+      System.arraycopy(items, 0, grown, 0, size);
+      items = grown;
+    }
+    items[size] = item;
+    current = new Snapshot<>(items, size + 1);
+  }
+
+  List<T> snapshot() {
+    return current;
+  }
+
+  int size() {
+    return current.size;
+  }
+
+  private static final class Snapshot<T>
+    extends AbstractList<T>
+    implements RandomAccess {
+
+    private final Object[] items;
+    private final int size;
+
+    Snapshot(Object[] items, int size) {
+      this.items = items;
+      this.size = size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException(
+          "Index: " + index + ", Size: " + size
+        );
+      }
+      return (T) items[index];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Order;
+import com.store.inventory.Product;
+import com.store.inventory.SellOrder;
+import com.store.inventory.Supplier;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs InventoryService calls on background threads so UI code never blocks
+// on MongoDB. Every method returns immediately. Cancelling a returned future
+// skips the call if it has not started yet. A read that has started is
+// interrupted; a write that has started always runs to completion, so it
+// never stops halfway between memory and MongoDB.
+public class AsyncInventoryService {
+
+  private final ExecutorService executor;
+  private final CompletableFuture<InventoryService> service;
+
+  public AsyncInventoryService() {
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+      Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(
+          runnable,
+          "inventory-io-" + threadCount.incrementAndGet()
+        );
+        thread.setDaemon(true);
+        return thread;
+      });
+    this.service = submit(InventoryService::getInstance, false);
+  }
+
+  // Completes once the initial load from MongoDB has finished
+  public CompletableFuture<InventoryService> ready() {
+    return service.copy();
+  }
+
+  public CompletableFuture<Void> addProduct(Product product) {
+    return run(s -> s.addProduct(product));
+  }
+
+  public CompletableFuture<Void> updateProduct(
+    String sku,
+    int newQuantity,
+    double newPrice
+  ) {
+    return run(s -> s.updateProduct(sku, newQuantity, newPrice));
+  }
+
+  public CompletableFuture<RepricingResult> previewRepricing(
+    RepricingRule rule
+  ) {
+    return read(s -> s.previewRepricing(rule));
+  }
+
+  public CompletableFuture<RepricingResult> applyRepricing(RepricingRule rule) {
+    return call(s -> s.applyRepricing(rule));
+  }
+
+  public CompletableFuture<Boolean> removeProduct(String sku) {
+    return call(s -> s.removeProduct(sku));
+  }
+
+  public CompletableFuture<List<Product>> searchProducts(String searchTerm) {
+    return read(s -> s.searchProducts(searchTerm));
+  }
+
+  public CompletableFuture<List<Product>> searchProducts(
+    String searchTerm,
+    Collection<Product> candidates
+  ) {
+    return read(s -> s.searchProducts(searchTerm, candidates));
+  }
+
+  public CompletableFuture<List<Product>> searchProductsFuzzy(
+    String searchTerm,
+    int limit
+  ) {
+    return read(s -> s.searchProductsFuzzy(searchTerm, limit));
+  }
+
+  public CompletableFuture<InventoryStats> getStats(int lowStockThreshold) {
+    return read(s -> s.getStats(lowStockThreshold));
+  }
+
+  public CompletableFuture<Integer> exportProducts(Path target) {
+    return read(s -> s.exportProducts(target));
+  }
+
+  public CompletableFuture<Optional<String>> reserve(
+    String sku,
+    String location,
+    int quantity,
+    Duration ttl
+  ) {
+    return call(s -> s.reserve(sku, location, quantity, ttl));
+  }
+
+  public CompletableFuture<Boolean> release(String reservationId) {
+    return call(s -> s.release(reservationId));
+  }
+
+  public CompletableFuture<List<SellOrderResult>> addSellOrders(
+    List<SellOrder> batch
+  ) {
+    return call(s -> s.addSellOrders(batch));
+  }
+
+  public CompletableFuture<Boolean> confirmSellOrder(
+    SellOrder sellOrder,
+    Collection<String> reservationIds
+  ) {
+    return call(s -> s.confirmSellOrder(sellOrder, reservationIds));
+  }
+
+  public CompletableFuture<Boolean> receiveStock(
+    String sku,
+    String location,
+    int quantity
+  ) {
+    return call(s -> s.receiveStock(sku, location, quantity));
+  }
+
+  public CompletableFuture<Boolean> transferStock(
+    String sku,
+    String fromLocation,
+    String toLocation,
+    int quantity
+  ) {
+    return call(s -> s.transferStock(sku, fromLocation, toLocation, quantity));
+  }
+
+  public CompletableFuture<Integer> getStockAt(String sku, Instant at) {
+    return read(s -> s.getStockAt(sku, at));
+  }
+
+  public CompletableFuture<Long> getTotalStockAt(Instant at) {
+    return read(s -> s.getTotalStockAt(at));
+  }
+
+  // Resolves to false if the ID was already recorded
+  public CompletableFuture<Boolean> addSupplier(Supplier supplier) {
+    return call(s -> s.addSupplier(supplier));
+  }
+
+  // Resolves to false if the ID was already recorded
+  public CompletableFuture<Boolean> addOrder(Order order) {
+    return call(s -> s.addOrder(order));
+  }
+
+  public CompletableFuture<Boolean> addSellOrder(SellOrder sellOrder) {
+    return call(s -> s.addSellOrder(sellOrder));
+  }
+
+  public CompletableFuture<Void> close() {
+    return run(InventoryService::close).whenComplete((r, e) ->
+      executor.shutdown()
+    );
+  }
+
+  private CompletableFuture<Void> run(ServiceAction action) {
+    return call(s -> {
+      action.apply(s);
+      return null;
+    });
+  }
+
+  // A call that changes something
+  private <T> CompletableFuture<T> call(ServiceCall<T> call) {
+    // Waits for the initial load on the worker thread, never on the caller's
+    return submit(() -> call.apply(service.join()), false);
+  }
+
+  // A call that only reads, and may be interrupted
+  private <T> CompletableFuture<T> read(ServiceCall<T> call) {
+    return submit(() -> call.apply(service.join()), true);
+  }
+
+  private <T> CompletableFuture<T> submit(
+    Callable<T> task,
+    boolean interruptible
+  ) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Future<?> running = executor.submit(() -> {
+      if (result.isDone()) {
+        // Cancelled before it started
+        return;
+      }
+      try {
+        result.complete(task.call());
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      }
+    });
+    if (interruptible) {
+      result.whenComplete((r, e) -> {
+        if (result.isCancelled()) {
+          running.cancel(true);
+        }
+      });
+    }
+    return result;
+  }
+
+  @FunctionalInterface
+  private interface ServiceCall<T> {
+    T apply(InventoryService service) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface ServiceAction {
+    void apply(InventoryService service) throws Exception;
+  }
+}
@@ -0,0 +1,49 @@
+package com.store.inventory.service;
+
+// One SKU in a best-seller ranking. Units are an estimate from a bounded
+// summary: never below the true figure, and at most maxOverestimate above it.
+public class BestSeller {
+
+  public enum Window {
+    TODAY,
+    THIS_WEEK,
+    ALL_TIME,
+  }
+
+  private final String sku;
+  private final long units;
+  private final long maxOverestimate;
+
+  BestSeller(String sku, long units, long maxOverestimate) {
+    this.sku = sku;
+    this.units = units;
+    this.maxOverestimate = maxOverestimate;
+  }
+
+  public String getSku() {
+    return sku;
+  }
+
+  public long getUnits() {
+    return units;
+  }
+
+  public long getMaxOverestimate() {
+    return maxOverestimate;
+  }
+
+  // Units the SKU is certain to have sold in the window
+  public long getGuaranteedUnits() {
+    return units - maxOverestimate;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "BestSeller{sku='%s', units=%d, maxOverestimate=%d}",
+      sku,
+      units,
+      maxOverestimate
+    );
+  }
+}
@@ -0,0 +1,86 @@
+package com.store.inventory.service;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+// Units sold per SKU today, this week (from Monday) and all time, each kept
+// in a fixed-size Space-Saving summary. Memory and ranking cost depend only
+// on the counter count, never on how many orders have been sold; the day
+// and week summaries start empty when their window rolls over.
+final class BestSellers {
+
+  private final int capacity;
+  private final Clock clock;
+  private final SpaceSaving allTime;
+  private SpaceSaving week;
+  private SpaceSaving today;
+  private LocalDate weekStart;
+  private LocalDate day;
+
+  BestSellers(int capacity, Clock clock) {
+    this.capacity = capacity;
+    this.clock = clock;
+    this.allTime = new SpaceSaving(capacity);
+    roll();
+  }
+
+  // Sales dated before the current day or week count toward all time only;
+  // undated or future-dated ones count as today's
+  synchronized void record(LocalDate date, String sku, int units) {
+    if (units <= 0) {
+      return;
+    }
+    roll();
+    allTime.add(sku, units);
+    if (date == null || date.isAfter(day)) {
+      date = day;
+    }
+    if (!date.isBefore(weekStart)) {
+      week.add(sku, units);
+    }
+    if (date.equals(day)) {
+      today.add(sku, units);
+    }
+  }
+
+  synchronized List<BestSeller> top(BestSeller.Window window, int limit) {
+    roll();
+    SpaceSaving summary;
+    switch (window) {
+      case TODAY:
+        summary = today;
+        break;
+      case THIS_WEEK:
+        summary = week;
+        break;
+      default:
+        summary = allTime;
+        break;
+    }
+    List<BestSeller> top = new ArrayList<>();
+    for (SpaceSaving.Counter counter : summary.top(limit)) {
+      top.add(new BestSeller(counter.item, counter.count, counter.error));
+    }
+    return top;
+  }
+
+  private void roll() {
+    LocalDate now = LocalDate.now(clock);
+    if (now.equals(day)) {
+      return;
+    }
+    day = now;
+    today = new SpaceSaving(capacity);
+    LocalDate monday = now.with(
+      TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)
+    );
+    if (!monday.equals(weekStart)) {
+      weekStart = monday;
+      week = new SpaceSaving(capacity);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Product;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Whole-catalog dashboard figures kept running as products change: product
+// count, units, stock value, and how many products hold each quantity, so
+// the low-stock count for any threshold is read off the smallest
+// quantities. Like SupplierIndex, every change is applied as the
+// difference from what the product contributed before.
+final class CatalogTotals {
+
+  // What one product currently adds to the totals
+  private static final class Contribution {
+
+    final int quantity;
+    final double value;
+
+    Contribution(Product product) {
+      this.quantity = product.getQuantity();
+      this.value = product.getQuantity() * product.getPrice();
+    }
+  }
+
+  private final Map<String, Contribution> contributions = new HashMap<>();
+  // Quantity -> number of products holding exactly that many units
+  private final TreeMap<Integer, Integer> byQuantity = new TreeMap<>();
+  private long quantity;
+  private double value;
+
+  // Adds the product, or re-applies it after its quantity or price changed
+  synchronized void put(Product product) {
+    withdraw(product.getSku());
+    Contribution contribution = new Contribution(product);
+    contributions.put(product.getSku(), contribution);
+    byQuantity.merge(contribution.quantity, 1, Integer::sum);
+    quantity += contribution.quantity;
+    value += contribution.value;
+  }
+
+  synchronized void remove(String sku) {
+    withdraw(sku);
+  }
+
+  synchronized void rebuild(Collection<Product> products) {
+    contributions.clear();
+    byQuantity.clear();
+    quantity = 0;
+    // Starting over also drops any rounding left in the running value
+    value = 0;
+    for (Product product : products) {
+      put(product);
+    }
+  }
+
+  synchronized double value() {
+    return value;
+  }
+
+  // Low stock is fewer units than the threshold
+  synchronized InventoryStats stats(int lowStockThreshold) {
+    int lowStock = 0;
+    for (int products : byQuantity.headMap(lowStockThreshold).values()) {
+      lowStock += products;
+    }
+    return new InventoryStats(
+      contributions.size(),
+      (int) quantity,
+      value,
+      lowStock
+    );
+  }
+
+  private void withdraw(String sku) {
+    Contribution previous = contributions.remove(sku);
+    if (previous == null) {
+      return;
+    }
+    byQuantity.computeIfPresent(
+      previous.quantity,
+      (q, products) -> products == 1 ? null : products - 1
+    );
+    quantity -= previous.quantity;
+    value -= previous.value;
+  }
+}
@@ -0,0 +1,57 @@
+package com.store.inventory.service;
+
+public class InventoryChange {
+
+  public enum Type {
+    ADDED,
+    UPDATED,
+    REMOVED,
+  }
+
+  public enum Entity {
+    PRODUCT,
+    SUPPLIER,
+    ORDER,
+    SELL_ORDER,
+  }
+
+  private final Type type;
+  private final Entity entity;
+  private final String key;
+  private final Object value;
+
+  public InventoryChange(Type type, Entity entity, String key, Object value) {
+    this.type = type;
+    this.entity = entity;
+    this.key = key;
+    this.value = value;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public Entity getEntity() {
+    return entity;
+  }
+
+  // SKU, supplier id or order id, depending on the entity
+  public String getKey() {
+    return key;
+  }
+
+  // The affected object; null for REMOVED
+  public Object getValue() {
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "InventoryChange{type=%s, entity=%s, key='%s'}",
+      type,
+      entity,
+      key
+    );
+  }
+}
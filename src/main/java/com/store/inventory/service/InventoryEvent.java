@@ -0,0 +1,117 @@
+package com.store.inventory.service;
+
+// One entry of the InventoryEventRing. Instances are pre-allocated and reused,
+// so handlers must copy out anything they want to keep after returning.
+public final class InventoryEvent {
+
+  public enum Type {
+    PRODUCT_ADDED,
+    PRODUCT_REMOVED,
+    STOCK_CHANGED,
+    PRICE_CHANGED,
+    ORDER_CREATED,
+    SELL_ORDER_CREATED,
+  }
+
+  private long sequence;
+  private long timestamp;
+  private Type type;
+  private String key;
+  private int oldQuantity;
+  private int newQuantity;
+  private double oldPrice;
+  private double newPrice;
+  private Object payload;
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  // SKU for product events, order id for order events
+  public String getKey() {
+    return key;
+  }
+
+  public int getOldQuantity() {
+    return oldQuantity;
+  }
+
+  public int getNewQuantity() {
+    return newQuantity;
+  }
+
+  public int getQuantityDelta() {
+    return newQuantity - oldQuantity;
+  }
+
+  public double getOldPrice() {
+    return oldPrice;
+  }
+
+  public double getNewPrice() {
+    return newPrice;
+  }
+
+  // The Order or SellOrder for order events, otherwise null
+  public Object getPayload() {
+    return payload;
+  }
+
+  void set(
+    long sequence,
+    long timestamp,
+    Type type,
+    String key,
+    int oldQuantity,
+    int newQuantity,
+    double oldPrice,
+    double newPrice,
+    Object payload
+  ) {
+    this.sequence = sequence;
+    this.timestamp = timestamp;
+    this.type = type;
+    this.key = key;
+    this.oldQuantity = oldQuantity;
+    this.newQuantity = newQuantity;
+    this.oldPrice = oldPrice;
+    this.newPrice = newPrice;
+    this.payload = payload;
+  }
+
+  void copyFrom(InventoryEvent other) {
+    set(
+      other.sequence,
+      other.timestamp,
+      other.type,
+      other.key,
+      other.oldQuantity,
+      other.newQuantity,
+      other.oldPrice,
+      other.newPrice,
+      other.payload
+    );
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "InventoryEvent{sequence=%d, type=%s, key='%s', quantity=%d->%d, price=%.2f->%.2f}",
+      sequence,
+      type,
+      key,
+      oldQuantity,
+      newQuantity,
+      oldPrice,
+      newPrice
+    );
+  }
+}
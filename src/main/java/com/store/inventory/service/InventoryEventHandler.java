@@ -0,0 +1,7 @@
+package com.store.inventory.service;
+
+@FunctionalInterface
+public interface InventoryEventHandler {
+  // The event object is reused for the next event once this returns
+  void onEvent(InventoryEvent event);
+}
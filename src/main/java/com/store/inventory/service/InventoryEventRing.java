@@ -0,0 +1,143 @@
+package com.store.inventory.service;
+
+import java.lang.invoke.VarHandle;
+
+// Pre-allocated single-writer, multi-reader ring of inventory events.
+// Publishing never allocates or blocks: slots are reused in place and a slow
+// reader is overrun rather than holding the writer back. Each Subscriber
+// tracks its own sequence and counts the events it missed.
+public final class InventoryEventRing {
+
+  private final Slot[] slots;
+  private final int mask;
+  private volatile long cursor = -1;
+
+  public InventoryEventRing(int capacity) {
+    if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException(
+        "Capacity must be a power of two: " + capacity
+      );
+    }
+    slots = new Slot[capacity];
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new Slot();
+    }
+    mask = capacity - 1;
+  }
+
+  public int getCapacity() {
+    return slots.length;
+  }
+
+  // Sequence of the last published event, or -1 if none yet
+  public long getCursor() {
+    return cursor;
+  }
+
+  // Callers must serialize publishes; InventoryService holds its lock.
+  long publish(
+    InventoryEvent.Type type,
+    String key,
+    int oldQuantity,
+    int newQuantity,
+    double oldPrice,
+    double newPrice,
+    Object payload
+  ) {
+    long sequence = cursor + 1;
+    Slot slot = slots[(int) (sequence & mask)];
+    // Seqlock: readers that see -1 or a changed sequence retry or skip
+    slot.sequence = -1;
+    VarHandle.storeStoreFence();
+    slot.event.set(
+      sequence,
+      System.currentTimeMillis(),
+      type,
+      key,
+      oldQuantity,
+      newQuantity,
+      oldPrice,
+      newPrice,
+      payload
+    );
+    slot.sequence = sequence;
+    cursor = sequence;
+    return sequence;
+  }
+
+  // Starts after the most recently published event
+  public Subscriber subscribe() {
+    return new Subscriber(cursor + 1);
+  }
+
+  public Subscriber subscribeFrom(long sequence) {
+    return new Subscriber(sequence);
+  }
+
+  private static final class Slot {
+
+    private volatile long sequence = -1;
+    private final InventoryEvent event = new InventoryEvent();
+  }
+
+  public final class Subscriber {
+
+    private final InventoryEvent current = new InventoryEvent();
+    private long next;
+    private long lost;
+
+    private Subscriber(long next) {
+      this.next = Math.max(0, next);
+    }
+
+    public int poll(InventoryEventHandler handler) {
+      return poll(handler, Integer.MAX_VALUE);
+    }
+
+    // Hands up to maxEvents pending events to the handler on the calling
+    // thread and returns how many were delivered.
+    public int poll(InventoryEventHandler handler, int maxEvents) {
+      long available = cursor;
+      int delivered = 0;
+      while (next <= available && delivered < maxEvents) {
+        if (available - next >= slots.length) {
+          skipTo(available - slots.length + 1);
+        }
+        Slot slot = slots[(int) (next & mask)];
+        if (slot.sequence == next) {
+          current.copyFrom(slot.event);
+          VarHandle.loadLoadFence();
+          if (slot.sequence == next) {
+            next++;
+            delivered++;
+            handler.onEvent(current);
+            continue;
+          }
+        }
+        // The writer lapped us while we were reading this slot
+        available = cursor;
+        skipTo(Math.max(next + 1, available - slots.length + 1));
+      }
+      return delivered;
+    }
+
+    private void skipTo(long sequence) {
+      lost += sequence - next;
+      next = sequence;
+    }
+
+    // Sequence of the next event this subscriber will see
+    public long getSequence() {
+      return next;
+    }
+
+    public long getLag() {
+      return cursor + 1 - next;
+    }
+
+    // Events overwritten before this subscriber could read them
+    public long getLostCount() {
+      return lost;
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package com.store.inventory.service;
+
+@FunctionalInterface
+public interface InventoryListener {
+  // Called on the writer's thread, in mutation order, after the in-memory
+  // state has been updated. Implementations must not block.
+  void onChange(InventoryChange change);
+}
@@ -1,338 +1,2175 @@
 package com.store.inventory.service;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ReadPreference;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoChangeStreamCursor;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.store.inventory.service.codec.InventoryCodecs;
 import com.store.inventory.Order;
 import com.store.inventory.OrderItem;
 import com.store.inventory.Product;
 import com.store.inventory.SellOrder;
 import com.store.inventory.Supplier;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.bson.BsonValue;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 
 public class InventoryService {
 
+  static final String MONGO_URI = System.getProperty(
+    "inventory.mongo.uri",
+    "mongodb://localhost:27017"
+  );
+  static final String DATABASE_NAME = System.getProperty(
+    "inventory.mongo.database",
+    "inventory_db"
+  );
+
+  static final boolean SNAPSHOT_ENABLED = Boolean.parseBoolean(
+    System.getProperty("inventory.snapshot.enabled", "true")
+  );
+  static final Path SNAPSHOT_PATH = Paths.get(
+    System.getProperty(
+      "inventory.snapshot.path",
+      Paths
+        .get(
+          System.getProperty("user.home"),
+          ".inventory-management",
+          DATABASE_NAME + ".snapshot"
+        )
+        .toString()
+    )
+  );
+  private static final long SNAPSHOT_INTERVAL_MINUTES = Long.getLong(
+    "inventory.snapshot.intervalMinutes",
+    5
+  );
+  // Tolerates clock skew between this host and the database when asking for
+  // documents changed since the snapshot was taken
+  private static final long RECONCILE_MARGIN_MILLIS = 60_000;
+
+  // Stock not explicitly placed at another location is held here
+  public static final String DEFAULT_LOCATION = System.getProperty(
+    "inventory.defaultLocation",
+    "MAIN"
+  );
+
+  // Expiry resolution of stock reservations
+  private static final long RESERVATION_TICK_MILLIS = Long.getLong(
+    "inventory.reservations.tickMillis",
+    100
+  );
+  private static final int RESERVATION_WHEEL_SLOTS = 512;
+
+  private static final int EXPECTED_ORDER_IDS = 1 << 16;
+  // Movements between ledger checkpoints; bounds the replay per query
+  private static final int LEDGER_CHECKPOINT_INTERVAL = Integer.getInteger(
+    "inventory.ledger.checkpointInterval",
+    64
+  );
+  // Movements held in memory; stock at older moments is summed in MongoDB
+  private static final long LEDGER_WINDOW_DAYS = Long.getLong(
+    "inventory.ledger.windowDays",
+    30
+  );
+
+  // Counters per best-seller window; any SKU selling more than
+  // 1/counters of the window's units is guaranteed a place
+  private static final int BEST_SELLER_COUNTERS = Integer.getInteger(
+    "inventory.bestSellers.counters",
+    1024
+  );
+
+  // Lowest trigram similarity a fuzzy name match may have
+  private static final double FUZZY_MIN_SIMILARITY = Double.parseDouble(
+    System.getProperty("inventory.search.minSimilarity", "0.3")
+  );
+
+  private static final int PARALLEL_SEARCH_THRESHOLD = 10_000;
+  private static final int EVENT_RING_CAPACITY = 1 << 16;
+  private static final String[] EXPORT_FIELDS = {
+    "sku",
+    "name",
+    "description",
+    "quantity",
+    "price",
+    "supplierId",
+    "dateReceived",
+  };
+
   private static InventoryService instance;
-  private MongoClient mongoClient;
+  private final MongoClient mongoClient;
   private MongoDatabase database;
-  private MongoCollection<Document> productCollection;
-  private MongoCollection<Document> supplierCollection;
-  private MongoCollection<Document> orderCollection;
-  private MongoCollection<Document> sellOrderCollection;
+  // Products are split across shards by SKU hash; one shard by default
+  private ProductShards productShards;
+  private MongoCollection<Supplier> supplierCollection;
+  private MongoCollection<Order> orderCollection;
+  private MongoCollection<SellOrder> sellOrderCollection;
+  private MongoCollection<Document> stockCollection;
+  private MongoCollection<Document> movementCollection;
+
+  // Readers get the current list in O(1); writers are serialized on this
+  // instance and publish a new list whenever products are added or removed.
+  // A published list never changes, but the products in it are live: stock
+  // and price changes are made to them in place.
+  private volatile List<Product> inventory = List.of();
+  private final AppendOnlyList<Supplier> suppliers = new AppendOnlyList<>();
+  // Supplier lookup by ID, and per-supplier products and stock totals kept
+  // current as products change
+  private final SupplierIndex supplierIndex = new SupplierIndex();
+  private final StockValueRanking stockValueRanking = new StockValueRanking();
+  private final CatalogTotals catalogTotals = new CatalogTotals();
+  private final TrigramIndex nameIndex = new TrigramIndex(FUZZY_MIN_SIMILARITY);
+  private final PrefixTrie skus = new PrefixTrie();
+  private final Map<String, Product> productsBySku = new ConcurrentHashMap<>();
+  private final BestSellers bestSellers = new BestSellers(
+    BEST_SELLER_COUNTERS,
+    Clock.systemDefaultZone()
+  );
+  private final AppendOnlyList<Order> orders = new AppendOnlyList<>();
+  private final AppendOnlyList<SellOrder> sellOrders = new AppendOnlyList<>();
+  // Order and sell-order IDs already recorded; duplicates are dropped
+  // before they reach stock or MongoDB
+  private final OrderIdIndex orderIds = new OrderIdIndex(EXPECTED_ORDER_IDS);
+  private final OrderIdIndex sellOrderIds = new OrderIdIndex(
+    EXPECTED_ORDER_IDS
+  );
+  private volatile long version;
+  private final LocationStock stock = new LocationStock(DEFAULT_LOCATION);
+  private final ReservationBook reservations = new ReservationBook(
+    RESERVATION_TICK_MILLIS,
+    RESERVATION_WHEEL_SLOTS
+  );
+  private ScheduledExecutorService reservationTicker;
+  private final StockLedger ledger = new StockLedger(
+    LEDGER_CHECKPOINT_INTERVAL,
+    TimeUnit.DAYS.toMillis(LEDGER_WINDOW_DAYS)
+  );
+
+  private final List<InventoryListener> listeners =
+    new CopyOnWriteArrayList<>();
+  private final InventoryEventRing events;
+
+  // Mongo _id -> SKU, so change-stream deletes (which carry only the _id)
+  // can be mapped back to products
+  private final Map<Object, String> productIds = new HashMap<>();
+  // One change stream per product shard
+  private final List<MongoChangeStreamCursor<ChangeStreamDocument<Product>>> changeStreams =
+    new CopyOnWriteArrayList<>();
+  private volatile boolean watching;
 
-  private List<Product> inventory;
-  private List<Supplier> suppliers;
-  private List<Order> orders;
-  private List<SellOrder> sellOrders;
+  private final String databaseName;
+  // Null when the client is shared and must outlive this instance
+  private final MongoClient ownedClient;
+  // Runs snapshots and reservation expiry when shared; null for own threads
+  private final ScheduledExecutorService sharedScheduler;
+  private ScheduledFuture<?> snapshotTask;
+  private ScheduledFuture<?> reservationTask;
+
+  private final SnapshotStore snapshotStore;
+  private final boolean snapshotsEnabled;
+  private ScheduledExecutorService snapshotScheduler;
+  private final Object snapshotLock = new Object();
+  private long snapshotVersion = -1;
 
   private InventoryService() {
+    this(null, DATABASE_NAME, null, EVENT_RING_CAPACITY);
+  }
+
+  // One store's inventory in its own database. A client and scheduler
+  // passed in are shared with other instances and left running on close;
+  // null means this instance creates and owns its own.
+  InventoryService(
+    MongoClient client,
+    String databaseName,
+    ScheduledExecutorService scheduler,
+    int eventRingCapacity
+  ) {
+    this(
+      client == null ? createClient() : client,
+      client == null,
+      databaseName,
+      scheduler,
+      eventRingCapacity,
+      SNAPSHOT_ENABLED
+    );
+  }
+
+  private InventoryService(
+    MongoClient client,
+    boolean ownsClient,
+    String databaseName,
+    ScheduledExecutorService scheduler,
+    int eventRingCapacity,
+    boolean snapshotsEnabled
+  ) {
+    this.databaseName = databaseName;
+    this.ownedClient = ownsClient ? client : null;
+    this.mongoClient = client;
+    this.sharedScheduler = scheduler;
+    this.snapshotsEnabled = snapshotsEnabled;
+    this.events = new InventoryEventRing(eventRingCapacity);
+    this.snapshotStore =
+      new SnapshotStore(
+        databaseName.equals(DATABASE_NAME)
+          ? SNAPSHOT_PATH
+          : SNAPSHOT_PATH.resolveSibling(databaseName + ".snapshot")
+      );
     initializeMongoDB();
-    loadDataFromMongo();
+    SnapshotStore.Contents snapshot = snapshotsEnabled ? loadSnapshot() : null;
+    if (snapshot == null) {
+      loadDataFromMongo();
+    } else {
+      // Usable immediately; catch up with MongoDB in the background
+      Thread reconciler = new Thread(
+        () -> reconcileWithMongo(snapshot),
+        "inventory-reconcile"
+      );
+      reconciler.setDaemon(true);
+      reconciler.start();
+    }
+    if (snapshotsEnabled) {
+      startSnapshotScheduler();
+    }
+    startReservationTicker();
+  }
+
+  // Without MongoDB or a snapshot file: everything lives in memory and is
+  // gone on close. For tests.
+  static InventoryService inMemory(String databaseName) {
+    return new InventoryService(
+      null,
+      false,
+      databaseName,
+      null,
+      1 << 10,
+      false
+    );
   }
 
-  public static InventoryService getInstance() {
+  public static synchronized InventoryService getInstance() {
     if (instance == null) {
       instance = new InventoryService();
     }
     return instance;
   }
 
-  private void initializeMongoDB() {
+  private static MongoClient createClient() {
     try {
-      mongoClient = MongoClients.create("mongodb://localhost:27017");
-      database = mongoClient.getDatabase("inventory_db");
-      productCollection = database.getCollection("products");
-      supplierCollection = database.getCollection("suppliers");
-      orderCollection = database.getCollection("orders");
-      sellOrderCollection = database.getCollection("sell_orders");
+      return MongoClients.create(MONGO_URI);
     } catch (Exception e) {
       System.err.println("Failed to connect to MongoDB: " + e.getMessage());
+      return null;
     }
   }
 
-  private void loadDataFromMongo() {
-    inventory = new ArrayList<>();
-    suppliers = new ArrayList<>();
-    orders = new ArrayList<>();
-    sellOrders = new ArrayList<>();
+  private void initializeMongoDB() {
+    if (mongoClient == null) {
+      return;
+    }
+    try {
+      // Model objects are encoded and decoded straight to and from BSON.
+      // Everything defaults to stock routing: primary reads and the stock
+      // write concern. Heavy reads opt into secondaries where they run.
+      database =
+        mongoClient
+          .getDatabase(databaseName)
+          .withCodecRegistry(InventoryCodecs.registry())
+          .withReadPreference(ReadPreference.primary())
+          .withWriteConcern(MongoRouting.STOCK_WRITES);
+      productShards = ProductShards.open(database);
+      supplierCollection = database.getCollection("suppliers", Supplier.class);
+      orderCollection = database.getCollection("orders", Order.class);
+      sellOrderCollection =
+        database.getCollection("sell_orders", SellOrder.class);
+      // Shared by every instance and the reactive service: a sell order
+      // saved anywhere is turned away everywhere else
+      sellOrderCollection.createIndex(
+        Indexes.ascending("sellOrderId"),
+        new IndexOptions().unique(true).sparse(true)
+      );
+      // One document per (SKU, location) outside the default location
+      stockCollection = database.getCollection("stock");
+      stockCollection.createIndex(
+        Indexes.ascending("sku", "location"),
+        new IndexOptions().unique(true)
+      );
+      // Append-only stock movement ledger, read back oldest first
+      movementCollection =
+        MongoRouting.forAudit(database.getCollection("stock_movements"));
+      movementCollection.createIndex(Indexes.ascending("at"));
+      movementCollection.createIndex(Indexes.ascending("sku", "at"));
+    } catch (IllegalStateException e) {
+      // Products left behind by a change in shard layout; running without
+      // them would look like an empty catalog
+      throw e;
+    } catch (Exception e) {
+      System.err.println("Failed to connect to MongoDB: " + e.getMessage());
+    }
+  }
 
+  private synchronized void loadDataFromMongo() {
     loadProductsFromMongo();
+    loadStockFromMongo();
+    rebuildProductIndexes();
     loadSuppliersFromMongo();
     loadOrdersFromMongo();
     loadSellOrdersFromMongo();
+    loadLedgerFromMongo();
   }
 
   private void loadProductsFromMongo() {
-    if (productCollection != null) {
-      for (Document doc : productCollection.find()) {
-        Product product = new Product(
+    List<Product> loaded = new ArrayList<>();
+    if (productShards != null) {
+      for (List<Product> shard : productShards.gather(shard ->
+        shard.find().into(new ArrayList<>())
+      )) {
+        loaded.addAll(shard);
+      }
+    }
+    inventory = Collections.unmodifiableList(loaded);
+  }
+
+  private void rebuildProductIndexes() {
+    supplierIndex.rebuild(inventory);
+    stockValueRanking.rebuild(inventory);
+    catalogTotals.rebuild(inventory);
+    nameIndex.rebuild(inventory);
+    skus.clear();
+    productsBySku.clear();
+    for (Product product : inventory) {
+      skus.add(product.getSku());
+      productsBySku.put(product.getSku(), product);
+    }
+  }
+
+  private void loadStockFromMongo() {
+    if (stockCollection != null) {
+      for (Document doc : stockCollection.find()) {
+        stock.set(
+          doc.getString("location"),
           doc.getString("sku"),
-          doc.getString("name"),
-          doc.getString("description"),
-          doc.getInteger("quantity", 0),
-          doc.getDouble("price"),
-          doc.getString("supplierId"),
-          doc.getString("dateReceived")
+          doc.getInteger("quantity", 0)
         );
-        inventory.add(product);
       }
     }
+    placeRemainderAtDefault();
+  }
+
+  // Whatever part of a product's total is not held elsewhere is at the
+  // default location
+  private void placeRemainderAtDefault() {
+    for (Product product : inventory) {
+      product.setQuantity(
+        stock.absorbTotal(product.getSku(), product.getQuantity())
+      );
+    }
+  }
+
+  private synchronized SnapshotStore.Contents loadSnapshot() {
+    SnapshotStore.Contents snapshot;
+    try {
+      snapshot = snapshotStore.load();
+    } catch (IOException e) {
+      System.err.println("Failed to read snapshot: " + e.getMessage());
+      return null;
+    }
+    if (snapshot == null) {
+      return null;
+    }
+    inventory = Collections.unmodifiableList(snapshot.products);
+    snapshot.placements.forEach((location, placed) ->
+      placed.forEach((sku, quantity) -> stock.set(location, sku, quantity))
+    );
+    placeRemainderAtDefault();
+    rebuildProductIndexes();
+    for (Supplier supplier : snapshot.suppliers) {
+      suppliers.append(supplier);
+      supplierIndex.addSupplier(supplier);
+    }
+    for (Order order : snapshot.orders) {
+      orders.append(order);
+      orderIds.add(order.getOrderId());
+    }
+    for (SellOrder sellOrder : snapshot.sellOrders) {
+      sellOrders.append(sellOrder);
+      sellOrderIds.add(sellOrder.getOrderId());
+      recordSales(sellOrder);
+    }
+    return snapshot;
+  }
+
+  // Applies what changed in MongoDB since the snapshot was written: products
+  // stamped with a newer updatedAt, products deleted since, and orders and
+  // suppliers inserted since (their ObjectIds carry the insert time).
+  // Everything is read from the primary: a lagging secondary could miss
+  // the very changes this is meant to catch, and they would stay missed.
+  private void reconcileWithMongo(SnapshotStore.Contents snapshot) {
+    if (productShards == null) {
+      return;
+    }
+    Date since = new Date(snapshot.savedAt - RECONCILE_MARGIN_MILLIS);
+    try {
+      // Placements first, so product totals below are split against them
+      if (stockCollection != null) {
+        for (Document doc : stockCollection.find(
+          Filters.gte("updatedAt", since)
+        )) {
+          applyRemoteStock(
+            doc.getString("sku"),
+            doc.getString("location"),
+            doc.getInteger("quantity", 0)
+          );
+        }
+      }
+
+      for (List<Product> changed : productShards.gather(shard ->
+        shard.find(Filters.gte("updatedAt", since)).into(new ArrayList<>())
+      )) {
+        changed.forEach(this::applyRemoteProduct);
+      }
+
+      Set<String> storedSkus = new HashSet<>();
+      productShards
+        .gather(this::loadProductKeys)
+        .forEach(storedSkus::addAll);
+      for (Product product : snapshot.products) {
+        if (!storedSkus.contains(product.getSku())) {
+          applyRemoteDelete(product.getSku());
+        }
+      }
+
+      ObjectId insertedSince = new ObjectId(since);
+      reconcileAppendOnly(
+        supplierCollection,
+        insertedSince,
+        Supplier::getId,
+        InventoryChange.Entity.SUPPLIER
+      );
+      reconcileAppendOnly(
+        orderCollection,
+        insertedSince,
+        Order::getOrderId,
+        InventoryChange.Entity.ORDER
+      );
+      reconcileAppendOnly(
+        sellOrderCollection,
+        insertedSince,
+        Order::getOrderId,
+        InventoryChange.Entity.SELL_ORDER
+      );
+      // Now that quantities are current, anchor the history to them
+      loadLedgerFromMongo();
+    } catch (Exception e) {
+      System.err.println("Failed to reconcile with MongoDB: " + e.getMessage());
+    }
+  }
+
+  private <T> void reconcileAppendOnly(
+    MongoCollection<T> collection,
+    ObjectId insertedSince,
+    Function<T, String> idOf,
+    InventoryChange.Entity entity
+  ) {
+    if (collection == null) {
+      return;
+    }
+    for (T value : collection.find(Filters.gt("_id", insertedSince))) {
+      applyRemoteInsert(value, idOf, entity);
+    }
+  }
+
+  // Scans only sku and _id of every product on the shard, recording the
+  // _id -> SKU mapping needed to resolve change-stream deletes.
+  private Set<String> loadProductKeys(MongoCollection<Product> shard) {
+    Set<String> skus = new HashSet<>();
+    for (RawBsonDocument doc : raw(shard)
+      .find()
+      .projection(Projections.include("sku"))) {
+      String sku = RawFields.getString(doc, "sku");
+      skus.add(sku);
+      rememberProductId(toKey(doc.get("_id")), sku);
+    }
+    return skus;
+  }
+
+  @SuppressWarnings("unchecked")
+  private synchronized <T> void applyRemoteInsert(
+    T value,
+    Function<T, String> idOf,
+    InventoryChange.Entity entity
+  ) {
+    AppendOnlyList<T> target;
+    switch (entity) {
+      case SUPPLIER:
+        target = (AppendOnlyList<T>) suppliers;
+        break;
+      case ORDER:
+        target = (AppendOnlyList<T>) orders;
+        break;
+      default:
+        target = (AppendOnlyList<T>) sellOrders;
+        break;
+    }
+    String id = idOf.apply(value);
+    if (entity == InventoryChange.Entity.SUPPLIER) {
+      if (!supplierIndex.addSupplier((Supplier) value)) {
+        return;
+      }
+    } else if (!orderIdsFor(entity).add(id)) {
+      return;
+    }
+    target.append(value);
+    if (entity == InventoryChange.Entity.SELL_ORDER) {
+      recordSales((SellOrder) value);
+    }
+    version++;
+    fireChange(InventoryChange.Type.ADDED, entity, id, value);
+  }
+
+  private OrderIdIndex orderIdsFor(InventoryChange.Entity entity) {
+    return entity == InventoryChange.Entity.ORDER ? orderIds : sellOrderIds;
+  }
+
+  private synchronized void rememberProductId(Object id, String sku) {
+    productIds.put(id, sku);
+  }
+
+  // Writes the current state to the snapshot file. Cheap to call when
+  // nothing changed since the last save. Products and placements are
+  // captured together under the service lock, copying products since they
+  // change in place; only the file is written outside it.
+  public void saveSnapshot() {
+    synchronized (snapshotLock) {
+      long savedAt;
+      long currentVersion;
+      List<Product> products;
+      List<Supplier> supplierSnapshot;
+      List<Order> orderSnapshot;
+      List<SellOrder> sellOrderSnapshot;
+      Map<String, Map<String, Integer>> placements;
+      synchronized (this) {
+        savedAt = System.currentTimeMillis();
+        currentVersion = version;
+        if (currentVersion == snapshotVersion) {
+          return;
+        }
+        products = new ArrayList<>(inventory.size());
+        for (Product product : inventory) {
+          products.add(copyOf(product));
+        }
+        supplierSnapshot = suppliers.snapshot();
+        orderSnapshot = orders.snapshot();
+        sellOrderSnapshot = sellOrders.snapshot();
+        placements = stock.explicitPlacements();
+      }
+      try {
+        snapshotStore.save(
+          savedAt,
+          products,
+          supplierSnapshot,
+          orderSnapshot,
+          sellOrderSnapshot,
+          placements
+        );
+        snapshotVersion = currentVersion;
+      } catch (IOException e) {
+        System.err.println("Failed to write snapshot: " + e.getMessage());
+      }
+    }
+  }
+
+  private static Product copyOf(Product product) {
+    return new Product(
+      product.getSku(),
+      product.getName(),
+      product.getDescription(),
+      product.getQuantity(),
+      product.getPrice(),
+      product.getSupplierId(),
+      product.getDateReceived()
+    );
+  }
+
+  private void startSnapshotScheduler() {
+    ScheduledExecutorService scheduler = sharedScheduler;
+    if (scheduler == null) {
+      snapshotScheduler =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "inventory-snapshot");
+          thread.setDaemon(true);
+          return thread;
+        });
+      scheduler = snapshotScheduler;
+    }
+    snapshotTask =
+      scheduler.scheduleWithFixedDelay(
+        this::saveSnapshot,
+        SNAPSHOT_INTERVAL_MINUTES,
+        SNAPSHOT_INTERVAL_MINUTES,
+        TimeUnit.MINUTES
+      );
+  }
+
+  // Only the window of recent movements; older ones stay in MongoDB
+  private synchronized void loadLedgerFromMongo() {
+    if (movementCollection == null) {
+      return;
+    }
+    long since =
+      System.currentTimeMillis() - TimeUnit.DAYS.toMillis(LEDGER_WINDOW_DAYS);
+    List<StockMovement> movements = new ArrayList<>();
+    for (Document doc : movementCollection
+      .find(Filters.gte("at", new Date(since)))
+      .sort(Sorts.ascending("at"))) {
+      movements.add(movementOf(doc));
+    }
+    Map<String, Integer> quantities = new HashMap<>(inventory.size() * 2);
+    for (Product product : inventory) {
+      quantities.put(product.getSku(), product.getQuantity());
+    }
+    ledger.load(movements, sku -> quantities.getOrDefault(sku, 0), since);
+  }
+
+  private static StockMovement movementOf(Document doc) {
+    String reason = doc.getString("reason");
+    return new StockMovement(
+      doc.getDate("at").getTime(),
+      doc.getString("sku"),
+      doc.getString("location"),
+      doc.getInteger("delta", 0),
+      reason == null
+        ? StockMovement.Reason.ADJUSTMENT
+        : StockMovement.Reason.valueOf(reason)
+    );
+  }
+
+  private void startReservationTicker() {
+    ScheduledExecutorService scheduler = sharedScheduler;
+    if (scheduler == null) {
+      reservationTicker =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "inventory-reservations");
+          thread.setDaemon(true);
+          return thread;
+        });
+      scheduler = reservationTicker;
+    }
+    reservationTask =
+      scheduler.scheduleAtFixedRate(
+        reservations::expire,
+        RESERVATION_TICK_MILLIS,
+        RESERVATION_TICK_MILLIS,
+        TimeUnit.MILLISECONDS
+      );
   }
 
   private void loadSuppliersFromMongo() {
     if (supplierCollection != null) {
-      for (Document doc : supplierCollection.find()) {
-        Supplier supplier = new Supplier(
-          doc.getString("id"),
-          doc.getString("name"),
-          doc.getString("contact")
-        );
-        suppliers.add(supplier);
+      for (Supplier supplier : supplierCollection.find()) {
+        suppliers.append(supplier);
+        supplierIndex.addSupplier(supplier);
       }
     }
   }
 
   private void loadOrdersFromMongo() {
     if (orderCollection != null) {
-      for (Document doc : orderCollection.find()) {
-        List<OrderItem> items = new ArrayList<>();
-        @SuppressWarnings("unchecked")
-        List<Document> itemDocs = (List<Document>) doc.get("items");
-        if (itemDocs != null) {
-          for (Document item : itemDocs) {
-            items.add(
-              new OrderItem(
-                item.getString("sku"),
-                item.getInteger("quantity", 0)
-              )
-            );
-          }
-        }
-
-        Order order = new Order(
-          doc.getString("orderId"),
-          doc.getString("supplierId"),
-          items,
-          java.time.LocalDate.parse(doc.getString("orderDate"))
-        );
-        orders.add(order);
+      for (Order order : orderCollection.find()) {
+        orders.append(order);
+        orderIds.add(order.getOrderId());
       }
     }
   }
 
   private void loadSellOrdersFromMongo() {
     if (sellOrderCollection != null) {
-      for (Document doc : sellOrderCollection.find()) {
-        List<OrderItem> items = new ArrayList<>();
-        @SuppressWarnings("unchecked")
-        List<Document> itemDocs = (List<Document>) doc.get("items");
-        if (itemDocs != null) {
-          for (Document item : itemDocs) {
-            items.add(
-              new OrderItem(
-                item.getString("sku"),
-                item.getInteger("quantity", 0)
-              )
-            );
-          }
-        }
-
-        SellOrder sellOrder = new SellOrder(
-          doc.getString("sellOrderId"),
-          doc.getString("customerName"),
-          items,
-          java.time.LocalDate.parse(doc.getString("sellDate"))
-        );
-        sellOrders.add(sellOrder);
+      for (SellOrder sellOrder : sellOrderCollection.find()) {
+        sellOrders.append(sellOrder);
+        sellOrderIds.add(sellOrder.getOrderId());
+        recordSales(sellOrder);
       }
     }
   }
 
   // Product operations
-  public void addProduct(Product product) {
-    inventory.add(product);
+  public synchronized void addProduct(Product product) {
+    stock.remove(product.getSku());
+    stock.absorbTotal(product.getSku(), product.getQuantity());
+    List<Product> next = new ArrayList<>(inventory.size() + 1);
+    next.addAll(inventory);
+    next.add(product);
+    publishInventory(next);
+    publishProductAdded(product);
+    fireChange(
+      InventoryChange.Type.ADDED,
+      InventoryChange.Entity.PRODUCT,
+      product.getSku(),
+      product
+    );
     saveProductToMongo(product);
+    saveMovementsToMongo(
+      recordMovement(
+        product.getSku(),
+        DEFAULT_LOCATION,
+        product.getQuantity(),
+        StockMovement.Reason.ADJUSTMENT,
+        0
+      )
+    );
   }
 
+  // Which products exist is fixed once returned, so the list is safe to
+  // iterate while other threads keep writing. It is not a snapshot of their
+  // state: the products are the live ones, so quantity and price may change
+  // during the iteration. Use getStats for consistent figures.
   public List<Product> getAllProducts() {
-    return new ArrayList<>(inventory);
+    return inventory;
   }
 
   public Optional<Product> findProductBySku(String sku) {
-    return inventory
-      .stream()
-      .filter(p -> p.getSku().equals(sku))
-      .findFirst();
+    return sku == null
+      ? Optional.empty()
+      : Optional.ofNullable(productsBySku.get(sku));
   }
 
-  public void updateProduct(String sku, int newQuantity, double newPrice) {
+  public synchronized void updateProduct(
+    String sku,
+    int newQuantity,
+    double newPrice
+  ) {
     Optional<Product> productOpt = findProductBySku(sku);
     if (productOpt.isPresent()) {
       Product product = productOpt.get();
-      product.setQuantity(newQuantity);
+      int oldQuantity = product.getQuantity();
+      double oldPrice = product.getPrice();
+      // The new total is reached by adjusting the default location; stock
+      // placed elsewhere is moved with transferStock, not overwritten here
+      product.setQuantity(stock.absorbTotal(sku, newQuantity));
       product.setPrice(newPrice);
+      version++;
+      publishProductChanged(product, oldQuantity, oldPrice);
+      fireChange(
+        InventoryChange.Type.UPDATED,
+        InventoryChange.Entity.PRODUCT,
+        sku,
+        product
+      );
       updateProductInMongo(product);
+      saveMovementsToMongo(
+        recordMovement(
+          sku,
+          DEFAULT_LOCATION,
+          product.getQuantity() - oldQuantity,
+          StockMovement.Reason.ADJUSTMENT,
+          oldQuantity
+        )
+      );
     }
   }
 
-  public boolean removeProduct(String sku) {
-    boolean removed = inventory.removeIf(p -> p.getSku().equals(sku));
-    if (removed) {
-      removeProductFromMongo(sku);
+  // What the rule would change, changing nothing. Matching products are
+  // found in parallel for large catalogs.
+  public RepricingResult previewRepricing(RepricingRule rule) {
+    return new RepricingResult(false, priceChanges(rule, inventory));
+  }
+
+  // Stores the new price of every product the rule matches, in one bulk
+  // write per shard instead of a round trip each, and only then reprices
+  // them in memory. If the write fails, prices already stored are put back
+  // and the result is not applied: memory and MongoDB keep the old prices.
+  public synchronized RepricingResult applyRepricing(RepricingRule rule) {
+    List<PriceChange> changes = priceChanges(rule, inventory);
+    if (changes.isEmpty()) {
+      return new RepricingResult(true, changes);
+    }
+    Map<String, PriceChange> bySku = new HashMap<>(changes.size() * 2);
+    List<Product> repriced = new ArrayList<>(changes.size());
+    for (PriceChange change : changes) {
+      bySku.put(change.getSku(), change);
+      repriced.add(productsBySku.get(change.getSku()));
+    }
+    if (productShards != null) {
+      BulkWriteOptions unordered = new BulkWriteOptions().ordered(false);
+      try {
+        productShards.bulkWrite(
+          repriced,
+          p -> priceUpdate(p.getSku(), bySku.get(p.getSku()).getNewPrice()),
+          unordered
+        );
+      } catch (MongoException e) {
+        System.err.println("Failed to save repricing: " + e.getMessage());
+        try {
+          productShards.bulkWrite(
+            repriced,
+            p -> priceUpdate(p.getSku(), bySku.get(p.getSku()).getOldPrice()),
+            unordered
+          );
+        } catch (MongoException restoreError) {
+          System.err.println(
+            "Failed to restore prices after repricing: " +
+            restoreError.getMessage()
+          );
+        }
+        return new RepricingResult(false, changes);
+      }
+    }
+    for (Product product : repriced) {
+      PriceChange change = bySku.get(product.getSku());
+      product.setPrice(change.getNewPrice());
+      publishProductChanged(
+        product,
+        product.getQuantity(),
+        change.getOldPrice()
+      );
+      fireChange(
+        InventoryChange.Type.UPDATED,
+        InventoryChange.Entity.PRODUCT,
+        product.getSku(),
+        product
+      );
     }
-    return removed;
+    version++;
+    return new RepricingResult(true, changes);
   }
 
-  public List<Product> searchProducts(String searchTerm) {
-    return inventory
-      .stream()
-      .filter(
-        p ->
-          p.getName().toLowerCase().contains(searchTerm.toLowerCase()) ||
-          p.getSku().toLowerCase().contains(searchTerm.toLowerCase()) ||
-          p.getDescription().toLowerCase().contains(searchTerm.toLowerCase())
+  private static List<PriceChange> priceChanges(
+    RepricingRule rule,
+    List<Product> products
+  ) {
+    Stream<Product> stream = products.size() > PARALLEL_SEARCH_THRESHOLD
+      ? products.parallelStream()
+      : products.stream();
+    return stream
+      .filter(rule::matches)
+      .map(p ->
+        new PriceChange(
+          p.getSku(),
+          p.getQuantity(),
+          p.getPrice(),
+          rule.reprice(p.getPrice())
+        )
       )
+      .filter(c -> Double.compare(c.getOldPrice(), c.getNewPrice()) != 0)
       .toList();
   }
 
+  public synchronized boolean removeProduct(String sku) {
+    Optional<Product> productOpt = findProductBySku(sku);
+    if (productOpt.isPresent()) {
+      List<Product> next = new ArrayList<>(inventory);
+      next.remove(productOpt.get());
+      stock.remove(sku);
+      publishInventory(next);
+      publishProductRemoved(productOpt.get());
+      fireChange(
+        InventoryChange.Type.REMOVED,
+        InventoryChange.Entity.PRODUCT,
+        sku,
+        null
+      );
+      removeProductFromMongo(sku);
+      removeStockFromMongo(sku);
+      // The product's whole stock, across all locations, leaves the books
+      int quantity = productOpt.get().getQuantity();
+      saveMovementsToMongo(
+        recordMovement(
+          sku,
+          null,
+          -quantity,
+          StockMovement.Reason.ADJUSTMENT,
+          quantity
+        )
+      );
+    }
+    return productOpt.isPresent();
+  }
+
+  public List<Product> searchProducts(String searchTerm) {
+    return searchProducts(searchTerm, inventory);
+  }
+
+  // Searches only the given candidates, e.g. the previous result set when a
+  // query is refined by typing more characters.
+  public List<Product> searchProducts(
+    String searchTerm,
+    Collection<Product> candidates
+  ) {
+    String term = searchTerm.toLowerCase();
+    Stream<Product> stream = candidates.size() > PARALLEL_SEARCH_THRESHOLD
+      ? candidates.parallelStream()
+      : candidates.stream();
+    return stream.filter(p -> matchesSearch(p, term)).toList();
+  }
+
+  // Typo-tolerant name search, most similar first: "scrwdriver" finds
+  // "Screwdriver". Served from a trigram index kept current as products are
+  // added and removed.
+  public List<Product> searchProductsFuzzy(String searchTerm, int limit) {
+    return nameIndex.search(searchTerm, limit);
+  }
+
+  // SKUs starting with the prefix, in order, for completion as they are typed
+  public List<String> completeSku(String prefix, int limit) {
+    return skus.complete(prefix, limit);
+  }
+
+  // The next page of completions after the last SKU already shown
+  public List<String> completeSku(String prefix, String after, int limit) {
+    return skus.complete(prefix, after, limit);
+  }
+
+  public List<String> completeSupplierId(String prefix, int limit) {
+    return supplierIndex.completeIds(prefix, null, limit);
+  }
+
+  public List<String> completeSupplierId(
+    String prefix,
+    String after,
+    int limit
+  ) {
+    return supplierIndex.completeIds(prefix, after, limit);
+  }
+
+  public static boolean matchesSearch(Product product, String lowerCaseTerm) {
+    return (
+      containsIgnoreCase(product.getName(), lowerCaseTerm) ||
+      containsIgnoreCase(product.getSku(), lowerCaseTerm) ||
+      containsIgnoreCase(product.getDescription(), lowerCaseTerm)
+    );
+  }
+
+  private static boolean containsIgnoreCase(String value, String lowerCaseTerm) {
+    return value != null && value.toLowerCase().contains(lowerCaseTerm);
+  }
+
   // Supplier operations
-  public void addSupplier(Supplier supplier) {
-    suppliers.add(supplier);
+  // Returns false, doing nothing, if a supplier with this ID already exists
+  public synchronized boolean addSupplier(Supplier supplier) {
+    if (!supplierIndex.addSupplier(supplier)) {
+      return false;
+    }
+    suppliers.append(supplier);
+    version++;
+    fireChange(
+      InventoryChange.Type.ADDED,
+      InventoryChange.Entity.SUPPLIER,
+      supplier.getId(),
+      supplier
+    );
     saveSupplierToMongo(supplier);
+    return true;
   }
 
   public List<Supplier> getAllSuppliers() {
-    return new ArrayList<>(suppliers);
+    return suppliers.snapshot();
   }
 
   public Optional<Supplier> findSupplierById(String id) {
-    return suppliers
-      .stream()
-      .filter(s -> s.getId().equals(id))
-      .findFirst();
+    return Optional.ofNullable(supplierIndex.supplier(id));
+  }
+
+  public List<Product> getProductsBySupplier(String supplierId) {
+    return supplierIndex.products(supplierId);
+  }
+
+  // Maintained as products change; never recomputed from the inventory
+  public SupplierStats getSupplierStats(String supplierId) {
+    return supplierIndex.stats(supplierId);
+  }
+
+  // Keyed by supplier ID; suppliers without products are absent
+  public Map<String, SupplierStats> getAllSupplierStats() {
+    return supplierIndex.stats();
   }
 
   // Order operations
-  public void addOrder(Order order) {
-    orders.add(order);
+
+  // Returns false, doing nothing, if an order with this ID was already
+  // recorded; a retried submission is a no-op
+  public synchronized boolean addOrder(Order order) {
+    if (!orderIds.add(order.getOrderId())) {
+      return false;
+    }
+    orders.append(order);
+    version++;
+    events.publish(
+      InventoryEvent.Type.ORDER_CREATED,
+      order.getOrderId(),
+      0,
+      0,
+      0,
+      0,
+      order
+    );
+    fireChange(
+      InventoryChange.Type.ADDED,
+      InventoryChange.Entity.ORDER,
+      order.getOrderId(),
+      order
+    );
     saveOrderToMongo(order);
+    return true;
+  }
+
+  public boolean hasOrder(String orderId) {
+    return orderIds.contains(orderId);
   }
 
   public List<Order> getAllOrders() {
-    return new ArrayList<>(orders);
+    return orders.snapshot();
   }
 
   // Sell Order operations
-  public void addSellOrder(SellOrder sellOrder) {
-    sellOrders.add(sellOrder);
-    saveSellOrderToMongo(sellOrder);
 
-    // Update inventory quantities
+  // Returns false, leaving stock untouched, if a sell order with this ID
+  // was already recorded or any line asks for more than is available to
+  // promise, so stock held for someone else is never sold. The order is
+  // saved before anything else changes: if saving throws, nothing is
+  // recorded and a retry is not turned away as a duplicate.
+  public synchronized boolean addSellOrder(SellOrder sellOrder) {
+    return addSellOrder(sellOrder, Map.of());
+  }
+
+  // held: units per SKU reserved for this very order, which it may use on
+  // top of what is available to promise
+  private boolean addSellOrder(
+    SellOrder sellOrder,
+    Map<String, Integer> held
+  ) {
+    requireSellOrderId(sellOrder);
+    if (hasSellOrder(sellOrder.getOrderId())) {
+      return false;
+    }
+    String location = locationOf(sellOrder);
+    Map<String, Integer> wanted = new HashMap<>();
+    for (OrderItem item : sellOrder.getItems()) {
+      wanted.merge(item.getSku(), item.getQuantity(), Integer::sum);
+    }
+    for (Map.Entry<String, Integer> entry : wanted.entrySet()) {
+      String sku = entry.getKey();
+      int available =
+        getAvailableToPromise(sku, location) + held.getOrDefault(sku, 0);
+      if (available < entry.getValue()) {
+        return false;
+      }
+    }
+    try {
+      saveSellOrderToMongo(sellOrder);
+    } catch (MongoWriteException e) {
+      if (!isDuplicateKey(e)) {
+        throw e;
+      }
+      // Saved by another instance, which also took the stock
+      sellOrderIds.add(sellOrder.getOrderId());
+      return false;
+    }
+    sellOrderIds.add(sellOrder.getOrderId());
+    sellOrders.append(sellOrder);
+    recordSales(sellOrder);
+    version++;
+    events.publish(
+      InventoryEvent.Type.SELL_ORDER_CREATED,
+      sellOrder.getOrderId(),
+      0,
+      0,
+      0,
+      0,
+      sellOrder
+    );
+    fireChange(
+      InventoryChange.Type.ADDED,
+      InventoryChange.Entity.SELL_ORDER,
+      sellOrder.getOrderId(),
+      sellOrder
+    );
+
+    // Update inventory quantities at the location the goods leave from
+    List<StockMovement> movements = new ArrayList<>();
     for (var item : sellOrder.getItems()) {
       Optional<Product> productOpt = findProductBySku(item.getSku());
       if (productOpt.isPresent()) {
         Product product = productOpt.get();
-        int newQuantity = product.getQuantity() - item.getQuantity();
-        product.setQuantity(Math.max(0, newQuantity));
+        int oldQuantity = product.getQuantity();
+        int taken = stock.add(location, item.getSku(), -item.getQuantity());
+        product.setQuantity(oldQuantity + taken);
+        publishProductChanged(product, oldQuantity, product.getPrice());
+        fireChange(
+          InventoryChange.Type.UPDATED,
+          InventoryChange.Entity.PRODUCT,
+          product.getSku(),
+          product
+        );
         updateProductInMongo(product);
+        saveStockToMongo(item.getSku(), location);
+        movements.add(
+          recordMovement(
+            item.getSku(),
+            location,
+            taken,
+            StockMovement.Reason.SALE,
+            oldQuantity
+          )
+        );
+      }
+    }
+    saveMovementsToMongo(movements);
+    return true;
+  }
+
+  // Units ordered, dated by the order, feed the best-seller windows
+  private void recordSales(SellOrder sellOrder) {
+    for (OrderItem item : sellOrder.getItems()) {
+      bestSellers.record(
+        sellOrder.getOrderDate(),
+        item.getSku(),
+        item.getQuantity()
+      );
+    }
+  }
+
+  // Highest-selling SKUs in the window, from a fixed-size summary; cost
+  // does not grow with sell-order history
+  public List<BestSeller> getBestSellers(BestSeller.Window window, int limit) {
+    return bestSellers.top(window, limit);
+  }
+
+  // Exact, maintained as products change; nothing is sorted per call
+  public List<Product> getTopByStockValue(int limit) {
+    return stockValueRanking.top(limit);
+  }
+
+  public boolean hasSellOrder(String orderId) {
+    return sellOrderIds.contains(orderId);
+  }
+
+  // Records a burst of sell orders at once. Each order is checked, in batch
+  // order, against what is available to promise after the orders accepted
+  // before it; a rejected order changes nothing. Accepted orders are saved
+  // with one bulk write per collection, and decrements of the same SKU
+  // across orders are netted into a single update.
+  public synchronized List<SellOrderResult> addSellOrders(
+    List<SellOrder> batch
+  ) {
+    SellOrderResult[] results = new SellOrderResult[batch.size()];
+
+    // "sku@location" -> units taken by orders accepted so far
+    Map<String, Integer> taken = new HashMap<>();
+    Set<String> batchIds = new HashSet<>();
+    List<Integer> accepted = new ArrayList<>();
+    for (int i = 0; i < batch.size(); i++) {
+      SellOrder sellOrder = batch.get(i);
+      String orderId = sellOrder.getOrderId();
+      String location = locationOf(sellOrder);
+      if (orderId == null || orderId.isBlank()) {
+        results[i] =
+          new SellOrderResult(
+            orderId,
+            SellOrderResult.Status.FAILED,
+            "Sell order ID is required"
+          );
+        continue;
+      }
+      if (hasSellOrder(orderId) || batchIds.contains(orderId)) {
+        results[i] =
+          new SellOrderResult(
+            orderId,
+            SellOrderResult.Status.DUPLICATE,
+            "Sell order " + orderId + " was already recorded"
+          );
+        continue;
+      }
+      Map<String, Integer> wanted = new HashMap<>();
+      for (OrderItem item : sellOrder.getItems()) {
+        wanted.merge(item.getSku(), item.getQuantity(), Integer::sum);
+      }
+      for (Map.Entry<String, Integer> entry : wanted.entrySet()) {
+        String sku = entry.getKey();
+        if (findProductBySku(sku).isEmpty()) {
+          results[i] =
+            new SellOrderResult(
+              orderId,
+              SellOrderResult.Status.UNKNOWN_PRODUCT,
+              "No product with SKU " + sku
+            );
+          break;
+        }
+        int available =
+          getAvailableToPromise(sku, location) -
+          taken.getOrDefault(sku + '@' + location, 0);
+        if (available < entry.getValue()) {
+          results[i] =
+            new SellOrderResult(
+              orderId,
+              SellOrderResult.Status.INSUFFICIENT_STOCK,
+              "Only " + available + " of " + sku + " available at " + location
+            );
+          break;
+        }
+      }
+      if (results[i] == null) {
+        wanted.forEach((sku, quantity) ->
+          taken.merge(sku + '@' + location, quantity, Integer::sum)
+        );
+        batchIds.add(orderId);
+        accepted.add(i);
+      }
+    }
+
+    insertSellOrders(batch, accepted, results);
+
+    // location -> (SKU -> units) over the orders that were saved
+    Map<String, Map<String, Integer>> decrements = new HashMap<>();
+    for (int i : accepted) {
+      if (results[i] != null) {
+        continue;
+      }
+      SellOrder sellOrder = batch.get(i);
+      results[i] =
+        new SellOrderResult(
+          sellOrder.getOrderId(),
+          SellOrderResult.Status.ACCEPTED,
+          null
+        );
+      sellOrderIds.add(sellOrder.getOrderId());
+      sellOrders.append(sellOrder);
+      recordSales(sellOrder);
+      version++;
+      events.publish(
+        InventoryEvent.Type.SELL_ORDER_CREATED,
+        sellOrder.getOrderId(),
+        0,
+        0,
+        0,
+        0,
+        sellOrder
+      );
+      fireChange(
+        InventoryChange.Type.ADDED,
+        InventoryChange.Entity.SELL_ORDER,
+        sellOrder.getOrderId(),
+        sellOrder
+      );
+      Map<String, Integer> atLocation = decrements.computeIfAbsent(
+        locationOf(sellOrder),
+        l -> new HashMap<>()
+      );
+      for (OrderItem item : sellOrder.getItems()) {
+        atLocation.merge(item.getSku(), item.getQuantity(), Integer::sum);
+      }
+    }
+    applyDecrements(decrements);
+    return Arrays.asList(results);
+  }
+
+  // One unordered insert for the whole batch; orders the server rejects
+  // are marked FAILED and left out of the stock update
+  private void insertSellOrders(
+    List<SellOrder> batch,
+    List<Integer> accepted,
+    SellOrderResult[] results
+  ) {
+    if (sellOrderCollection == null || accepted.isEmpty()) {
+      return;
+    }
+    List<SellOrder> documents = new ArrayList<>(accepted.size());
+    for (int i : accepted) {
+      documents.add(batch.get(i));
+    }
+    try {
+      sellOrderCollection.insertMany(
+        documents,
+        new InsertManyOptions().ordered(false)
+      );
+    } catch (MongoBulkWriteException e) {
+      for (BulkWriteError error : e.getWriteErrors()) {
+        int i = accepted.get(error.getIndex());
+        String orderId = batch.get(i).getOrderId();
+        if (error.getCategory() == ErrorCategory.DUPLICATE_KEY) {
+          // Saved by another instance, which also took the stock
+          sellOrderIds.add(orderId);
+          results[i] =
+            new SellOrderResult(
+              orderId,
+              SellOrderResult.Status.DUPLICATE,
+              "Sell order " + orderId + " was already recorded"
+            );
+        } else {
+          results[i] =
+            new SellOrderResult(
+              orderId,
+              SellOrderResult.Status.FAILED,
+              error.getMessage()
+            );
+        }
+      }
+    } catch (MongoException e) {
+      for (int i : accepted) {
+        results[i] =
+          new SellOrderResult(
+            batch.get(i).getOrderId(),
+            SellOrderResult.Status.FAILED,
+            e.getMessage()
+          );
       }
     }
   }
 
+  private void applyDecrements(Map<String, Map<String, Integer>> decrements) {
+    // SKU -> (location -> units actually taken)
+    Map<String, Map<String, Integer>> taken = new HashMap<>();
+    List<UpdateOneModel<Document>> stockUpdates = new ArrayList<>();
+    decrements.forEach((location, bySku) ->
+      bySku.forEach((sku, quantity) -> {
+        taken
+          .computeIfAbsent(sku, k -> new HashMap<>())
+          .put(location, -stock.add(location, sku, -quantity));
+        if (!location.equals(DEFAULT_LOCATION)) {
+          stockUpdates.add(stockUpdate(sku, location));
+        }
+      })
+    );
+
+    List<Product> updatedProducts = new ArrayList<>();
+    List<StockMovement> movements = new ArrayList<>();
+    for (Map.Entry<String, Map<String, Integer>> bySku : taken.entrySet()) {
+      Product product = productsBySku.get(bySku.getKey());
+      if (product == null) {
+        continue;
+      }
+      Map<String, Integer> takenByLocation = bySku.getValue();
+      int oldQuantity = product.getQuantity();
+      int balance = oldQuantity;
+      for (Map.Entry<String, Integer> entry : takenByLocation.entrySet()) {
+        movements.add(
+          recordMovement(
+            product.getSku(),
+            entry.getKey(),
+            -entry.getValue(),
+            StockMovement.Reason.SALE,
+            balance
+          )
+        );
+        balance -= entry.getValue();
+      }
+      product.setQuantity(balance);
+      publishProductChanged(product, oldQuantity, product.getPrice());
+      fireChange(
+        InventoryChange.Type.UPDATED,
+        InventoryChange.Entity.PRODUCT,
+        product.getSku(),
+        product
+      );
+      updatedProducts.add(product);
+    }
+
+    BulkWriteOptions unordered = new BulkWriteOptions().ordered(false);
+    try {
+      if (productShards != null && !updatedProducts.isEmpty()) {
+        productShards.bulkWrite(
+          updatedProducts,
+          InventoryService::productUpdate,
+          unordered
+        );
+      }
+      if (stockCollection != null && !stockUpdates.isEmpty()) {
+        stockCollection.bulkWrite(stockUpdates, unordered);
+      }
+      saveMovementsToMongo(movements);
+    } catch (MongoException e) {
+      System.err.println("Failed to save batch stock: " + e.getMessage());
+    }
+  }
+
   public List<SellOrder> getAllSellOrders() {
-    return new ArrayList<>(sellOrders);
+    return sellOrders.snapshot();
+  }
+
+  // Reservations. A hold keeps units at a location from being promised to
+  // anyone else until it is confirmed by a sell order, released, or its
+  // TTL runs out. Holds live in memory and are not shared across instances.
+
+  // Returns the reservation id, or empty if fewer units are available to
+  // promise than asked for
+  public synchronized Optional<String> reserve(
+    String sku,
+    String location,
+    int quantity,
+    Duration ttl
+  ) {
+    location = location(location);
+    if (quantity <= 0 || getAvailableToPromise(sku, location) < quantity) {
+      return Optional.empty();
+    }
+    return Optional.of(
+      reservations.reserve(sku, location, quantity, ttl.toMillis()).id
+    );
+  }
+
+  // Returns false if the hold was unknown or had already expired
+  public boolean release(String reservationId) {
+    return reservations.remove(reservationId) != null;
+  }
+
+  // Units at the location minus those held by live reservations
+  public int getAvailableToPromise(String sku, String location) {
+    location = location(location);
+    return Math.max(
+      0,
+      stock.get(location, sku) - reservations.held(sku, location)
+    );
+  }
+
+  // Records a sell order whose items were reserved beforehand, consuming
+  // those holds. Items whose hold expired are re-checked against what is
+  // still available. The holds are released only once the order is
+  // recorded: if it falls short, is a duplicate or fails to save, they are
+  // all kept and false is returned or the exception thrown.
+  public synchronized boolean confirmSellOrder(
+    SellOrder sellOrder,
+    Collection<String> reservationIds
+  ) {
+    requireSellOrderId(sellOrder);
+    String location = locationOf(sellOrder);
+    Map<String, Integer> held = new HashMap<>();
+    for (String id : reservationIds) {
+      ReservationBook.Hold hold = reservations.get(id);
+      if (hold != null && hold.location.equals(location)) {
+        held.merge(hold.sku, hold.quantity, Integer::sum);
+      }
+    }
+    if (!addSellOrder(sellOrder, held)) {
+      return false;
+    }
+    reservationIds.forEach(reservations::remove);
+    return true;
+  }
+
+  private static void requireSellOrderId(SellOrder sellOrder) {
+    if (sellOrder.getOrderId() == null || sellOrder.getOrderId().isBlank()) {
+      throw new IllegalArgumentException("Sell order ID is required");
+    }
+  }
+
+  // Stock by location
+  public List<String> getLocations() {
+    return stock.getLocations();
+  }
+
+  public int getQuantity(String sku, String location) {
+    return stock.get(location(location), sku);
+  }
+
+  // Location -> quantity for one product, leaving out empty locations
+  public Map<String, Integer> getStockByLocation(String sku) {
+    return stock.bySku(sku);
+  }
+
+  // Stock movement ledger. Past stock within the ledger's window is found
+  // from the nearest checkpoint plus at most one checkpoint interval of
+  // replayed movements; before it, by subtracting from today's stock what
+  // MongoDB says moved since.
+
+  // Company-wide stock of one product at a past moment
+  public int getStockAt(String sku, Instant at) {
+    long timestamp = at.toEpochMilli();
+    int current = findProductBySku(sku).map(Product::getQuantity).orElse(0);
+    if (!ledger.covers(sku, timestamp) && movementCollection != null) {
+      return (int) (current - movedSince(Filters.eq("sku", sku), timestamp));
+    }
+    Long balance = ledger.balanceAt(sku, timestamp);
+    if (balance != null) {
+      return balance.intValue();
+    }
+    // Never moved since the ledger began
+    return current;
+  }
+
+  // Stock of the whole store at a past moment
+  public long getTotalStockAt(Instant at) {
+    long timestamp = at.toEpochMilli();
+    if (!ledger.coversAll(timestamp) && movementCollection != null) {
+      long current = 0;
+      for (Product product : inventory) {
+        current += product.getQuantity();
+      }
+      return current - movedSince(Filters.empty(), timestamp);
+    }
+    long total = 0;
+    for (String sku : ledger.skus()) {
+      total += ledger.balanceAt(sku, timestamp);
+    }
+    for (Product product : inventory) {
+      if (!ledger.hasHistory(product.getSku())) {
+        total += product.getQuantity();
+      }
+    }
+    return total;
+  }
+
+  // Every recorded movement of one product, oldest first. Memory only holds
+  // the recent window, so the full history is read from MongoDB.
+  public List<StockMovement> getMovements(String sku) {
+    if (movementCollection == null) {
+      return ledger.movements(sku);
+    }
+    List<StockMovement> movements = new ArrayList<>();
+    for (Document doc : movementCollection
+      .find(Filters.eq("sku", sku))
+      .sort(Sorts.ascending("at"))) {
+      movements.add(movementOf(doc));
+    }
+    return movements;
+  }
+
+  // Net units moved after the moment, summed server-side
+  private long movedSince(Bson filter, long timestamp) {
+    Document sum = movementCollection
+      .aggregate(
+        List.of(
+          Aggregates.match(
+            Filters.and(filter, Filters.gt("at", new Date(timestamp)))
+          ),
+          Aggregates.group(null, Accumulators.sum("delta", "$delta"))
+        )
+      )
+      .first();
+    Object delta = sum == null ? null : sum.get("delta");
+    return delta instanceof Number ? ((Number) delta).longValue() : 0;
+  }
+
+  // Books a purchase receipt into the given location. Returns false if the
+  // product does not exist.
+  public synchronized boolean receiveStock(
+    String sku,
+    String location,
+    int quantity
+  ) {
+    Optional<Product> productOpt = findProductBySku(sku);
+    if (productOpt.isEmpty() || quantity <= 0) {
+      return false;
+    }
+    location = location(location);
+    Product product = productOpt.get();
+    int oldQuantity = product.getQuantity();
+    int received = stock.add(location, sku, quantity);
+    product.setQuantity(oldQuantity + received);
+    version++;
+    publishProductChanged(product, oldQuantity, product.getPrice());
+    fireChange(
+      InventoryChange.Type.UPDATED,
+      InventoryChange.Entity.PRODUCT,
+      sku,
+      product
+    );
+    updateProductInMongo(product);
+    saveStockToMongo(sku, location);
+    saveMovementsToMongo(
+      recordMovement(
+        sku,
+        location,
+        received,
+        StockMovement.Reason.RECEIPT,
+        oldQuantity
+      )
+    );
+    return true;
+  }
+
+  // Moves stock between locations; the company-wide total is unchanged.
+  // Returns false if the source location does not hold enough.
+  public synchronized boolean transferStock(
+    String sku,
+    String fromLocation,
+    String toLocation,
+    int quantity
+  ) {
+    fromLocation = location(fromLocation);
+    toLocation = location(toLocation);
+    Optional<Product> productOpt = findProductBySku(sku);
+    if (
+      productOpt.isEmpty() ||
+      quantity <= 0 ||
+      fromLocation.equals(toLocation) ||
+      stock.get(fromLocation, sku) < quantity
+    ) {
+      return false;
+    }
+    stock.add(fromLocation, sku, -quantity);
+    stock.add(toLocation, sku, quantity);
+    version++;
+    fireChange(
+      InventoryChange.Type.UPDATED,
+      InventoryChange.Entity.PRODUCT,
+      sku,
+      productOpt.get()
+    );
+    saveStockToMongo(sku, fromLocation);
+    saveStockToMongo(sku, toLocation);
+    int total = productOpt.get().getQuantity();
+    saveMovementsToMongo(
+      List.of(
+        recordMovement(
+          sku,
+          fromLocation,
+          -quantity,
+          StockMovement.Reason.TRANSFER,
+          total
+        ),
+        recordMovement(
+          sku,
+          toLocation,
+          quantity,
+          StockMovement.Reason.TRANSFER,
+          total - quantity
+        )
+      )
+    );
+    return true;
+  }
+
+  private static String locationOf(Order order) {
+    return location(order.getLocation());
+  }
+
+  // A missing or blank location name means the default location
+  private static String location(String name) {
+    return name == null || name.isBlank() ? DEFAULT_LOCATION : name.trim();
+  }
+
+  // Bumped on every mutation; lets callers skip work when nothing changed.
+  public long getVersion() {
+    return version;
+  }
+
+  // Typed event stream of every mutation; subscribe() to follow it
+  public InventoryEventRing getEventRing() {
+    return events;
+  }
+
+  // Every product change passes through these three, so the supplier index,
+  // stock value ranking, name index and SKU lookups are kept current here too
+  private void publishProductAdded(Product product) {
+    supplierIndex.put(product);
+    stockValueRanking.put(product);
+    catalogTotals.put(product);
+    nameIndex.put(product);
+    skus.add(product.getSku());
+    productsBySku.put(product.getSku(), product);
+    events.publish(
+      InventoryEvent.Type.PRODUCT_ADDED,
+      product.getSku(),
+      0,
+      product.getQuantity(),
+      0,
+      product.getPrice(),
+      null
+    );
+  }
+
+  private void publishProductRemoved(Product product) {
+    supplierIndex.remove(product.getSku());
+    stockValueRanking.remove(product.getSku());
+    catalogTotals.remove(product.getSku());
+    nameIndex.remove(product.getSku());
+    skus.remove(product.getSku());
+    productsBySku.remove(product.getSku());
+    events.publish(
+      InventoryEvent.Type.PRODUCT_REMOVED,
+      product.getSku(),
+      product.getQuantity(),
+      0,
+      product.getPrice(),
+      product.getPrice(),
+      null
+    );
+  }
+
+  private void publishProductChanged(
+    Product product,
+    int oldQuantity,
+    double oldPrice
+  ) {
+    supplierIndex.put(product);
+    stockValueRanking.put(product);
+    catalogTotals.put(product);
+    if (oldQuantity != product.getQuantity()) {
+      events.publish(
+        InventoryEvent.Type.STOCK_CHANGED,
+        product.getSku(),
+        oldQuantity,
+        product.getQuantity(),
+        product.getPrice(),
+        product.getPrice(),
+        null
+      );
+    }
+    if (Double.compare(oldPrice, product.getPrice()) != 0) {
+      events.publish(
+        InventoryEvent.Type.PRICE_CHANGED,
+        product.getSku(),
+        product.getQuantity(),
+        product.getQuantity(),
+        oldPrice,
+        product.getPrice(),
+        null
+      );
+    }
+  }
+
+  public void addListener(InventoryListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(InventoryListener listener) {
+    listeners.remove(listener);
+  }
+
+  private void fireChange(
+    InventoryChange.Type type,
+    InventoryChange.Entity entity,
+    String key,
+    Object value
+  ) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    InventoryChange change = new InventoryChange(type, entity, key, value);
+    for (InventoryListener listener : listeners) {
+      try {
+        listener.onChange(change);
+      } catch (RuntimeException e) {
+        System.err.println("Inventory listener failed: " + e.getMessage());
+      }
+    }
+  }
+
+  private void publishInventory(List<Product> next) {
+    inventory = Collections.unmodifiableList(next);
+    version++;
   }
 
   // MongoDB operations
   private void saveProductToMongo(Product product) {
-    if (productCollection != null) {
-      Document doc = new Document("sku", product.getSku())
-        .append("name", product.getName())
-        .append("description", product.getDescription())
-        .append("quantity", product.getQuantity())
-        .append("price", product.getPrice())
-        .append("supplierId", product.getSupplierId())
-        .append("dateReceived", product.getDateReceived());
-      productCollection.insertOne(doc);
+    if (productShards != null) {
+      BsonValue id = productShards
+        .forSku(product.getSku())
+        .insertOne(product)
+        .getInsertedId();
+      if (id != null) {
+        productIds.put(toKey(id), product.getSku());
+      }
     }
   }
 
   private void updateProductInMongo(Product product) {
-    if (productCollection != null) {
-      Document filter = new Document("sku", product.getSku());
-      Document update = new Document(
+    if (productShards != null) {
+      UpdateOneModel<Product> update = productUpdate(product);
+      productShards
+        .forSku(product.getSku())
+        .updateOne(update.getFilter(), update.getUpdate());
+    }
+  }
+
+  private static UpdateOneModel<Product> productUpdate(Product product) {
+    return new UpdateOneModel<>(
+      new Document("sku", product.getSku()),
+      new Document(
         "$set",
         new Document("quantity", product.getQuantity()).append(
           "price",
           product.getPrice()
         )
+      )
+        .append("$currentDate", new Document("updatedAt", true))
+    );
+  }
+
+  // Price only; quantities are not touched by repricing
+  private static UpdateOneModel<Product> priceUpdate(
+    String sku,
+    double price
+  ) {
+    return new UpdateOneModel<>(
+      new Document("sku", sku),
+      new Document("$set", new Document("price", price))
+        .append("$currentDate", new Document("updatedAt", true))
+    );
+  }
+
+  private void removeProductFromMongo(String sku) {
+    if (productShards != null) {
+      productShards.forSku(sku).deleteOne(new Document("sku", sku));
+    }
+  }
+
+  // The default location is never stored; it is the product total minus
+  // what is placed elsewhere
+  private void saveStockToMongo(String sku, String location) {
+    if (stockCollection != null && !location.equals(DEFAULT_LOCATION)) {
+      UpdateOneModel<Document> update = stockUpdate(sku, location);
+      stockCollection.updateOne(
+        update.getFilter(),
+        update.getUpdate(),
+        update.getOptions()
       );
-      productCollection.updateOne(filter, update);
     }
   }
 
-  private void removeProductFromMongo(String sku) {
-    if (productCollection != null) {
-      productCollection.deleteOne(new Document("sku", sku));
+  private UpdateOneModel<Document> stockUpdate(String sku, String location) {
+    return new UpdateOneModel<>(
+      new Document("sku", sku).append("location", location),
+      new Document("$set", new Document("quantity", stock.get(location, sku)))
+        .append("$currentDate", new Document("updatedAt", true)),
+      new UpdateOptions().upsert(true)
+    );
+  }
+
+  // Adds a movement to the ledger; null if nothing moved. Persisting it is
+  // up to the caller, since movements from other instances are already
+  // stored by them.
+  private StockMovement recordMovement(
+    String sku,
+    String location,
+    int delta,
+    StockMovement.Reason reason,
+    int balanceBefore
+  ) {
+    if (delta == 0) {
+      return null;
+    }
+    StockMovement movement = new StockMovement(
+      ledger.nextTimestamp(),
+      sku,
+      location,
+      delta,
+      reason
+    );
+    ledger.record(movement, balanceBefore);
+    return movement;
+  }
+
+  private void saveMovementsToMongo(StockMovement movement) {
+    if (movement != null) {
+      saveMovementsToMongo(List.of(movement));
+    }
+  }
+
+  private void saveMovementsToMongo(List<StockMovement> movements) {
+    if (movementCollection == null) {
+      return;
+    }
+    List<Document> documents = new ArrayList<>(movements.size());
+    for (StockMovement movement : movements) {
+      if (movement != null) {
+        documents.add(
+          new Document("sku", movement.getSku())
+            .append("location", movement.getLocation())
+            .append("delta", movement.getDelta())
+            .append("reason", movement.getReason().name())
+            .append("at", new Date(movement.getTimestamp()))
+        );
+      }
+    }
+    if (!documents.isEmpty()) {
+      movementCollection.insertMany(documents);
+    }
+  }
+
+  private void removeStockFromMongo(String sku) {
+    if (stockCollection != null) {
+      stockCollection.deleteMany(new Document("sku", sku));
     }
   }
 
   private void saveSupplierToMongo(Supplier supplier) {
     if (supplierCollection != null) {
-      Document doc = new Document("id", supplier.getId())
-        .append("name", supplier.getName())
-        .append("contact", supplier.getContact());
-      supplierCollection.insertOne(doc);
+      supplierCollection.insertOne(supplier);
     }
   }
 
   private void saveOrderToMongo(Order order) {
     if (orderCollection != null) {
-      List<Document> items = new ArrayList<>();
-      for (var item : order.getItems()) {
-        items.add(
-          new Document("sku", item.getSku()).append(
-            "quantity",
-            item.getQuantity()
-          )
-        );
-      }
-
-      Document doc = new Document("orderId", order.getOrderId())
-        .append("supplierId", order.getSupplierId())
-        .append("orderDate", order.getOrderDate().toString())
-        .append("items", items);
-      orderCollection.insertOne(doc);
+      orderCollection.insertOne(order);
     }
   }
 
+  // A write rejected by a unique index, e.g. the sell order ID index
+  static boolean isDuplicateKey(Throwable error) {
+    Throwable cause = error instanceof CompletionException
+      ? error.getCause()
+      : error;
+    return (
+      cause instanceof MongoWriteException &&
+      ((MongoWriteException) cause).getError().getCategory() ==
+      ErrorCategory.DUPLICATE_KEY
+    );
+  }
+
   private void saveSellOrderToMongo(SellOrder sellOrder) {
     if (sellOrderCollection != null) {
-      List<Document> items = new ArrayList<>();
-      for (var item : sellOrder.getItems()) {
-        items.add(
-          new Document("sku", item.getSku()).append(
-            "quantity",
-            item.getQuantity()
-          )
-        );
+      sellOrderCollection.insertOne(sellOrder);
+    }
+  }
+
+  // Follows product changes made by other instances through a MongoDB change
+  // stream and applies them as if they were local mutations. Change streams
+  // need a replica set; on a standalone server this logs and does nothing.
+  public synchronized void startChangeStream() {
+    if (productShards == null || watching) {
+      return;
+    }
+    watching = true;
+    List<MongoCollection<Product>> shards = productShards.all();
+    for (int i = 0; i < shards.size(); i++) {
+      MongoCollection<Product> shard = shards.get(i);
+      Thread watcher = new Thread(
+        () -> watchProducts(shard),
+        shards.size() == 1
+          ? "inventory-change-stream"
+          : "inventory-change-stream-" + i
+      );
+      watcher.setDaemon(true);
+      watcher.start();
+    }
+  }
+
+  private void watchProducts(MongoCollection<Product> shard) {
+    try {
+      MongoChangeStreamCursor<ChangeStreamDocument<Product>> changeStream =
+        shard.watch().fullDocument(FullDocument.UPDATE_LOOKUP).cursor();
+      changeStreams.add(changeStream);
+      if (!watching) {
+        changeStream.close();
+        return;
+      }
+      // Opened before the key scan so no delete can slip between the two
+      loadProductKeys(shard);
+      while (watching && changeStream.hasNext()) {
+        ChangeStreamDocument<Product> change = changeStream.next();
+        Object id = toKey(change.getDocumentKey().get("_id"));
+        switch (change.getOperationType()) {
+          case INSERT:
+          case UPDATE:
+          case REPLACE:
+            if (change.getFullDocument() != null) {
+              rememberProductId(id, change.getFullDocument().getSku());
+              applyRemoteProduct(change.getFullDocument());
+            }
+            break;
+          case DELETE:
+            applyRemoteDeleteById(id);
+            break;
+          default:
+            break;
+        }
       }
+    } catch (Exception e) {
+      if (watching) {
+        System.err.println("Change stream stopped: " + e.getMessage());
+      }
+    }
+  }
 
-      Document doc = new Document("sellOrderId", sellOrder.getOrderId())
-        .append("customerName", sellOrder.getCustomerName())
-        .append("sellDate", sellOrder.getOrderDate().toString())
-        .append("items", items);
-      sellOrderCollection.insertOne(doc);
+  private synchronized void applyRemoteProduct(Product remote) {
+    Optional<Product> local = findProductBySku(remote.getSku());
+    if (local.isEmpty()) {
+      remote.setQuantity(
+        stock.absorbTotal(remote.getSku(), remote.getQuantity())
+      );
+      List<Product> next = new ArrayList<>(inventory.size() + 1);
+      next.addAll(inventory);
+      next.add(remote);
+      publishInventory(next);
+      publishProductAdded(remote);
+      fireChange(
+        InventoryChange.Type.ADDED,
+        InventoryChange.Entity.PRODUCT,
+        remote.getSku(),
+        remote
+      );
+      recordMovement(
+        remote.getSku(),
+        null,
+        remote.getQuantity(),
+        StockMovement.Reason.SYNC,
+        0
+      );
+      return;
+    }
+    Product product = local.get();
+    // Echoes of our own writes arrive here too and change nothing
+    if (
+      product.getQuantity() != remote.getQuantity() ||
+      Double.compare(product.getPrice(), remote.getPrice()) != 0
+    ) {
+      int oldQuantity = product.getQuantity();
+      double oldPrice = product.getPrice();
+      product.setQuantity(
+        stock.absorbTotal(product.getSku(), remote.getQuantity())
+      );
+      product.setPrice(remote.getPrice());
+      version++;
+      publishProductChanged(product, oldQuantity, oldPrice);
+      fireChange(
+        InventoryChange.Type.UPDATED,
+        InventoryChange.Entity.PRODUCT,
+        product.getSku(),
+        product
+      );
+      recordMovement(
+        product.getSku(),
+        null,
+        product.getQuantity() - oldQuantity,
+        StockMovement.Reason.SYNC,
+        oldQuantity
+      );
     }
   }
 
+  private synchronized void applyRemoteStock(
+    String sku,
+    String location,
+    int quantity
+  ) {
+    Optional<Product> productOpt = findProductBySku(sku);
+    if (productOpt.isEmpty() || stock.get(location, sku) == quantity) {
+      return;
+    }
+    stock.set(location, sku, quantity);
+    Product product = productOpt.get();
+    int oldQuantity = product.getQuantity();
+    product.setQuantity(stock.absorbTotal(sku, oldQuantity));
+    version++;
+    publishProductChanged(product, oldQuantity, product.getPrice());
+    fireChange(
+      InventoryChange.Type.UPDATED,
+      InventoryChange.Entity.PRODUCT,
+      sku,
+      product
+    );
+    recordMovement(
+      sku,
+      location,
+      product.getQuantity() - oldQuantity,
+      StockMovement.Reason.SYNC,
+      oldQuantity
+    );
+  }
+
+  private synchronized void applyRemoteDeleteById(Object id) {
+    String sku = productIds.remove(id);
+    if (sku != null) {
+      applyRemoteDelete(sku);
+    }
+  }
+
+  private synchronized void applyRemoteDelete(String sku) {
+    Optional<Product> productOpt = findProductBySku(sku);
+    if (productOpt.isPresent()) {
+      List<Product> next = new ArrayList<>(inventory);
+      next.remove(productOpt.get());
+      stock.remove(sku);
+      publishInventory(next);
+      publishProductRemoved(productOpt.get());
+      fireChange(
+        InventoryChange.Type.REMOVED,
+        InventoryChange.Entity.PRODUCT,
+        sku,
+        null
+      );
+      int quantity = productOpt.get().getQuantity();
+      recordMovement(sku, null, -quantity, StockMovement.Reason.SYNC, quantity);
+    }
+  }
+
+  private static Object toKey(BsonValue id) {
+    if (id == null) {
+      return null;
+    }
+    if (id.isObjectId()) {
+      return id.asObjectId().getValue();
+    }
+    if (id.isString()) {
+      return id.asString().getValue();
+    }
+    return id;
+  }
+
   public void close() {
-    if (mongoClient != null) {
-      mongoClient.close();
+    if (snapshotTask != null) {
+      snapshotTask.cancel(false);
+    }
+    if (reservationTask != null) {
+      reservationTask.cancel(false);
+    }
+    if (snapshotScheduler != null) {
+      snapshotScheduler.shutdownNow();
+    }
+    if (reservationTicker != null) {
+      reservationTicker.shutdownNow();
+    }
+    if (snapshotsEnabled) {
+      saveSnapshot();
+    }
+    watching = false;
+    changeStreams.forEach(MongoChangeStreamCursor::close);
+    if (ownedClient != null) {
+      ownedClient.close();
     }
   }
 
@@ -340,21 +2177,192 @@ public class InventoryService {
     return inventory.size();
   }
 
+  // Company-wide totals are rolled up across location partitions in parallel
   public int getTotalQuantity() {
-    return inventory.stream().mapToInt(Product::getQuantity).sum();
+    return (int) stock.rollUp(sku -> 0).quantity;
   }
 
   public double getTotalValue() {
-    return inventory
-      .stream()
-      .mapToDouble(p -> p.getPrice() * p.getQuantity())
-      .sum();
+    return catalogTotals.value();
   }
 
   public int getLowStockCount(int threshold) {
-    return (int) inventory
-      .stream()
-      .filter(p -> p.getQuantity() < threshold)
-      .count();
+    return catalogTotals.stats(threshold).getLowStockCount();
+  }
+
+  // All dashboard figures from running totals, kept as products change on
+  // each product's company-wide quantity; the cost does not grow with the
+  // catalog, so the dashboard can poll it freely.
+  public InventoryStats getStats(int lowStockThreshold) {
+    return catalogTotals.stats(lowStockThreshold);
+  }
+
+  // Same figures as getStats, computed from what is stored in MongoDB rather
+  // than from memory. Only quantity and price are decoded from each document.
+  // Shards are scanned in parallel and their figures added up.
+  public InventoryStats scanStats(int lowStockThreshold) {
+    if (productShards == null) {
+      // Without MongoDB, memory is all there is to scan
+      return getStats(lowStockThreshold);
+    }
+    int totalProducts = 0;
+    int totalQuantity = 0;
+    double totalValue = 0;
+    int lowStock = 0;
+    for (InventoryStats shard : productShards.gather(shard ->
+      scanStats(MongoRouting.forReports(shard), lowStockThreshold)
+    )) {
+      totalProducts += shard.getTotalProducts();
+      totalQuantity += shard.getTotalQuantity();
+      totalValue += shard.getTotalValue();
+      lowStock += shard.getLowStockCount();
+    }
+    return new InventoryStats(
+      totalProducts,
+      totalQuantity,
+      totalValue,
+      lowStock
+    );
+  }
+
+  private static InventoryStats scanStats(
+    MongoCollection<Product> shard,
+    int lowStockThreshold
+  ) {
+    int totalProducts = 0;
+    int totalQuantity = 0;
+    double totalValue = 0;
+    int lowStock = 0;
+    for (RawBsonDocument doc : raw(shard)
+      .find()
+      .projection(Projections.include("quantity", "price"))) {
+      int quantity = RawFields.getInt(doc, "quantity");
+      totalProducts++;
+      totalQuantity += quantity;
+      totalValue += RawFields.getDouble(doc, "price") * quantity;
+      if (quantity < lowStockThreshold) {
+        lowStock++;
+      }
+    }
+    return new InventoryStats(
+      totalProducts,
+      totalQuantity,
+      totalValue,
+      lowStock
+    );
+  }
+
+  // Streams every stored product to a CSV file straight from the raw BSON,
+  // without materializing Product objects. Returns the number of rows written.
+  // Shards are written one after another, so rows follow no overall order.
+  public int exportProducts(Path target) throws IOException {
+    int rows = 0;
+    Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+    try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      out.write(String.join(",", EXPORT_FIELDS));
+      out.write('\n');
+      if (productShards == null) {
+        // Without MongoDB, export what is in memory
+        rows = exportProducts(inventory, out);
+      } else {
+        for (MongoCollection<Product> shard : productShards.all()) {
+          rows += exportShard(MongoRouting.forReports(shard), out);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    return rows;
+  }
+
+  private static int exportShard(MongoCollection<Product> shard, Writer out)
+    throws IOException {
+    int rows = 0;
+    try (MongoCursor<RawBsonDocument> cursor = raw(shard).find().iterator()) {
+      while (cursor.hasNext()) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedIOException("Export cancelled");
+        }
+        RawBsonDocument doc = cursor.next();
+        for (int i = 0; i < EXPORT_FIELDS.length; i++) {
+          if (i > 0) {
+            out.write(',');
+          }
+          BsonValue value = doc.get(EXPORT_FIELDS[i]);
+          if (value != null) {
+            out.write(csvValue(value));
+          }
+        }
+        out.write('\n');
+        rows++;
+      }
+    }
+    return rows;
+  }
+
+  // Same columns as exportShard, in EXPORT_FIELDS order
+  private static int exportProducts(List<Product> products, Writer out)
+    throws IOException {
+    for (Product product : products) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new InterruptedIOException("Export cancelled");
+      }
+      out.write(csvText(product.getSku()));
+      out.write(',');
+      out.write(csvText(product.getName()));
+      out.write(',');
+      out.write(csvText(product.getDescription()));
+      out.write(',');
+      out.write(Integer.toString(product.getQuantity()));
+      out.write(',');
+      out.write(Double.toString(product.getPrice()));
+      out.write(',');
+      out.write(csvText(product.getSupplierId()));
+      out.write(',');
+      out.write(csvText(product.getDateReceived()));
+      out.write('\n');
+    }
+    return products.size();
+  }
+
+  private static MongoCollection<RawBsonDocument> raw(
+    MongoCollection<Product> shard
+  ) {
+    return shard.withDocumentClass(RawBsonDocument.class);
+  }
+
+  private static String csvValue(BsonValue value) {
+    String text;
+    if (value.isString()) {
+      text = value.asString().getValue();
+    } else if (value.isInt32()) {
+      return Integer.toString(value.asInt32().getValue());
+    } else if (value.isInt64()) {
+      return Long.toString(value.asInt64().getValue());
+    } else if (value.isDouble()) {
+      return Double.toString(value.asDouble().getValue());
+    } else if (value.isNull()) {
+      return "";
+    } else {
+      text = value.toString();
+    }
+    return csvText(text);
+  }
+
+  private static String csvText(String text) {
+    if (text == null) {
+      return "";
+    }
+    if (
+      text.indexOf(',') < 0 &&
+      text.indexOf('"') < 0 &&
+      text.indexOf('\n') < 0 &&
+      text.indexOf('\r') < 0
+    ) {
+      return text;
+    }
+    return '"' + text.replace("\"", "\"\"") + '"';
   }
 }
@@ -0,0 +1,48 @@
+package com.store.inventory.service;
+
+public class InventoryStats {
+
+  private final int totalProducts;
+  private final int totalQuantity;
+  private final double totalValue;
+  private final int lowStockCount;
+
+  public InventoryStats(
+    int totalProducts,
+    int totalQuantity,
+    double totalValue,
+    int lowStockCount
+  ) {
+    this.totalProducts = totalProducts;
+    this.totalQuantity = totalQuantity;
+    this.totalValue = totalValue;
+    this.lowStockCount = lowStockCount;
+  }
+
+  public int getTotalProducts() {
+    return totalProducts;
+  }
+
+  public int getTotalQuantity() {
+    return totalQuantity;
+  }
+
+  public double getTotalValue() {
+    return totalValue;
+  }
+
+  public int getLowStockCount() {
+    return lowStockCount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "InventoryStats{totalProducts=%d, totalQuantity=%d, totalValue=%.2f, lowStockCount=%d}",
+      totalProducts,
+      totalQuantity,
+      totalValue,
+      lowStockCount
+    );
+  }
+}
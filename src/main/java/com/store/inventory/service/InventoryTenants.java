@@ -0,0 +1,356 @@
+package com.store.inventory.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Many stores in one JVM, each with its own InventoryService over its own
+// database (inventory.mongo.database + "_" + store ID). All of them share
+// one pooled MongoClient and a small scheduler pool for snapshots and
+// reservation expiry. A store is loaded on first use and closed again once
+// idle, or when more than the allowed number are loaded, the least
+// recently used first; memory is bounded by the active stores, not by the
+// number hosted. Callers hold a Handle while they use a store, and a store
+// with handles open is never closed under them.
+public final class InventoryTenants {
+
+  private static final int MAX_ACTIVE = Integer.getInteger(
+    "inventory.tenants.maxActive",
+    100
+  );
+  private static final long IDLE_MINUTES = Long.getLong(
+    "inventory.tenants.idleMinutes",
+    30
+  );
+  private static final int SCHEDULER_THREADS = Integer.getInteger(
+    "inventory.tenants.schedulerThreads",
+    2
+  );
+  // Per-store event ring; the single-store default is sized for one busy
+  // store, which hundreds of stores could not each afford. Power of two.
+  private static final int EVENT_RING_CAPACITY = Integer.getInteger(
+    "inventory.tenants.eventRingCapacity",
+    1 << 12
+  );
+  private static final long EVICTION_CHECK_SECONDS = 60;
+  // Keeps database names valid and stores from reaching each other's data
+  private static final Pattern STORE_ID = Pattern.compile(
+    "[A-Za-z0-9_-]{1,32}"
+  );
+
+  // Opens a store's service from its database name
+  @FunctionalInterface
+  interface Loader {
+    InventoryService load(String database, ScheduledExecutorService scheduler);
+  }
+
+  // One request's use of a store. The store stays loaded until the handle
+  // is closed, however long the request takes. Used by one thread.
+  public static final class Handle implements AutoCloseable {
+
+    private final InventoryTenants owner;
+    private final Tenant tenant;
+    private final InventoryService service;
+    private boolean released;
+
+    private Handle(
+      InventoryTenants owner,
+      Tenant tenant,
+      InventoryService service
+    ) {
+      this.owner = owner;
+      this.tenant = tenant;
+      this.service = service;
+    }
+
+    public InventoryService service() {
+      return service;
+    }
+
+    @Override
+    public void close() {
+      if (!released) {
+        released = true;
+        owner.release(tenant);
+      }
+    }
+  }
+
+  private static final class Tenant {
+
+    private final String database;
+    private InventoryService service;
+    private boolean closed;
+    volatile long lastUsed;
+    // Open handles, and whether the store was dropped from the map while
+    // they were open; both guarded by the InventoryTenants lock
+    int pins;
+    boolean retired;
+
+    Tenant(String database) {
+      this.database = database;
+    }
+
+    // Loads the store on first call. Null once evicted, so the caller
+    // looks the store up again rather than reviving a closed instance.
+    synchronized InventoryService activate(
+      Loader loader,
+      ScheduledExecutorService scheduler
+    ) {
+      if (closed) {
+        return null;
+      }
+      if (service == null) {
+        service = loader.load(database, scheduler);
+      }
+      return service;
+    }
+
+    synchronized void close() {
+      closed = true;
+      if (service != null) {
+        service.close();
+      }
+    }
+  }
+
+  // Null when the loader needs no shared client, as in tests
+  private final MongoClient client;
+  private final Loader loader;
+  private final ScheduledExecutorService scheduler;
+  private final int maxActive;
+  private final long idleNanos;
+  private final Map<String, Tenant> tenants = new HashMap<>();
+  private boolean closed;
+
+  public InventoryTenants() {
+    this(
+      InventoryService.MONGO_URI,
+      MAX_ACTIVE,
+      TimeUnit.MINUTES.toMillis(IDLE_MINUTES)
+    );
+  }
+
+  public InventoryTenants(String uri, int maxActive, long idleMillis) {
+    this(MongoClients.create(uri), maxActive, idleMillis);
+  }
+
+  private InventoryTenants(MongoClient client, int maxActive, long idleMillis) {
+    this(
+      client,
+      (database, scheduler) ->
+        new InventoryService(client, database, scheduler, EVENT_RING_CAPACITY),
+      maxActive,
+      idleMillis
+    );
+  }
+
+  // The client, if any, is closed along with the stores
+  InventoryTenants(
+    MongoClient client,
+    Loader loader,
+    int maxActive,
+    long idleMillis
+  ) {
+    this.client = client;
+    this.loader = loader;
+    this.maxActive = Math.max(1, maxActive);
+    this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.scheduler =
+      Executors.newScheduledThreadPool(
+        SCHEDULER_THREADS,
+        runnable -> {
+          Thread thread = new Thread(
+            runnable,
+            "inventory-tenants-" + threadCount.incrementAndGet()
+          );
+          thread.setDaemon(true);
+          return thread;
+        }
+      );
+    long check = Math.min(
+      EVICTION_CHECK_SECONDS,
+      Math.max(1, TimeUnit.MILLISECONDS.toSeconds(idleMillis))
+    );
+    scheduler.scheduleWithFixedDelay(
+      this::evictIdle,
+      check,
+      check,
+      TimeUnit.SECONDS
+    );
+  }
+
+  // The store, loading it if it is not active, pinned until the handle is
+  // closed. Loading one store does not hold up requests for the others.
+  // Store IDs are case-insensitive, like MongoDB database names.
+  public Handle acquire(String storeId) {
+    if (storeId == null || !STORE_ID.matcher(storeId).matches()) {
+      throw new IllegalArgumentException("Invalid store ID: " + storeId);
+    }
+    String key = key(storeId);
+    while (true) {
+      Tenant tenant;
+      List<Tenant> evicted;
+      synchronized (this) {
+        if (closed) {
+          throw new IllegalStateException("Inventory tenants are closed");
+        }
+        tenant =
+          tenants.computeIfAbsent(
+            key,
+            id -> new Tenant(InventoryService.DATABASE_NAME + "_" + id)
+          );
+        tenant.pins++;
+        tenant.lastUsed = System.nanoTime();
+        evicted = evictOverLimit();
+      }
+      closeAll(evicted);
+      InventoryService service;
+      try {
+        service = tenant.activate(loader, scheduler);
+      } catch (RuntimeException e) {
+        release(tenant);
+        throw e;
+      }
+      if (service != null) {
+        return new Handle(this, tenant, service);
+      }
+      release(tenant);
+    }
+  }
+
+  public synchronized Set<String> getActiveStores() {
+    return new TreeSet<>(tenants.keySet());
+  }
+
+  public synchronized int getActiveCount() {
+    return tenants.size();
+  }
+
+  // Closes a store, e.g. before its database is dropped: at once if no
+  // request is using it, otherwise when the last one finishes. Returns
+  // false if it was not active.
+  public boolean evict(String storeId) {
+    List<Tenant> closable = new ArrayList<>();
+    synchronized (this) {
+      Tenant tenant = storeId == null ? null : tenants.remove(key(storeId));
+      if (tenant == null) {
+        return false;
+      }
+      retire(tenant, closable);
+    }
+    closeAll(closable);
+    return true;
+  }
+
+  // Stores still in use are closed as their last request finishes
+  public void close() {
+    List<Tenant> closable = new ArrayList<>();
+    synchronized (this) {
+      closed = true;
+      for (Tenant tenant : tenants.values()) {
+        retire(tenant, closable);
+      }
+      tenants.clear();
+    }
+    closeAll(closable);
+    scheduler.shutdownNow();
+    if (client != null) {
+      client.close();
+    }
+  }
+
+  private void release(Tenant tenant) {
+    boolean close;
+    synchronized (this) {
+      tenant.pins--;
+      tenant.lastUsed = System.nanoTime();
+      close = tenant.retired && tenant.pins == 0;
+    }
+    if (close) {
+      closeAll(List.of(tenant));
+    }
+  }
+
+  // Caller holds the lock and has taken the tenant out of the map
+  private static void retire(Tenant tenant, List<Tenant> closable) {
+    tenant.retired = true;
+    if (tenant.pins == 0) {
+      closable.add(tenant);
+    }
+  }
+
+  void evictIdle() {
+    List<Tenant> idle = new ArrayList<>();
+    synchronized (this) {
+      long now = System.nanoTime();
+      tenants
+        .values()
+        .removeIf(tenant -> {
+          if (tenant.pins > 0 || now - tenant.lastUsed < idleNanos) {
+            return false;
+          }
+          idle.add(tenant);
+          return true;
+        });
+    }
+    closeAll(idle);
+  }
+
+  // Caller holds the lock. A few hundred stores at most, so a scan for the
+  // least recently used is cheaper than keeping them ordered on every get.
+  // Stores in use are skipped, so while every store is busy more than the
+  // limit stay loaded.
+  private List<Tenant> evictOverLimit() {
+    List<Tenant> evicted = new ArrayList<>();
+    while (tenants.size() > maxActive) {
+      Map.Entry<String, Tenant> oldest = null;
+      for (Map.Entry<String, Tenant> entry : tenants.entrySet()) {
+        if (
+          entry.getValue().pins == 0 &&
+          (
+            oldest == null ||
+            entry.getValue().lastUsed < oldest.getValue().lastUsed
+          )
+        ) {
+          oldest = entry;
+        }
+      }
+      if (oldest == null) {
+        break;
+      }
+      tenants.remove(oldest.getKey());
+      evicted.add(oldest.getValue());
+    }
+    return evicted;
+  }
+
+  // MongoDB refuses two databases whose names differ only in case, so
+  // "Store1" and "store1" are one store
+  private static String key(String storeId) {
+    return storeId.toLowerCase(Locale.ROOT);
+  }
+
+  // Closing saves a snapshot, so it happens outside the lock
+  private static void closeAll(List<Tenant> evicted) {
+    for (Tenant tenant : evicted) {
+      try {
+        tenant.close();
+      } catch (RuntimeException e) {
+        System.err.println("Failed to close store: " + e.getMessage());
+      }
+    }
+  }
+}
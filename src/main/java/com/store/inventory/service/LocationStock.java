@@ -0,0 +1,141 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+// Stock held per (SKU, location), one partition per location. A sale or a
+// receipt at one location only touches that location's map, so adding
+// locations does not slow it down; company-wide totals are rolled up across
+// partitions in parallel. Writers are serialized by InventoryService;
+// readers never lock.
+final class LocationStock {
+
+  static final class Totals {
+
+    final long quantity;
+    final double value;
+
+    Totals(long quantity, double value) {
+      this.quantity = quantity;
+      this.value = value;
+    }
+
+    Totals plus(Totals other) {
+      return new Totals(quantity + other.quantity, value + other.value);
+    }
+  }
+
+  private final String defaultLocation;
+  private final Map<String, Map<String, Integer>> partitions =
+    new ConcurrentHashMap<>();
+
+  LocationStock(String defaultLocation) {
+    this.defaultLocation = defaultLocation;
+    partition(defaultLocation);
+  }
+
+  String getDefaultLocation() {
+    return defaultLocation;
+  }
+
+  List<String> getLocations() {
+    List<String> locations = new ArrayList<>(partitions.keySet());
+    Collections.sort(locations);
+    return locations;
+  }
+
+  int get(String location, String sku) {
+    Map<String, Integer> partition = partitions.get(location);
+    return partition == null ? 0 : partition.getOrDefault(sku, 0);
+  }
+
+  void set(String location, String sku, int quantity) {
+    partition(location).put(sku, Math.max(0, quantity));
+  }
+
+  // Adds delta (which may be negative) without going below zero; returns
+  // the change actually applied
+  int add(String location, String sku, int delta) {
+    int current = get(location, sku);
+    int next = Math.max(0, current + delta);
+    partition(location).put(sku, next);
+    return next - current;
+  }
+
+  // Location -> quantity for one SKU, leaving out empty locations
+  Map<String, Integer> bySku(String sku) {
+    Map<String, Integer> result = new HashMap<>();
+    partitions.forEach((location, partition) -> {
+      Integer quantity = partition.get(sku);
+      if (quantity != null && quantity > 0) {
+        result.put(location, quantity);
+      }
+    });
+    return result;
+  }
+
+  // Sum held outside the default location
+  int elsewhere(String sku) {
+    int sum = 0;
+    for (Map.Entry<String, Map<String, Integer>> entry : partitions.entrySet()) {
+      if (!entry.getKey().equals(defaultLocation)) {
+        sum += entry.getValue().getOrDefault(sku, 0);
+      }
+    }
+    return sum;
+  }
+
+  // Makes the SKU's company-wide total equal to total by adjusting the
+  // default location, which holds whatever is not explicitly placed
+  // elsewhere. Returns the resulting total, which is larger than asked for
+  // if other locations already hold more.
+  int absorbTotal(String sku, int total) {
+    int elsewhere = elsewhere(sku);
+    int atDefault = Math.max(0, total - elsewhere);
+    partition(defaultLocation).put(sku, atDefault);
+    return elsewhere + atDefault;
+  }
+
+  void remove(String sku) {
+    for (Map<String, Integer> partition : partitions.values()) {
+      partition.remove(sku);
+    }
+  }
+
+  Totals rollUp(ToDoubleFunction<String> priceOf) {
+    return partitions
+      .values()
+      .parallelStream()
+      .map(partition -> {
+        long quantity = 0;
+        double value = 0;
+        for (Map.Entry<String, Integer> entry : partition.entrySet()) {
+          int held = entry.getValue();
+          quantity += held;
+          value += held * priceOf.applyAsDouble(entry.getKey());
+        }
+        return new Totals(quantity, value);
+      })
+      .reduce(new Totals(0, 0), Totals::plus);
+  }
+
+  // Location -> (SKU -> quantity) for every location except the default
+  Map<String, Map<String, Integer>> explicitPlacements() {
+    Map<String, Map<String, Integer>> result = new HashMap<>();
+    partitions.forEach((location, partition) -> {
+      if (!location.equals(defaultLocation)) {
+        result.put(location, new HashMap<>(partition));
+      }
+    });
+    return result;
+  }
+
+  private Map<String, Integer> partition(String location) {
+    return partitions.computeIfAbsent(location, l -> new ConcurrentHashMap<>());
+  }
+}
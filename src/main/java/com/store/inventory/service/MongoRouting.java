@@ -0,0 +1,108 @@
+package com.store.inventory.service;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.TagSet;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoCollection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Where reads go and how writes are acknowledged, by class of operation.
+// Stock mutations read and write the primary and wait for the configured
+// (by default majority) acknowledgement, and so does reconciliation, which
+// must not miss recent changes. Heavy reads such as reports may go to
+// secondaries, but never ones lagging more than the staleness bound. The
+// append-only movement ledger is an audit trail and only waits for the
+// primary.
+final class MongoRouting {
+
+  // primary, primaryPreferred, secondary, secondaryPreferred or nearest
+  private static final String REPORT_READ_MODE = System.getProperty(
+    "inventory.mongo.reportReads",
+    "secondaryPreferred"
+  );
+  // 90 seconds is the least the server accepts
+  private static final long MAX_STALENESS_SECONDS = Long.getLong(
+    "inventory.mongo.maxStalenessSeconds",
+    90
+  );
+  // "majority" or a number of members
+  private static final String STOCK_W = System.getProperty(
+    "inventory.mongo.stockWriteConcern",
+    "majority"
+  );
+  private static final String AUDIT_W = System.getProperty(
+    "inventory.mongo.auditWriteConcern",
+    "1"
+  );
+  // 0 waits for acknowledgement indefinitely
+  private static final long WRITE_TIMEOUT_MILLIS = Long.getLong(
+    "inventory.mongo.writeTimeoutMillis",
+    0
+  );
+
+  static final ReadPreference REPORT_READS = readPreference(
+    REPORT_READ_MODE,
+    MAX_STALENESS_SECONDS
+  );
+  static final WriteConcern STOCK_WRITES = writeConcern(
+    STOCK_W,
+    WRITE_TIMEOUT_MILLIS
+  );
+  static final WriteConcern AUDIT_WRITES = writeConcern(
+    AUDIT_W,
+    WRITE_TIMEOUT_MILLIS
+  );
+
+  private MongoRouting() {}
+
+  static <T> MongoCollection<T> forStock(MongoCollection<T> collection) {
+    return collection
+      .withReadPreference(ReadPreference.primary())
+      .withWriteConcern(STOCK_WRITES);
+  }
+
+  static <T> MongoCollection<T> forAudit(MongoCollection<T> collection) {
+    return collection.withWriteConcern(AUDIT_WRITES);
+  }
+
+  static <T> MongoCollection<T> forReports(MongoCollection<T> collection) {
+    return collection.withReadPreference(REPORT_READS);
+  }
+
+  // Unknown modes fall back to the primary, which is never stale
+  static ReadPreference readPreference(String mode, long maxStalenessSeconds) {
+    if (mode.equalsIgnoreCase("primary")) {
+      return ReadPreference.primary();
+    }
+    try {
+      return ReadPreference.valueOf(
+        mode,
+        List.<TagSet>of(),
+        maxStalenessSeconds,
+        TimeUnit.SECONDS
+      );
+    } catch (IllegalArgumentException e) {
+      System.err.println("Unknown read preference " + mode + "; using primary");
+      return ReadPreference.primary();
+    }
+  }
+
+  // Unparseable values fall back to majority, the safer of the two
+  static WriteConcern writeConcern(String w, long timeoutMillis) {
+    WriteConcern concern;
+    if (w.equalsIgnoreCase("majority")) {
+      concern = WriteConcern.MAJORITY;
+    } else {
+      try {
+        concern = new WriteConcern(Integer.parseInt(w.trim()));
+      } catch (IllegalArgumentException e) {
+        System.err.println("Unknown write concern " + w + "; using majority");
+        concern = WriteConcern.MAJORITY;
+      }
+    }
+    return timeoutMillis > 0
+      ? concern.withWTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+      : concern;
+  }
+}
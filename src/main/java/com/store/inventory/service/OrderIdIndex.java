@@ -0,0 +1,37 @@
+package com.store.inventory.service;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Every order ID seen so far, so retried submissions can be turned away in
+// memory before any I/O. A hash set answers both "seen" and "never seen"
+// exactly in O(1); nothing in front of it would save a lookup.
+public final class OrderIdIndex {
+
+  private final Set<String> ids;
+
+  public OrderIdIndex(int expectedIds) {
+    ids = new HashSet<>(Math.max(16, expectedIds * 4 / 3 + 1));
+  }
+
+  // Returns false, changing nothing, if the ID was already recorded
+  public synchronized boolean add(String id) {
+    if (id == null) {
+      throw new IllegalArgumentException("Order ID is required");
+    }
+    return ids.add(id);
+  }
+
+  // Forgets an ID, e.g. one recorded for an order that failed to save
+  public synchronized boolean remove(String id) {
+    return ids.remove(id);
+  }
+
+  public synchronized boolean contains(String id) {
+    return id != null && ids.contains(id);
+  }
+
+  public synchronized int size() {
+    return ids.size();
+  }
+}
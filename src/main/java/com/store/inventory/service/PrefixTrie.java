@@ -0,0 +1,206 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Radix tree of keys such as SKUs and supplier IDs, for completion as they
+// are typed. Edges carry whole runs of characters and every non-key node
+// branches, so the first N completions of a prefix, in key order, cost
+// O(prefix length + N) however many keys are stored. Later pages resume
+// after the last key seen, skipping whole subtrees on the way to it.
+public final class PrefixTrie {
+
+  private static final class Node {
+
+    String label;
+    boolean key;
+    // Keyed by the first character of the child's label
+    final TreeMap<Character, Node> children = new TreeMap<>();
+
+    Node(String label) {
+      this.label = label;
+    }
+  }
+
+  private final Node root = new Node("");
+  private int size;
+
+  // Returns false if the key was already present
+  public synchronized boolean add(String key) {
+    Node node = root;
+    int i = 0;
+    while (i < key.length()) {
+      Node child = node.children.get(key.charAt(i));
+      if (child == null) {
+        Node leaf = new Node(key.substring(i));
+        leaf.key = true;
+        node.children.put(key.charAt(i), leaf);
+        size++;
+        return true;
+      }
+      int common = commonLength(child.label, key, i);
+      if (common < child.label.length()) {
+        // The key leaves this edge part way along; split it there
+        Node split = new Node(child.label.substring(0, common));
+        child.label = child.label.substring(common);
+        split.children.put(child.label.charAt(0), child);
+        node.children.put(split.label.charAt(0), split);
+        child = split;
+      }
+      node = child;
+      i += common;
+    }
+    if (node.key) {
+      return false;
+    }
+    node.key = true;
+    size++;
+    return true;
+  }
+
+  // Returns false if the key was not present
+  public synchronized boolean remove(String key) {
+    Node parent = null;
+    Node node = root;
+    int i = 0;
+    while (i < key.length()) {
+      Node child = node.children.get(key.charAt(i));
+      if (child == null || !key.startsWith(child.label, i)) {
+        return false;
+      }
+      parent = node;
+      node = child;
+      i += child.label.length();
+    }
+    if (!node.key) {
+      return false;
+    }
+    node.key = false;
+    size--;
+    // Keep the tree compressed: no empty leaves, no single-child pass-throughs
+    if (node != root) {
+      if (node.children.isEmpty()) {
+        parent.children.remove(node.label.charAt(0));
+        if (parent != root && !parent.key && parent.children.size() == 1) {
+          absorbOnlyChild(parent);
+        }
+      } else if (node.children.size() == 1) {
+        absorbOnlyChild(node);
+      }
+    }
+    return true;
+  }
+
+  public synchronized boolean contains(String key) {
+    Node node = root;
+    int i = 0;
+    while (i < key.length()) {
+      Node child = node.children.get(key.charAt(i));
+      if (child == null || !key.startsWith(child.label, i)) {
+        return false;
+      }
+      node = child;
+      i += child.label.length();
+    }
+    return node.key;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  public synchronized void clear() {
+    root.children.clear();
+    root.key = false;
+    size = 0;
+  }
+
+  // Up to limit keys starting with prefix, in key order
+  public List<String> complete(String prefix, int limit) {
+    return complete(prefix, null, limit);
+  }
+
+  // The page of completions following the key after; null for the first
+  public synchronized List<String> complete(
+    String prefix,
+    String after,
+    int limit
+  ) {
+    List<String> completions = new ArrayList<>(Math.min(limit, 64));
+    if (limit <= 0) {
+      return completions;
+    }
+    Node node = root;
+    StringBuilder path = new StringBuilder(prefix.length() + 16);
+    int i = 0;
+    while (i < prefix.length()) {
+      Node child = node.children.get(prefix.charAt(i));
+      if (child == null) {
+        return completions;
+      }
+      int common = commonLength(child.label, prefix, i);
+      // A mismatch before either the edge or the prefix runs out
+      if (common < child.label.length() && i + common < prefix.length()) {
+        return completions;
+      }
+      path.append(child.label);
+      node = child;
+      i += common;
+    }
+    collect(node, path, after, limit, completions);
+    return completions;
+  }
+
+  // Keys under node in order. While after is set, the walk is still on the
+  // way to it: subtrees wholly before it are skipped, and once past it the
+  // bound is dropped.
+  private static void collect(
+    Node node,
+    StringBuilder path,
+    String after,
+    int limit,
+    List<String> out
+  ) {
+    if (node.key && (after == null || path.toString().compareTo(after) > 0)) {
+      out.add(path.toString());
+    }
+    for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+      if (out.size() == limit) {
+        return;
+      }
+      Node child = entry.getValue();
+      int length = path.length();
+      path.append(child.label);
+      if (after == null) {
+        collect(child, path, null, limit, out);
+      } else {
+        String subtree = path.toString();
+        if (after.startsWith(subtree)) {
+          collect(child, path, after, limit, out);
+        } else if (subtree.compareTo(after) > 0) {
+          collect(child, path, null, limit, out);
+        }
+      }
+      path.setLength(length);
+    }
+  }
+
+  private static void absorbOnlyChild(Node node) {
+    Node only = node.children.firstEntry().getValue();
+    node.label = node.label + only.label;
+    node.key = only.key;
+    node.children.clear();
+    node.children.putAll(only.children);
+  }
+
+  private static int commonLength(String label, String key, int from) {
+    int max = Math.min(label.length(), key.length() - from);
+    int n = 0;
+    while (n < max && label.charAt(n) == key.charAt(from + n)) {
+      n++;
+    }
+    return n;
+  }
+}
@@ -0,0 +1,47 @@
+package com.store.inventory.service;
+
+public class PriceChange {
+
+  private final String sku;
+  private final int quantity;
+  private final double oldPrice;
+  private final double newPrice;
+
+  public PriceChange(
+    String sku,
+    int quantity,
+    double oldPrice,
+    double newPrice
+  ) {
+    this.sku = sku;
+    this.quantity = quantity;
+    this.oldPrice = oldPrice;
+    this.newPrice = newPrice;
+  }
+
+  public String getSku() {
+    return sku;
+  }
+
+  public int getQuantity() {
+    return quantity;
+  }
+
+  public double getOldPrice() {
+    return oldPrice;
+  }
+
+  public double getNewPrice() {
+    return newPrice;
+  }
+
+  // Change in the value of the stock on hand
+  public double getValueDelta() {
+    return (newPrice - oldPrice) * quantity;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %.2f -> %.2f", sku, oldPrice, newPrice);
+  }
+}
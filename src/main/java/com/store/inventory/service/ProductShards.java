@@ -0,0 +1,230 @@
+package com.store.inventory.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import com.store.inventory.Product;
+import com.store.inventory.service.codec.InventoryCodecs;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// The product catalog split across shards by a hash of the SKU, so that
+// writes to different products spread over several collections, or several
+// mongod processes. A product lives on exactly one shard: point reads and
+// writes go to that shard alone, and whole-catalog reads ask every shard at
+// once and merge what comes back. With one shard this is the plain
+// "products" collection.
+final class ProductShards {
+
+  // Shards as products_0 .. products_N-1 in the store's database
+  static final int SHARD_COUNT = Integer.getInteger(
+    "inventory.products.shards",
+    1
+  );
+  // Or one shard per server: comma-separated MongoDB URIs. Each store keeps
+  // its products in its own database on every shard server, so a database
+  // named in a URI only serves as the default authentication database.
+  // Takes precedence.
+  static final String SHARD_URIS = System.getProperty(
+    "inventory.products.shardUris",
+    ""
+  );
+  // Moving to products_0 .. products_N-1 leaves the existing catalog in
+  // "products", where no shard looks. Startup refuses to run over it
+  // unless this is set, in which case every product is moved to its shard
+  // first. Run it once, with no other instance writing, then drop the flag.
+  private static final boolean MIGRATE = Boolean.getBoolean(
+    "inventory.products.migrate"
+  );
+
+  // Shared by all instances; a scatter holds one thread per shard only
+  // while that shard's query runs
+  private static ExecutorService scatterPool;
+  // One pooled client per shard server for the whole process, however many
+  // stores are hosted; opened on first use and kept until exit
+  private static final Map<String, MongoClient> shardClients =
+    new HashMap<>();
+
+  private final List<MongoCollection<Product>> shards;
+
+  private ProductShards(List<MongoCollection<Product>> shards) {
+    this.shards = shards;
+  }
+
+  static ProductShards open(MongoDatabase database) {
+    List<MongoCollection<Product>> shards = new ArrayList<>();
+    ProductShards opened = new ProductShards(shards);
+    if (!SHARD_URIS.isBlank()) {
+      for (String uri : SHARD_URIS.split(",")) {
+        shards.add(
+          shardClient(uri.trim())
+            .getDatabase(database.getName())
+            .withCodecRegistry(InventoryCodecs.registry())
+            .withReadPreference(database.getReadPreference())
+            .withWriteConcern(database.getWriteConcern())
+            .getCollection("products", Product.class)
+        );
+      }
+    } else if (SHARD_COUNT <= 1) {
+      shards.add(database.getCollection("products", Product.class));
+    } else {
+      for (int i = 0; i < SHARD_COUNT; i++) {
+        shards.add(database.getCollection("products_" + i, Product.class));
+      }
+      MongoCollection<Product> legacy = database.getCollection(
+        "products",
+        Product.class
+      );
+      if (legacy.estimatedDocumentCount() > 0) {
+        if (!MIGRATE) {
+          throw new IllegalStateException(legacyMessage(database.getName()));
+        }
+        opened.migrate(legacy);
+      }
+    }
+    return opened;
+  }
+
+  static String legacyMessage(String databaseName) {
+    return (
+      "Products are still in " +
+      databaseName +
+      ".products but " +
+      SHARD_COUNT +
+      " shards are configured; start once with " +
+      "-Dinventory.products.migrate=true to move them"
+    );
+  }
+
+  // Copies each product to its shard, replacing any copy already there so
+  // an interrupted run can simply be repeated, then empties the old
+  // collection
+  private void migrate(MongoCollection<Product> legacy) {
+    List<Product> products = legacy.find().into(new ArrayList<>());
+    bulkWrite(
+      products,
+      product ->
+        new ReplaceOneModel<>(
+          Filters.eq("sku", product.getSku()),
+          product,
+          new ReplaceOptions().upsert(true)
+        ),
+      new BulkWriteOptions().ordered(false)
+    );
+    legacy.deleteMany(Filters.empty());
+    System.err.println(
+      "Moved " + products.size() + " products to " + count() + " shards"
+    );
+  }
+
+  int count() {
+    return shards.size();
+  }
+
+  List<MongoCollection<Product>> all() {
+    return shards;
+  }
+
+  // String.hashCode is fixed by the language spec, so every process and
+  // every restart routes a SKU to the same shard
+  int indexOf(String sku) {
+    return indexOf(sku, shards.size());
+  }
+
+  // Shared with ReactiveInventoryService, which keeps its own shard list
+  static int indexOf(String sku, int shardCount) {
+    int h = sku.hashCode();
+    return Math.floorMod(h ^ (h >>> 16), shardCount);
+  }
+
+  MongoCollection<Product> forSku(String sku) {
+    return shards.get(indexOf(sku));
+  }
+
+  // Runs the query on every shard in parallel; results in shard order
+  <R> List<R> gather(Function<MongoCollection<Product>, R> query) {
+    return gatherByIndex(i -> query.apply(shards.get(i)));
+  }
+
+  private <R> List<R> gatherByIndex(IntFunction<R> query) {
+    if (shards.size() == 1) {
+      return Collections.singletonList(query.apply(0));
+    }
+    List<CompletableFuture<R>> pending = new ArrayList<>(shards.size());
+    for (int i = 0; i < shards.size(); i++) {
+      int shard = i;
+      pending.add(
+        CompletableFuture.supplyAsync(() -> query.apply(shard), scatterPool())
+      );
+    }
+    List<R> results = new ArrayList<>(shards.size());
+    try {
+      for (CompletableFuture<R> future : pending) {
+        results.add(future.join());
+      }
+    } catch (CompletionException e) {
+      // Surface the shard's own exception, as a single collection would
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+    return results;
+  }
+
+  // One write per product, split by the product's shard and sent as one
+  // bulk write per shard, all shards at once
+  void bulkWrite(
+    List<Product> products,
+    Function<Product, ? extends WriteModel<Product>> write,
+    BulkWriteOptions options
+  ) {
+    List<List<WriteModel<Product>>> byShard = new ArrayList<>(shards.size());
+    for (int i = 0; i < shards.size(); i++) {
+      byShard.add(new ArrayList<>());
+    }
+    for (Product product : products) {
+      byShard.get(indexOf(product.getSku())).add(write.apply(product));
+    }
+    gatherByIndex(i -> {
+      List<WriteModel<Product>> mine = byShard.get(i);
+      return mine.isEmpty() ? null : shards.get(i).bulkWrite(mine, options);
+    });
+  }
+
+  private static synchronized MongoClient shardClient(String uri) {
+    return shardClients.computeIfAbsent(uri, MongoClients::create);
+  }
+
+  private static synchronized ExecutorService scatterPool() {
+    if (scatterPool == null) {
+      AtomicInteger threadCount = new AtomicInteger();
+      scatterPool =
+        Executors.newCachedThreadPool(runnable -> {
+          Thread thread = new Thread(
+            runnable,
+            "inventory-shards-" + threadCount.incrementAndGet()
+          );
+          thread.setDaemon(true);
+          return thread;
+        });
+    }
+    return scatterPool;
+  }
+}
@@ -0,0 +1,56 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+// Bridges reactive-streams publishers from the Mongo driver to futures
+final class Publishers {
+
+  private Publishers() {}
+
+  // Completes with the first element, or null if the publisher is empty
+  static <T> CompletableFuture<T> first(Publisher<T> publisher) {
+    return toList(publisher).thenApply(list -> list.isEmpty() ? null : list.get(0));
+  }
+
+  static <T> CompletableFuture<List<T>> toList(Publisher<T> publisher) {
+    CompletableFuture<List<T>> result = new CompletableFuture<>();
+    publisher.subscribe(
+      new Subscriber<T>() {
+        private final List<T> items = new ArrayList<>();
+        private Subscription subscription;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+          subscription = s;
+          result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+              subscription.cancel();
+            }
+          });
+          s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(T item) {
+          items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+          result.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+          result.complete(items);
+        }
+      }
+    );
+    return result;
+  }
+}
@@ -0,0 +1,30 @@
+package com.store.inventory.service;
+
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+
+// Reads single fields out of a RawBsonDocument. Only the requested value is
+// decoded from the underlying bytes; the rest of the document stays encoded.
+final class RawFields {
+
+  private RawFields() {}
+
+  static String getString(RawBsonDocument doc, String field) {
+    BsonValue value = doc.get(field);
+    return value != null && value.isString()
+      ? value.asString().getValue()
+      : null;
+  }
+
+  static int getInt(RawBsonDocument doc, String field) {
+    BsonValue value = doc.get(field);
+    return value != null && value.isNumber() ? value.asNumber().intValue() : 0;
+  }
+
+  static double getDouble(RawBsonDocument doc, String field) {
+    BsonValue value = doc.get(field);
+    return value != null && value.isNumber()
+      ? value.asNumber().doubleValue()
+      : 0;
+  }
+}
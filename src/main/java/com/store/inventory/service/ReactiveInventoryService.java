@@ -0,0 +1,584 @@
+package com.store.inventory.service;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import com.store.inventory.Order;
+import com.store.inventory.OrderItem;
+import com.store.inventory.Product;
+import com.store.inventory.SellOrder;
+import com.store.inventory.Supplier;
+import com.store.inventory.service.codec.InventoryCodecs;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import org.bson.Document;
+
+// Non-blocking counterpart of InventoryService on the reactive-streams driver.
+// It keeps no in-memory copy: every call goes to MongoDB and returns at once,
+// so many requests can be in flight on a handful of driver threads. It
+// writes the same documents InventoryService does (products, per-location
+// stock and the movement ledger), so either can serve the same store;
+// suppliers and orders are only added and listed here.
+// Products are split across the same shards, by the same SKU hash, as
+// ProductShards.
+public class ReactiveInventoryService {
+
+  private static final FindOneAndUpdateOptions BEFORE_UPDATE =
+    new FindOneAndUpdateOptions().returnDocument(ReturnDocument.BEFORE);
+
+  private final MongoClient mongoClient;
+  // Clients opened for shards on other servers
+  private final List<MongoClient> shardClients = new ArrayList<>();
+  private final List<MongoCollection<Product>> productShards =
+    new ArrayList<>();
+  private final MongoCollection<Supplier> supplierCollection;
+  private final MongoCollection<Order> orderCollection;
+  private final MongoCollection<SellOrder> sellOrderCollection;
+  private final MongoCollection<Document> stockCollection;
+  private final MongoCollection<Document> movementCollection;
+  // Completes once the unique indexes sell orders rely on exist, or
+  // fails if products were left behind by a change in shard layout
+  private final CompletableFuture<Void> ready;
+
+  public ReactiveInventoryService() {
+    this(InventoryService.MONGO_URI, InventoryService.DATABASE_NAME);
+  }
+
+  public ReactiveInventoryService(String uri, String databaseName) {
+    mongoClient = MongoClients.create(uri);
+    MongoDatabase database = mongoClient
+      .getDatabase(databaseName)
+      .withCodecRegistry(InventoryCodecs.registry())
+      .withReadPreference(ReadPreference.primary())
+      .withWriteConcern(MongoRouting.STOCK_WRITES);
+    openProductShards(database);
+    supplierCollection = database.getCollection("suppliers", Supplier.class);
+    orderCollection = database.getCollection("orders", Order.class);
+    sellOrderCollection = database.getCollection("sell_orders", SellOrder.class);
+    stockCollection = database.getCollection("stock");
+    movementCollection =
+      database
+        .getCollection("stock_movements")
+        .withWriteConcern(MongoRouting.AUDIT_WRITES);
+    CompletableFuture<Void> indexes = CompletableFuture
+      .allOf(
+        Publishers.first(
+          sellOrderCollection.createIndex(
+            Indexes.ascending("sellOrderId"),
+            new IndexOptions().unique(true).sparse(true)
+          )
+        ),
+        Publishers.first(
+          stockCollection.createIndex(
+            Indexes.ascending("sku", "location"),
+            new IndexOptions().unique(true)
+          )
+        )
+      )
+      .exceptionally(error -> {
+        System.err.println("Failed to create indexes: " + error.getMessage());
+        return null;
+      });
+    ready = checkShardLayout(database).thenCompose(v -> indexes);
+  }
+
+  // Product operations
+  public CompletableFuture<Void> addProduct(Product product) {
+    return ready.thenCompose(v ->
+      Publishers
+        .first(products(product.getSku()).insertOne(product))
+        .thenCompose(result ->
+          record(
+            movement(
+              product.getSku(),
+              InventoryService.DEFAULT_LOCATION,
+              product.getQuantity(),
+              StockMovement.Reason.ADJUSTMENT
+            )
+          )
+        )
+    );
+  }
+
+  public CompletableFuture<List<Product>> getAllProducts() {
+    return ready.thenCompose(v ->
+      gather(shard -> Publishers.toList(shard.find()))
+        .thenApply(ReactiveInventoryService::merge)
+    );
+  }
+
+  public CompletableFuture<Optional<Product>> findProductBySku(String sku) {
+    return ready.thenCompose(v ->
+      Publishers
+        .first(products(sku).find(Filters.eq("sku", sku)).first())
+        .thenApply(Optional::ofNullable)
+    );
+  }
+
+  // Resolves to false if no product has the given SKU. As in
+  // InventoryService, the new total is reached by adjusting the default
+  // location, so it never drops below what other locations hold.
+  public CompletableFuture<Boolean> updateProduct(
+    String sku,
+    int newQuantity,
+    double newPrice
+  ) {
+    return ready
+      .thenCompose(v -> placedElsewhere(sku))
+      .thenCompose(elsewhere -> {
+        int total = Math.max(newQuantity, elsewhere);
+        Document update = new Document(
+          "$set",
+          new Document("quantity", total)
+            .append("price", newPrice)
+            .append("updatedAt", "$$NOW")
+        );
+        return Publishers
+          .first(
+            products(sku).findOneAndUpdate(
+              Filters.eq("sku", sku),
+              List.of(update),
+              BEFORE_UPDATE
+            )
+          )
+          .thenCompose(before ->
+            before == null
+              ? CompletableFuture.completedFuture(false)
+              : record(
+                movement(
+                  sku,
+                  InventoryService.DEFAULT_LOCATION,
+                  total - before.getQuantity(),
+                  StockMovement.Reason.ADJUSTMENT
+                )
+              )
+                .thenApply(recorded -> true)
+          );
+      });
+  }
+
+  // The product's stock at every location goes with it
+  public CompletableFuture<Boolean> removeProduct(String sku) {
+    return ready.thenCompose(v ->
+      Publishers
+        .first(products(sku).findOneAndDelete(Filters.eq("sku", sku)))
+        .thenCompose(removed -> {
+          if (removed == null) {
+            return CompletableFuture.completedFuture(false);
+          }
+          return Publishers
+            .first(stockCollection.deleteMany(Filters.eq("sku", sku)))
+            .thenCompose(result ->
+              record(
+                movement(
+                  sku,
+                  null,
+                  -removed.getQuantity(),
+                  StockMovement.Reason.ADJUSTMENT
+                )
+              )
+            )
+            .thenApply(recorded -> true);
+        })
+    );
+  }
+
+  // Same case-insensitive substring match as InventoryService, run server-side
+  public CompletableFuture<List<Product>> searchProducts(String searchTerm) {
+    String pattern = Pattern.quote(searchTerm);
+    return ready.thenCompose(v ->
+      gather(shard ->
+        Publishers.toList(
+          shard.find(
+            Filters.or(
+              Filters.regex("name", pattern, "i"),
+              Filters.regex("sku", pattern, "i"),
+              Filters.regex("description", pattern, "i")
+            )
+          )
+        )
+      )
+        .thenApply(ReactiveInventoryService::merge)
+    );
+  }
+
+  // Supplier operations
+  public CompletableFuture<Void> addSupplier(Supplier supplier) {
+    return ready.thenCompose(v ->
+      Publishers
+        .first(supplierCollection.insertOne(supplier))
+        .thenApply(result -> null)
+    );
+  }
+
+  public CompletableFuture<List<Supplier>> getAllSuppliers() {
+    return ready.thenCompose(v ->
+      Publishers.toList(supplierCollection.find())
+    );
+  }
+
+  // Order operations
+  public CompletableFuture<Void> addOrder(Order order) {
+    return ready.thenCompose(v ->
+      Publishers
+        .first(orderCollection.insertOne(order))
+        .thenApply(result -> null)
+    );
+  }
+
+  // Sell Order operations
+
+  // Resolves to false, leaving stock untouched, if a sell order with this
+  // ID was already saved, by this service or any InventoryService. Stock
+  // is only taken once the order is saved, so a retry after a failed save
+  // is never applied twice.
+  public CompletableFuture<Boolean> addSellOrder(SellOrder sellOrder) {
+    if (sellOrder.getOrderId() == null || sellOrder.getOrderId().isBlank()) {
+      return CompletableFuture.failedFuture(
+        new IllegalArgumentException("Sell order ID is required")
+      );
+    }
+    return ready
+      .thenCompose(v ->
+        Publishers.first(sellOrderCollection.insertOne(sellOrder))
+      )
+      .handle((result, error) -> {
+        if (error == null) {
+          return true;
+        }
+        if (InventoryService.isDuplicateKey(error)) {
+          return false;
+        }
+        throw error instanceof CompletionException
+          ? (CompletionException) error
+          : new CompletionException(error);
+      })
+      .thenCompose(saved ->
+        saved
+          ? takeStock(sellOrder).thenApply(v -> true)
+          : CompletableFuture.completedFuture(false)
+      );
+  }
+
+  // Items are taken one after another, so an order naming a SKU twice
+  // sees its own first decrement; then the movements go in one insert
+  private CompletableFuture<Void> takeStock(SellOrder sellOrder) {
+    String location = location(sellOrder.getLocation());
+    List<Document> movements = new ArrayList<>();
+    CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+    for (OrderItem item : sellOrder.getItems()) {
+      chain =
+        chain
+          .thenCompose(v -> take(item.getSku(), location, item.getQuantity()))
+          .thenAccept(taken -> {
+            if (taken > 0) {
+              movements.add(
+                movement(
+                  item.getSku(),
+                  location,
+                  -taken,
+                  StockMovement.Reason.SALE
+                )
+              );
+            }
+          });
+    }
+    return chain.thenCompose(v ->
+      movements.isEmpty()
+        ? CompletableFuture.completedFuture(null)
+        : Publishers
+          .first(movementCollection.insertMany(movements))
+          .thenApply(result -> null)
+    );
+  }
+
+  // Resolves to the units actually taken, which is never more than the
+  // location holds. The product's quantity is the company-wide total.
+  private CompletableFuture<Integer> take(
+    String sku,
+    String location,
+    int quantity
+  ) {
+    if (location.equals(InventoryService.DEFAULT_LOCATION)) {
+      // The default location holds whatever is not placed elsewhere, so
+      // the total may not drop below what the other locations hold
+      return placedElsewhere(sku)
+        .thenCompose(elsewhere ->
+          Publishers
+            .first(
+              products(sku).findOneAndUpdate(
+                Filters.eq("sku", sku),
+                List.of(
+                  decrement(
+                    quantity,
+                    new Document("$min", List.of("$quantity", elsewhere))
+                  )
+                ),
+                BEFORE_UPDATE
+              )
+            )
+            .thenApply(before ->
+              before == null
+                ? 0
+                : Math.min(
+                  quantity,
+                  Math.max(0, before.getQuantity() - elsewhere)
+                )
+            )
+        );
+    }
+    return Publishers
+      .first(
+        stockCollection.findOneAndUpdate(
+          Filters.and(Filters.eq("sku", sku), Filters.eq("location", location)),
+          List.of(decrement(quantity, 0)),
+          BEFORE_UPDATE
+        )
+      )
+      .thenCompose(before -> {
+        int held = before == null ? 0 : number(before, "quantity").intValue();
+        int taken = Math.min(quantity, Math.max(0, held));
+        if (taken == 0) {
+          return CompletableFuture.completedFuture(0);
+        }
+        return Publishers
+          .first(
+            products(sku).updateOne(
+              Filters.eq("sku", sku),
+              List.of(decrement(taken, 0))
+            )
+          )
+          .thenApply(result -> taken);
+      });
+  }
+
+  // Same ledger entry InventoryService records; null location means the
+  // change covers every location
+  private static Document movement(
+    String sku,
+    String location,
+    int delta,
+    StockMovement.Reason reason
+  ) {
+    return new Document("sku", sku)
+      .append("location", location)
+      .append("delta", delta)
+      .append("reason", reason.name())
+      .append("at", new Date());
+  }
+
+  // Unchanged stock leaves no entry, as in InventoryService
+  private CompletableFuture<Void> record(Document movement) {
+    if (number(movement, "delta").intValue() == 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return Publishers
+      .first(movementCollection.insertOne(movement))
+      .thenApply(result -> null);
+  }
+
+  private CompletableFuture<Integer> placedElsewhere(String sku) {
+    return Publishers
+      .first(
+        stockCollection.aggregate(
+          List.of(
+            new Document(
+              "$match",
+              new Document("sku", sku)
+                .append(
+                  "location",
+                  new Document("$ne", InventoryService.DEFAULT_LOCATION)
+                )
+            ),
+            new Document(
+              "$group",
+              new Document("_id", null)
+                .append("quantity", new Document("$sum", "$quantity"))
+            )
+          )
+        )
+      )
+      .thenApply(doc -> doc == null ? 0 : number(doc, "quantity").intValue());
+  }
+
+  // Pipeline stage lowering quantity by units, but never below floor (a
+  // number or an expression); both sides are evaluated server-side, so
+  // concurrent sales cannot overdraw
+  private static Document decrement(int units, Object floor) {
+    Document clamped = new Document(
+      "$max",
+      List.of(floor, new Document("$subtract", List.of("$quantity", units)))
+    );
+    return new Document(
+      "$set",
+      new Document("quantity", clamped).append("updatedAt", "$$NOW")
+    );
+  }
+
+  public CompletableFuture<InventoryStats> getStats(int lowStockThreshold) {
+    Document group = new Document("_id", null)
+      .append("totalProducts", new Document("$sum", 1))
+      .append("totalQuantity", new Document("$sum", "$quantity"))
+      .append(
+        "totalValue",
+        new Document(
+          "$sum",
+          new Document("$multiply", List.of("$price", "$quantity"))
+        )
+      )
+      .append(
+        "lowStockCount",
+        new Document(
+          "$sum",
+          new Document(
+            "$cond",
+            List.of(
+              new Document("$lt", List.of("$quantity", lowStockThreshold)),
+              1,
+              0
+            )
+          )
+        )
+      );
+    // Each shard totals its own products; the totals are then summed
+    return ready.thenCompose(v ->
+      gather(shard ->
+        Publishers.first(
+          shard
+            .withReadPreference(MongoRouting.REPORT_READS)
+            .aggregate(List.of(new Document("$group", group)), Document.class)
+        )
+      )
+        .thenApply(docs -> {
+          int products = 0;
+          int quantity = 0;
+          double value = 0;
+          int lowStock = 0;
+          for (Document doc : docs) {
+            if (doc != null) {
+              products += number(doc, "totalProducts").intValue();
+              quantity += number(doc, "totalQuantity").intValue();
+              value += number(doc, "totalValue").doubleValue();
+              lowStock += number(doc, "lowStockCount").intValue();
+            }
+          }
+          return new InventoryStats(products, quantity, value, lowStock);
+        })
+    );
+  }
+
+  public void close() {
+    for (MongoClient client : shardClients) {
+      client.close();
+    }
+    mongoClient.close();
+  }
+
+  // Same layout as ProductShards.open: one "products" collection per shard
+  // server, products_0 .. products_N-1 in the store's database, or just
+  // "products"
+  private void openProductShards(MongoDatabase database) {
+    if (!ProductShards.SHARD_URIS.isBlank()) {
+      for (String uri : ProductShards.SHARD_URIS.split(",")) {
+        MongoClient client = MongoClients.create(uri.trim());
+        shardClients.add(client);
+        productShards.add(
+          client
+            .getDatabase(database.getName())
+            .withCodecRegistry(InventoryCodecs.registry())
+            .withReadPreference(database.getReadPreference())
+            .withWriteConcern(database.getWriteConcern())
+            .getCollection("products", Product.class)
+        );
+      }
+    } else if (ProductShards.SHARD_COUNT <= 1) {
+      productShards.add(database.getCollection("products", Product.class));
+    } else {
+      for (int i = 0; i < ProductShards.SHARD_COUNT; i++) {
+        productShards.add(
+          database.getCollection("products_" + i, Product.class)
+        );
+      }
+    }
+  }
+
+  // Fails if products are still in "products" while products_0 ..
+  // products_N-1 are in use; InventoryService moves them on request
+  private CompletableFuture<Void> checkShardLayout(MongoDatabase database) {
+    if (!ProductShards.SHARD_URIS.isBlank() || ProductShards.SHARD_COUNT <= 1) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return Publishers
+      .first(database.getCollection("products").estimatedDocumentCount())
+      .thenAccept(count -> {
+        if (count != null && count > 0) {
+          throw new IllegalStateException(
+            ProductShards.legacyMessage(database.getName())
+          );
+        }
+      });
+  }
+
+  private MongoCollection<Product> products(String sku) {
+    return productShards.get(
+      ProductShards.indexOf(sku, productShards.size())
+    );
+  }
+
+  // Runs the query on every shard at once; results in shard order
+  private <R> CompletableFuture<List<R>> gather(
+    Function<MongoCollection<Product>, CompletableFuture<R>> query
+  ) {
+    List<CompletableFuture<R>> pending = new ArrayList<>();
+    for (MongoCollection<Product> shard : productShards) {
+      pending.add(query.apply(shard));
+    }
+    CompletableFuture<List<R>> results = CompletableFuture.completedFuture(
+      new ArrayList<>()
+    );
+    for (CompletableFuture<R> shard : pending) {
+      results =
+        results.thenCombine(
+          shard,
+          (list, result) -> {
+            list.add(result);
+            return list;
+          }
+        );
+    }
+    return results;
+  }
+
+  private static List<Product> merge(List<List<Product>> shards) {
+    List<Product> merged = new ArrayList<>();
+    for (List<Product> shard : shards) {
+      merged.addAll(shard);
+    }
+    return merged;
+  }
+
+  private static String location(String name) {
+    return name == null || name.isBlank()
+      ? InventoryService.DEFAULT_LOCATION
+      : name.trim();
+  }
+
+  // $sum widens to long or double depending on the inputs
+  private static Number number(Document doc, String field) {
+    Object value = doc.get(field);
+    return value instanceof Number ? (Number) value : 0;
+  }
+}
@@ -0,0 +1,65 @@
+package com.store.inventory.service;
+
+import java.util.List;
+
+// What a repricing rule changed, or for a preview would change. Products
+// the rule matches but leaves at the same price are not counted.
+public class RepricingResult {
+
+  private final boolean applied;
+  private final List<PriceChange> changes;
+  private final double valueBefore;
+  private final double valueAfter;
+
+  public RepricingResult(boolean applied, List<PriceChange> changes) {
+    this.applied = applied;
+    this.changes = List.copyOf(changes);
+    double before = 0;
+    double after = 0;
+    for (PriceChange change : changes) {
+      before += change.getOldPrice() * change.getQuantity();
+      after += change.getNewPrice() * change.getQuantity();
+    }
+    this.valueBefore = before;
+    this.valueAfter = after;
+  }
+
+  // False for a dry run, and for a repricing that could not be saved and
+  // so changed nothing
+  public boolean isApplied() {
+    return applied;
+  }
+
+  public List<PriceChange> getChanges() {
+    return changes;
+  }
+
+  public int getAffectedCount() {
+    return changes.size();
+  }
+
+  // Stock value of the affected products at their old and new prices
+  public double getValueBefore() {
+    return valueBefore;
+  }
+
+  public double getValueAfter() {
+    return valueAfter;
+  }
+
+  public double getValueDelta() {
+    return valueAfter - valueBefore;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "%s%d products, stock value %.2f -> %.2f (%+.2f)",
+      applied ? "" : "Preview: ",
+      changes.size(),
+      valueBefore,
+      valueAfter,
+      getValueDelta()
+    );
+  }
+}
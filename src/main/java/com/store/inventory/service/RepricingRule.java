@@ -0,0 +1,212 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Product;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+// A price change and the products it applies to, e.g. 20% off everything
+// from one supplier received before March:
+//
+//   RepricingRule.percent(-20)
+//     .forSupplier("S1")
+//     .receivedBetween(null, LocalDate.of(2024, 3, 1))
+//
+// Each filter narrows the rule; a rule without filters covers every
+// product. Rules are immutable, so one can be previewed and then applied
+// unchanged.
+public final class RepricingRule {
+
+  private final boolean percent;
+  private final double amount;
+  private final String supplierId;
+  private final LocalDate receivedFrom;
+  private final LocalDate receivedTo;
+  private final Integer minStock;
+  private final Integer maxStock;
+  private final String skuPattern;
+  private final Pattern skuRegex;
+
+  private RepricingRule(
+    boolean percent,
+    double amount,
+    String supplierId,
+    LocalDate receivedFrom,
+    LocalDate receivedTo,
+    Integer minStock,
+    Integer maxStock,
+    String skuPattern
+  ) {
+    this.percent = percent;
+    this.amount = amount;
+    this.supplierId = supplierId;
+    this.receivedFrom = receivedFrom;
+    this.receivedTo = receivedTo;
+    this.minStock = minStock;
+    this.maxStock = maxStock;
+    this.skuPattern = skuPattern;
+    this.skuRegex = skuPattern == null ? null : glob(skuPattern);
+  }
+
+  // Changes prices by the given percentage; negative for a markdown
+  public static RepricingRule percent(double percent) {
+    if (percent <= -100) {
+      throw new IllegalArgumentException("Percentage must be above -100");
+    }
+    return new RepricingRule(true, percent, null, null, null, null, null, null);
+  }
+
+  // Adds the amount to prices; negative for a markdown
+  public static RepricingRule absolute(double amount) {
+    return new RepricingRule(false, amount, null, null, null, null, null, null);
+  }
+
+  public RepricingRule forSupplier(String supplierId) {
+    return new RepricingRule(
+      percent,
+      amount,
+      supplierId,
+      receivedFrom,
+      receivedTo,
+      minStock,
+      maxStock,
+      skuPattern
+    );
+  }
+
+  // Inclusive; null leaves that end open. Products whose received date is
+  // missing or unreadable never match a date filter.
+  public RepricingRule receivedBetween(LocalDate from, LocalDate to) {
+    return new RepricingRule(
+      percent,
+      amount,
+      supplierId,
+      from,
+      to,
+      minStock,
+      maxStock,
+      skuPattern
+    );
+  }
+
+  // Company-wide quantity, inclusive; null leaves that end open
+  public RepricingRule stockBetween(Integer min, Integer max) {
+    return new RepricingRule(
+      percent,
+      amount,
+      supplierId,
+      receivedFrom,
+      receivedTo,
+      min,
+      max,
+      skuPattern
+    );
+  }
+
+  // Whole-SKU match, * for any run of characters and ? for one: "ELEC-*"
+  public RepricingRule skuMatching(String pattern) {
+    return new RepricingRule(
+      percent,
+      amount,
+      supplierId,
+      receivedFrom,
+      receivedTo,
+      minStock,
+      maxStock,
+      pattern
+    );
+  }
+
+  public boolean matches(Product product) {
+    if (supplierId != null && !supplierId.equals(product.getSupplierId())) {
+      return false;
+    }
+    if (minStock != null && product.getQuantity() < minStock) {
+      return false;
+    }
+    if (maxStock != null && product.getQuantity() > maxStock) {
+      return false;
+    }
+    if (skuRegex != null && !skuRegex.matcher(product.getSku()).matches()) {
+      return false;
+    }
+    if (receivedFrom != null || receivedTo != null) {
+      LocalDate received = parseDate(product.getDateReceived());
+      if (
+        received == null ||
+        (receivedFrom != null && received.isBefore(receivedFrom)) ||
+        (receivedTo != null && received.isAfter(receivedTo))
+      ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Rounded to the cent, and never below zero
+  public double reprice(double price) {
+    double repriced = percent ? price * (1 + amount / 100) : price + amount;
+    return Math.max(0, Math.round(repriced * 100) / 100.0);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder(
+      percent
+        ? String.format("%+.2f%%", amount)
+        : String.format("%+.2f", amount)
+    );
+    if (supplierId != null) {
+      text.append(", supplier ").append(supplierId);
+    }
+    if (receivedFrom != null || receivedTo != null) {
+      text
+        .append(", received ")
+        .append(receivedFrom == null ? "..." : receivedFrom)
+        .append(" to ")
+        .append(receivedTo == null ? "..." : receivedTo);
+    }
+    if (minStock != null || maxStock != null) {
+      text
+        .append(", stock ")
+        .append(minStock == null ? "..." : minStock)
+        .append(" to ")
+        .append(maxStock == null ? "..." : maxStock);
+    }
+    if (skuPattern != null) {
+      text.append(", SKU ").append(skuPattern);
+    }
+    return text.toString();
+  }
+
+  private static LocalDate parseDate(String text) {
+    if (text == null) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(text.trim());
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private static Pattern glob(String pattern) {
+    StringBuilder regex = new StringBuilder();
+    StringBuilder literal = new StringBuilder();
+    for (char c : pattern.toCharArray()) {
+      if (c == '*' || c == '?') {
+        if (literal.length() > 0) {
+          regex.append(Pattern.quote(literal.toString()));
+          literal.setLength(0);
+        }
+        regex.append(c == '*' ? ".*" : ".");
+      } else {
+        literal.append(c);
+      }
+    }
+    if (literal.length() > 0) {
+      regex.append(Pattern.quote(literal.toString()));
+    }
+    return Pattern.compile(regex.toString());
+  }
+}
@@ -0,0 +1,93 @@
+package com.store.inventory.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Time-limited holds on stock at a location. A hold lasts until it is
+// confirmed, released or its TTL runs out; expiry goes through a timing
+// wheel so no pass over the holds is ever needed.
+final class ReservationBook {
+
+  static final class Hold {
+
+    final String id;
+    final String sku;
+    final String location;
+    final int quantity;
+    private TimingWheel.Timeout<Hold> timeout;
+
+    private Hold(String id, String sku, String location, int quantity) {
+      this.id = id;
+      this.sku = sku;
+      this.location = location;
+      this.quantity = quantity;
+    }
+  }
+
+  private final TimingWheel<Hold> wheel;
+  private final Map<String, Hold> holds = new HashMap<>();
+  // "sku@location" -> units held
+  private final Map<String, Integer> held = new HashMap<>();
+  private long nextId;
+
+  ReservationBook(long tickMillis, int slotCount) {
+    this(tickMillis, slotCount, System::nanoTime);
+  }
+
+  ReservationBook(long tickMillis, int slotCount, LongSupplier nanoClock) {
+    this.wheel = new TimingWheel<>(tickMillis, slotCount, nanoClock);
+  }
+
+  synchronized Hold reserve(
+    String sku,
+    String location,
+    int quantity,
+    long ttlMillis
+  ) {
+    Hold hold = new Hold("R" + ++nextId, sku, location, quantity);
+    hold.timeout = wheel.schedule(hold, ttlMillis);
+    holds.put(hold.id, hold);
+    held.merge(key(sku, location), quantity, Integer::sum);
+    return hold;
+  }
+
+  // Null if unknown or already expired
+  synchronized Hold get(String id) {
+    return holds.get(id);
+  }
+
+  // Removes a live hold and returns it; null if unknown or already expired
+  synchronized Hold remove(String id) {
+    Hold hold = holds.remove(id);
+    if (hold != null) {
+      wheel.cancel(hold.timeout);
+      unhold(hold);
+    }
+    return hold;
+  }
+
+  synchronized int held(String sku, String location) {
+    return held.getOrDefault(key(sku, location), 0);
+  }
+
+  synchronized void expire() {
+    wheel.advance(
+      hold -> {
+        holds.remove(hold.id);
+        unhold(hold);
+      }
+    );
+  }
+
+  private void unhold(Hold hold) {
+    held.computeIfPresent(
+      key(hold.sku, hold.location),
+      (key, units) -> units == hold.quantity ? null : units - hold.quantity
+    );
+  }
+
+  private static String key(String sku, String location) {
+    return sku + '@' + location;
+  }
+}
@@ -0,0 +1,50 @@
+package com.store.inventory.service;
+
+// Outcome of one sell order in an addSellOrders batch
+public class SellOrderResult {
+
+  public enum Status {
+    ACCEPTED,
+    DUPLICATE,
+    UNKNOWN_PRODUCT,
+    INSUFFICIENT_STOCK,
+    FAILED,
+  }
+
+  private final String orderId;
+  private final Status status;
+  private final String message;
+
+  SellOrderResult(String orderId, Status status, String message) {
+    this.orderId = orderId;
+    this.status = status;
+    this.message = message;
+  }
+
+  public String getOrderId() {
+    return orderId;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public boolean isAccepted() {
+    return status == Status.ACCEPTED;
+  }
+
+  // Why the order was not accepted; null if it was
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "SellOrderResult{orderId='%s', status=%s, message=%s}",
+      orderId,
+      status,
+      message
+    );
+  }
+}
@@ -0,0 +1,277 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Order;
+import com.store.inventory.OrderItem;
+import com.store.inventory.Product;
+import com.store.inventory.SellOrder;
+import com.store.inventory.Supplier;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact binary image of the service's in-memory state. Written to a temp
+// file and moved into place so a crash never leaves a torn snapshot; read
+// back in one pass into a single buffer.
+final class SnapshotStore {
+
+  private static final int MAGIC = 0x494e5653; // "INVS"
+  private static final int FORMAT_VERSION = 2;
+
+  static final class Contents {
+
+    final long savedAt;
+    final List<Product> products;
+    final List<Supplier> suppliers;
+    final List<Order> orders;
+    final List<SellOrder> sellOrders;
+    // Stock outside the default location: location -> (SKU -> quantity)
+    final Map<String, Map<String, Integer>> placements;
+
+    Contents(
+      long savedAt,
+      List<Product> products,
+      List<Supplier> suppliers,
+      List<Order> orders,
+      List<SellOrder> sellOrders,
+      Map<String, Map<String, Integer>> placements
+    ) {
+      this.savedAt = savedAt;
+      this.products = products;
+      this.suppliers = suppliers;
+      this.orders = orders;
+      this.sellOrders = sellOrders;
+      this.placements = placements;
+    }
+  }
+
+  private final Path path;
+
+  SnapshotStore(Path path) {
+    this.path = path;
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  void save(
+    long savedAt,
+    List<Product> products,
+    List<Supplier> suppliers,
+    List<Order> orders,
+    List<SellOrder> sellOrders,
+    Map<String, Map<String, Integer>> placements
+  ) throws IOException {
+    Files.createDirectories(path.toAbsolutePath().getParent());
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (
+      OutputStream file = Files.newOutputStream(temp);
+      DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(file, 1 << 16)
+      )
+    ) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(savedAt);
+
+      out.writeInt(products.size());
+      for (Product product : products) {
+        writeString(out, product.getSku());
+        writeString(out, product.getName());
+        writeString(out, product.getDescription());
+        out.writeInt(product.getQuantity());
+        out.writeDouble(product.getPrice());
+        writeString(out, product.getSupplierId());
+        writeString(out, product.getDateReceived());
+      }
+
+      out.writeInt(suppliers.size());
+      for (Supplier supplier : suppliers) {
+        writeString(out, supplier.getId());
+        writeString(out, supplier.getName());
+        writeString(out, supplier.getContact());
+      }
+
+      out.writeInt(orders.size());
+      for (Order order : orders) {
+        writeString(out, order.getOrderId());
+        writeString(out, order.getSupplierId());
+        out.writeLong(order.getOrderDate().toEpochDay());
+        writeString(out, order.getLocation());
+        writeItems(out, order.getItems());
+      }
+
+      out.writeInt(sellOrders.size());
+      for (SellOrder sellOrder : sellOrders) {
+        writeString(out, sellOrder.getOrderId());
+        writeString(out, sellOrder.getCustomerName());
+        out.writeLong(sellOrder.getOrderDate().toEpochDay());
+        writeString(out, sellOrder.getLocation());
+        writeItems(out, sellOrder.getItems());
+      }
+
+      out.writeInt(placements.size());
+      for (String location : placements.keySet()) {
+        Map<String, Integer> stock = placements.get(location);
+        writeString(out, location);
+        out.writeInt(stock.size());
+        for (Map.Entry<String, Integer> entry : stock.entrySet()) {
+          writeString(out, entry.getKey());
+          out.writeInt(entry.getValue());
+        }
+      }
+    }
+    Files.move(
+      temp,
+      path,
+      StandardCopyOption.REPLACE_EXISTING,
+      StandardCopyOption.ATOMIC_MOVE
+    );
+  }
+
+  // Returns null if there is no snapshot or it was written by another format
+  Contents load() throws IOException {
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      // Read into the heap rather than mapped: a mapping keeps the file
+      // open until it is garbage collected, and on Windows that makes the
+      // next save's ATOMIC_MOVE over it fail
+      ByteBuffer in = ByteBuffer.allocate((int) channel.size());
+      while (in.hasRemaining() && channel.read(in) >= 0) {}
+      in.flip();
+      if (in.remaining() < 16 || in.getInt() != MAGIC) {
+        return null;
+      }
+      if (in.getInt() != FORMAT_VERSION) {
+        return null;
+      }
+      long savedAt = in.getLong();
+
+      int productCount = in.getInt();
+      List<Product> products = new ArrayList<>(productCount);
+      for (int i = 0; i < productCount; i++) {
+        products.add(
+          new Product(
+            readString(in),
+            readString(in),
+            readString(in),
+            in.getInt(),
+            in.getDouble(),
+            readString(in),
+            readString(in)
+          )
+        );
+      }
+
+      int supplierCount = in.getInt();
+      List<Supplier> suppliers = new ArrayList<>(supplierCount);
+      for (int i = 0; i < supplierCount; i++) {
+        suppliers.add(
+          new Supplier(readString(in), readString(in), readString(in))
+        );
+      }
+
+      int orderCount = in.getInt();
+      List<Order> orders = new ArrayList<>(orderCount);
+      for (int i = 0; i < orderCount; i++) {
+        String orderId = readString(in);
+        String supplierId = readString(in);
+        LocalDate orderDate = LocalDate.ofEpochDay(in.getLong());
+        String location = readString(in);
+        orders.add(
+          new Order(orderId, supplierId, readItems(in), orderDate, location)
+        );
+      }
+
+      int sellOrderCount = in.getInt();
+      List<SellOrder> sellOrders = new ArrayList<>(sellOrderCount);
+      for (int i = 0; i < sellOrderCount; i++) {
+        String orderId = readString(in);
+        String customerName = readString(in);
+        LocalDate sellDate = LocalDate.ofEpochDay(in.getLong());
+        String location = readString(in);
+        sellOrders.add(
+          new SellOrder(orderId, customerName, readItems(in), sellDate, location)
+        );
+      }
+
+      int locationCount = in.getInt();
+      Map<String, Map<String, Integer>> placements = new HashMap<>();
+      for (int i = 0; i < locationCount; i++) {
+        String location = readString(in);
+        int stockCount = in.getInt();
+        Map<String, Integer> stock = new HashMap<>(stockCount * 2);
+        for (int j = 0; j < stockCount; j++) {
+          stock.put(readString(in), in.getInt());
+        }
+        placements.put(location, stock);
+      }
+
+      return new Contents(
+        savedAt,
+        products,
+        suppliers,
+        orders,
+        sellOrders,
+        placements
+      );
+    } catch (RuntimeException e) {
+      // Truncated or corrupt file; fall back to a full load
+      return null;
+    }
+  }
+
+  private static void writeItems(DataOutputStream out, List<OrderItem> items)
+    throws IOException {
+    out.writeInt(items.size());
+    for (OrderItem item : items) {
+      writeString(out, item.getSku());
+      out.writeInt(item.getQuantity());
+    }
+  }
+
+  private static List<OrderItem> readItems(ByteBuffer in) {
+    int count = in.getInt();
+    List<OrderItem> items = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      items.add(new OrderItem(readString(in), in.getInt()));
+    }
+    return items;
+  }
+
+  private static void writeString(DataOutputStream out, String value)
+    throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
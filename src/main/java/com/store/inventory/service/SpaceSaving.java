@@ -0,0 +1,73 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Space-Saving heavy-hitter summary: a fixed number of counters, however
+// many distinct items pass through. When the counters are full, a new item
+// takes over the smallest counter and inherits its count as its error, so
+// every estimate overstates the true count by at most that error and any
+// item with more than total / capacity occurrences is always present.
+// Not thread-safe; the owner serializes access.
+final class SpaceSaving {
+
+  static final class Counter {
+
+    final String item;
+    final long count;
+    final long error;
+
+    private Counter(String item, long count, long error) {
+      this.item = item;
+      this.count = count;
+      this.error = error;
+    }
+  }
+
+  private static final Comparator<Counter> BY_COUNT = Comparator
+    .comparingLong((Counter c) -> c.count)
+    .thenComparing(c -> c.item);
+
+  private final int capacity;
+  private final Map<String, Counter> counters;
+  // Ascending by count; the first counter is the one to evict
+  private final TreeSet<Counter> ordered = new TreeSet<>(BY_COUNT);
+
+  SpaceSaving(int capacity) {
+    this.capacity = capacity;
+    this.counters = new HashMap<>(capacity * 2);
+  }
+
+  void add(String item, long weight) {
+    Counter current = counters.get(item);
+    Counter next;
+    if (current != null) {
+      ordered.remove(current);
+      next = new Counter(item, current.count + weight, current.error);
+    } else if (counters.size() < capacity) {
+      next = new Counter(item, weight, 0);
+    } else {
+      Counter smallest = ordered.pollFirst();
+      counters.remove(smallest.item);
+      next = new Counter(item, smallest.count + weight, smallest.count);
+    }
+    counters.put(item, next);
+    ordered.add(next);
+  }
+
+  // Highest estimated counts first
+  List<Counter> top(int limit) {
+    List<Counter> top = new ArrayList<>(Math.min(limit, ordered.size()));
+    for (Counter counter : ordered.descendingSet()) {
+      if (top.size() == limit) {
+        break;
+      }
+      top.add(counter);
+    }
+    return top;
+  }
+}
@@ -0,0 +1,216 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+// Recent history of stock movements per SKU. Every checkpointInterval
+// movements the running balance is checkpointed, so the balance at any
+// moment is found by binary search plus a replay of at most one interval.
+// Only a window of recent history is held: once a whole interval of a
+// SKU's movements is older than the window it is dropped, and the
+// checkpoint after it becomes the new opening balance. Older moments are
+// not covered and must be answered from storage. A SKU's history opens with
+// the balance it had before its first held movement; SKUs with no history
+// have not changed since the ledger began.
+final class StockLedger {
+
+  private static final class History {
+
+    long opening;
+    final List<StockMovement> movements = new ArrayList<>();
+    // checkpoints[j] is the balance after movement (j + 1) * interval - 1
+    long[] checkpoints = new long[4];
+    long balance;
+    // Balances at or after this moment are known
+    long coveredFrom;
+
+    History(long opening, long coveredFrom) {
+      this.opening = opening;
+      this.balance = opening;
+      this.coveredFrom = coveredFrom;
+    }
+  }
+
+  private final int checkpointInterval;
+  private final long windowMillis;
+  private final LongSupplier clock;
+  private final Map<String, History> histories = new HashMap<>();
+  private long lastTimestamp;
+  // When the ledger began; moments before it are covered by no SKU
+  private long since = Long.MIN_VALUE;
+  // Latest coveredFrom of any SKU; moments from here on are covered by all
+  private long coveredFrom = Long.MIN_VALUE;
+  private long lastSweep;
+
+  StockLedger(int checkpointInterval, long windowMillis) {
+    this(checkpointInterval, windowMillis, System::currentTimeMillis);
+  }
+
+  StockLedger(int checkpointInterval, long windowMillis, LongSupplier clock) {
+    this.checkpointInterval = checkpointInterval;
+    this.windowMillis = windowMillis;
+    this.clock = clock;
+    this.lastSweep = clock.getAsLong();
+  }
+
+  // Timestamps never go backwards, even if the clock does
+  synchronized long nextTimestamp() {
+    lastTimestamp = Math.max(lastTimestamp, clock.getAsLong());
+    return lastTimestamp;
+  }
+
+  synchronized void record(StockMovement movement, int balanceBefore) {
+    History history = histories.computeIfAbsent(
+      movement.getSku(),
+      sku -> new History(balanceBefore, since)
+    );
+    append(history, movement);
+    // SKUs that stopped moving are trimmed by a sweep now and then
+    long now = clock.getAsLong();
+    if (now - lastSweep >= Math.max(1, windowMillis / 8)) {
+      lastSweep = now;
+      for (History each : histories.values()) {
+        trim(each, now - windowMillis);
+      }
+    }
+  }
+
+  // Replaces the ledger with movements read back from storage, oldest
+  // first, all made at or after since. Each SKU's opening balance is set so
+  // that replaying its history ends at its current quantity.
+  synchronized void load(
+    Collection<StockMovement> movements,
+    ToIntFunction<String> currentQuantity,
+    long since
+  ) {
+    Map<String, Long> sums = new HashMap<>();
+    for (StockMovement movement : movements) {
+      sums.merge(movement.getSku(), (long) movement.getDelta(), Long::sum);
+    }
+    histories.clear();
+    this.since = since;
+    this.coveredFrom = since;
+    for (StockMovement movement : movements) {
+      History history = histories.computeIfAbsent(
+        movement.getSku(),
+        sku ->
+          new History(currentQuantity.applyAsInt(sku) - sums.get(sku), since)
+      );
+      append(history, movement);
+      lastTimestamp = Math.max(lastTimestamp, movement.getTimestamp());
+    }
+  }
+
+  synchronized boolean hasHistory(String sku) {
+    return histories.containsKey(sku);
+  }
+
+  // Whether the SKU's balance at the moment is known here
+  synchronized boolean covers(String sku, long timestamp) {
+    History history = histories.get(sku);
+    return timestamp >= (history == null ? since : history.coveredFrom);
+  }
+
+  // Whether every SKU's balance at the moment is known here
+  synchronized boolean coversAll(long timestamp) {
+    return timestamp >= coveredFrom;
+  }
+
+  // Balance of the SKU at the given moment, or null if it has no history.
+  // Before the covered window this is the earliest balance known.
+  synchronized Long balanceAt(String sku, long timestamp) {
+    History history = histories.get(sku);
+    if (history == null) {
+      return null;
+    }
+    List<StockMovement> movements = history.movements;
+    // Index of the last movement at or before timestamp
+    int low = 0;
+    int high = movements.size() - 1;
+    int last = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (movements.get(mid).getTimestamp() <= timestamp) {
+        last = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    int checkpoint = (last + 1) / checkpointInterval - 1;
+    long balance = checkpoint < 0
+      ? history.opening
+      : history.checkpoints[checkpoint];
+    for (int i = (checkpoint + 1) * checkpointInterval; i <= last; i++) {
+      balance += movements.get(i).getDelta();
+    }
+    return balance;
+  }
+
+  synchronized List<String> skus() {
+    return new ArrayList<>(histories.keySet());
+  }
+
+  // Movements held for the SKU, oldest first
+  synchronized List<StockMovement> movements(String sku) {
+    History history = histories.get(sku);
+    return history == null ? List.of() : List.copyOf(history.movements);
+  }
+
+  synchronized int size() {
+    int size = 0;
+    for (History history : histories.values()) {
+      size += history.movements.size();
+    }
+    return size;
+  }
+
+  private void append(History history, StockMovement movement) {
+    history.movements.add(movement);
+    history.balance += movement.getDelta();
+    int count = history.movements.size();
+    if (count % checkpointInterval == 0) {
+      int checkpoint = count / checkpointInterval - 1;
+      if (checkpoint == history.checkpoints.length) {
+        history.checkpoints =
+          Arrays.copyOf(history.checkpoints, checkpoint * 2);
+      }
+      history.checkpoints[checkpoint] = history.balance;
+    }
+    trim(history, clock.getAsLong() - windowMillis);
+  }
+
+  // Drops whole checkpoint intervals whose last movement is before the
+  // horizon, so checkpoints stay aligned to the movements still held
+  private void trim(History history, long horizon) {
+    List<StockMovement> movements = history.movements;
+    int blocks = 0;
+    while (
+      (blocks + 1) * checkpointInterval <= movements.size() &&
+      movements.get((blocks + 1) * checkpointInterval - 1).getTimestamp() <
+      horizon
+    ) {
+      blocks++;
+    }
+    if (blocks == 0) {
+      return;
+    }
+    int dropped = blocks * checkpointInterval;
+    history.opening = history.checkpoints[blocks - 1];
+    history.coveredFrom = movements.get(dropped - 1).getTimestamp();
+    coveredFrom = Math.max(coveredFrom, history.coveredFrom);
+    movements.subList(0, dropped).clear();
+    history.checkpoints =
+      Arrays.copyOfRange(
+        history.checkpoints,
+        blocks,
+        Math.max(blocks + 4, history.checkpoints.length)
+      );
+  }
+}
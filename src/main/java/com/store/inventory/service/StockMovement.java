@@ -0,0 +1,67 @@
+package com.store.inventory.service;
+
+// One change to a product's stock, as recorded in the movement ledger
+public class StockMovement {
+
+  public enum Reason {
+    SALE,
+    RECEIPT,
+    ADJUSTMENT,
+    TRANSFER,
+    // Applied from another instance through MongoDB; recorded in memory only
+    SYNC,
+  }
+
+  private final long timestamp;
+  private final String sku;
+  private final String location;
+  private final int delta;
+  private final Reason reason;
+
+  public StockMovement(
+    long timestamp,
+    String sku,
+    String location,
+    int delta,
+    Reason reason
+  ) {
+    this.timestamp = timestamp;
+    this.sku = sku;
+    this.location = location;
+    this.delta = delta;
+    this.reason = reason;
+  }
+
+  // Epoch milliseconds
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public String getSku() {
+    return sku;
+  }
+
+  public String getLocation() {
+    return location;
+  }
+
+  public int getDelta() {
+    return delta;
+  }
+
+  public Reason getReason() {
+    return reason;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "StockMovement{timestamp=%d, sku='%s', location='%s', delta=%d, reason=%s}",
+      timestamp,
+      sku,
+      location,
+      delta,
+      reason
+    );
+  }
+}
@@ -0,0 +1,69 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Product;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Every product ordered by stock value (quantity times price), kept exact as
+// products change: each change is one removal and one insertion, and the
+// top K are read off the front without sorting the inventory.
+final class StockValueRanking {
+
+  private static final class Entry {
+
+    final Product product;
+    final double value;
+
+    Entry(Product product) {
+      this.product = product;
+      this.value = product.getQuantity() * product.getPrice();
+    }
+  }
+
+  private static final Comparator<Entry> BY_VALUE_DESC = Comparator
+    .comparingDouble((Entry e) -> e.value)
+    .reversed()
+    .thenComparing(e -> e.product.getSku());
+
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final TreeSet<Entry> ordered = new TreeSet<>(BY_VALUE_DESC);
+
+  // Adds the product, or re-ranks it after its quantity or price changed
+  synchronized void put(Product product) {
+    remove(product.getSku());
+    Entry entry = new Entry(product);
+    entries.put(product.getSku(), entry);
+    ordered.add(entry);
+  }
+
+  synchronized void remove(String sku) {
+    Entry previous = entries.remove(sku);
+    if (previous != null) {
+      ordered.remove(previous);
+    }
+  }
+
+  synchronized void rebuild(Collection<Product> products) {
+    entries.clear();
+    ordered.clear();
+    for (Product product : products) {
+      put(product);
+    }
+  }
+
+  synchronized List<Product> top(int limit) {
+    List<Product> top = new ArrayList<>(Math.min(limit, ordered.size()));
+    for (Entry entry : ordered) {
+      if (top.size() == limit) {
+        break;
+      }
+      top.add(entry.product);
+    }
+    return top;
+  }
+}
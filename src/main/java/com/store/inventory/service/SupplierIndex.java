@@ -0,0 +1,136 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Product;
+import com.store.inventory.Supplier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Suppliers by ID, and each supplier's products with their running quantity
+// and stock value. Every product change is applied as the difference from
+// what that product contributed before, so nothing is ever rescanned.
+final class SupplierIndex {
+
+  // What one product currently adds to its supplier's aggregate
+  private static final class Contribution {
+
+    final String supplierId;
+    final int quantity;
+    final double value;
+
+    Contribution(Product product) {
+      this.supplierId = product.getSupplierId();
+      this.quantity = product.getQuantity();
+      this.value = product.getQuantity() * product.getPrice();
+    }
+  }
+
+  private static final class Aggregate {
+
+    final Map<String, Product> products = new LinkedHashMap<>();
+    long quantity;
+    double value;
+  }
+
+  // Read without locking; suppliers are only ever added
+  private final Map<String, Supplier> suppliers = new ConcurrentHashMap<>();
+  private final PrefixTrie supplierIds = new PrefixTrie();
+  private final Map<String, Contribution> contributions = new HashMap<>();
+  private final Map<String, Aggregate> aggregates = new HashMap<>();
+
+  // Returns false, changing nothing, if a supplier with this ID is known
+  boolean addSupplier(Supplier supplier) {
+    if (suppliers.putIfAbsent(supplier.getId(), supplier) != null) {
+      return false;
+    }
+    supplierIds.add(supplier.getId());
+    return true;
+  }
+
+  List<String> completeIds(String prefix, String after, int limit) {
+    return supplierIds.complete(prefix, after, limit);
+  }
+
+  Supplier supplier(String id) {
+    return id == null ? null : suppliers.get(id);
+  }
+
+  // Adds the product, or re-applies it after its quantity, price or
+  // supplier changed
+  synchronized void put(Product product) {
+    withdraw(product.getSku());
+    Contribution contribution = new Contribution(product);
+    if (contribution.supplierId == null) {
+      return;
+    }
+    contributions.put(product.getSku(), contribution);
+    Aggregate aggregate = aggregates.computeIfAbsent(
+      contribution.supplierId,
+      id -> new Aggregate()
+    );
+    aggregate.products.put(product.getSku(), product);
+    aggregate.quantity += contribution.quantity;
+    aggregate.value += contribution.value;
+  }
+
+  synchronized void remove(String sku) {
+    withdraw(sku);
+  }
+
+  synchronized void rebuild(Collection<Product> products) {
+    contributions.clear();
+    aggregates.clear();
+    for (Product product : products) {
+      put(product);
+    }
+  }
+
+  synchronized List<Product> products(String supplierId) {
+    Aggregate aggregate = aggregates.get(supplierId);
+    return aggregate == null
+      ? List.of()
+      : List.copyOf(aggregate.products.values());
+  }
+
+  synchronized SupplierStats stats(String supplierId) {
+    return toStats(supplierId, aggregates.get(supplierId));
+  }
+
+  synchronized Map<String, SupplierStats> stats() {
+    Map<String, SupplierStats> all = new HashMap<>(aggregates.size() * 2);
+    aggregates.forEach((id, aggregate) ->
+      all.put(id, toStats(id, aggregate))
+    );
+    return all;
+  }
+
+  private void withdraw(String sku) {
+    Contribution previous = contributions.remove(sku);
+    if (previous == null) {
+      return;
+    }
+    Aggregate aggregate = aggregates.get(previous.supplierId);
+    aggregate.products.remove(sku);
+    if (aggregate.products.isEmpty()) {
+      // Dropping it also drops any rounding left in the running value
+      aggregates.remove(previous.supplierId);
+    } else {
+      aggregate.quantity -= previous.quantity;
+      aggregate.value -= previous.value;
+    }
+  }
+
+  private static SupplierStats toStats(String supplierId, Aggregate aggregate) {
+    return aggregate == null
+      ? new SupplierStats(supplierId, 0, 0, 0)
+      : new SupplierStats(
+        supplierId,
+        aggregate.products.size(),
+        aggregate.quantity,
+        aggregate.value
+      );
+  }
+}
@@ -0,0 +1,49 @@
+package com.store.inventory.service;
+
+// Stock supplied by one supplier, as maintained by the supplier index
+public class SupplierStats {
+
+  private final String supplierId;
+  private final int productCount;
+  private final long totalQuantity;
+  private final double stockValue;
+
+  public SupplierStats(
+    String supplierId,
+    int productCount,
+    long totalQuantity,
+    double stockValue
+  ) {
+    this.supplierId = supplierId;
+    this.productCount = productCount;
+    this.totalQuantity = totalQuantity;
+    this.stockValue = stockValue;
+  }
+
+  public String getSupplierId() {
+    return supplierId;
+  }
+
+  public int getProductCount() {
+    return productCount;
+  }
+
+  public long getTotalQuantity() {
+    return totalQuantity;
+  }
+
+  public double getStockValue() {
+    return stockValue;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "SupplierStats{supplierId='%s', productCount=%d, totalQuantity=%d, stockValue=%.2f}",
+      supplierId,
+      productCount,
+      totalQuantity,
+      stockValue
+    );
+  }
+}
@@ -0,0 +1,113 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+// Hashed timing wheel: each timeout hashes by its deadline tick into one of a
+// fixed number of slots, and every tick visits only its own slot. Scheduling
+// and cancelling are O(1) however many timeouts are pending; timeouts more
+// than one revolution away wait out the extra rounds in their slot.
+// Deadlines are read off a monotonic nanosecond clock, so a wheel that has
+// not been advanced lately still fires a new timeout no earlier than asked.
+// Not thread-safe; the owner serializes access.
+final class TimingWheel<T> {
+
+  static final class Timeout<T> {
+
+    final T value;
+    private long rounds;
+    private int slot = -1;
+    private Timeout<T> prev;
+    private Timeout<T> next;
+
+    private Timeout(T value) {
+      this.value = value;
+    }
+  }
+
+  private final long tickNanos;
+  private final LongSupplier nanoClock;
+  private final long startNanos;
+  private final Timeout<T>[] slots;
+  private final int mask;
+  // Last tick processed by advance
+  private long tick;
+
+  TimingWheel(long tickMillis, int slotCount, LongSupplier nanoClock) {
+    if (Integer.bitCount(slotCount) != 1) {
+      throw new IllegalArgumentException("slotCount must be a power of two");
+    }
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+    this.nanoClock = nanoClock;
+    this.startNanos = nanoClock.getAsLong();
+    @SuppressWarnings("unchecked")
+    Timeout<T>[] slots = (Timeout<T>[]) new Timeout<?>[slotCount];
+    this.slots = slots;
+    this.mask = slotCount - 1;
+  }
+
+  Timeout<T> schedule(T value, long delayMillis) {
+    long due =
+      nanoClock.getAsLong() -
+      startNanos +
+      TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+    // First tick at or after the due time, and never one already processed
+    long deadline = Math.max(tick + 1, (due + tickNanos - 1) / tickNanos);
+    Timeout<T> timeout = new Timeout<>(value);
+    timeout.rounds = (deadline - tick - 1) / slots.length;
+    timeout.slot = (int) (deadline & mask);
+    timeout.next = slots[timeout.slot];
+    if (timeout.next != null) {
+      timeout.next.prev = timeout;
+    }
+    slots[timeout.slot] = timeout;
+    return timeout;
+  }
+
+  // Returns false if the timeout already fired or was cancelled
+  boolean cancel(Timeout<T> timeout) {
+    if (timeout.slot < 0) {
+      return false;
+    }
+    unlink(timeout);
+    return true;
+  }
+
+  // Fires every timeout whose deadline has passed
+  void advance(Consumer<T> onExpired) {
+    long target = (nanoClock.getAsLong() - startNanos) / tickNanos;
+    List<T> expired = new ArrayList<>();
+    while (tick < target) {
+      tick++;
+      Timeout<T> timeout = slots[(int) (tick & mask)];
+      while (timeout != null) {
+        Timeout<T> next = timeout.next;
+        if (timeout.rounds == 0) {
+          unlink(timeout);
+          expired.add(timeout.value);
+        } else {
+          timeout.rounds--;
+        }
+        timeout = next;
+      }
+    }
+    expired.forEach(onExpired);
+  }
+
+  private void unlink(Timeout<T> timeout) {
+    if (timeout.prev != null) {
+      timeout.prev.next = timeout.next;
+    } else {
+      slots[timeout.slot] = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+    timeout.slot = -1;
+  }
+}
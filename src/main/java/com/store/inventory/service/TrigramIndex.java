@@ -0,0 +1,230 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Product;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Product names by trigram, for typo-tolerant search. Similarity is the
+// Jaccard ratio of the query's and a name's trigram sets. Each product gets
+// a dense int ID, posting lists are sorted int arrays, and a query counts the
+// trigrams every name shares with it in one pass over the query's posting
+// lists; names sharing no trigram are never looked at.
+final class TrigramIndex {
+
+  private static final class Postings {
+
+    // Ascending. New IDs are the highest yet, so most adds append; only
+    // reused IDs shift the tail, which is one block copy.
+    int[] ids = new int[4];
+    int size;
+
+    void add(int id) {
+      int at = Arrays.binarySearch(ids, 0, size, id);
+      if (at >= 0) {
+        return;
+      }
+      at = -at - 1;
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      System.arraycopy(ids, at, ids, at + 1, size - at);
+      ids[at] = id;
+      size++;
+    }
+
+    // Found by binary search rather than a scan of the list
+    boolean remove(int id) {
+      int at = Arrays.binarySearch(ids, 0, size, id);
+      if (at < 0) {
+        return false;
+      }
+      System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+      size--;
+      return true;
+    }
+  }
+
+  private static final class Match {
+
+    final Product product;
+    final double similarity;
+
+    Match(Product product, double similarity) {
+      this.product = product;
+      this.similarity = similarity;
+    }
+  }
+
+  private static final Comparator<Match> BEST_FIRST = Comparator
+    .comparingDouble((Match m) -> m.similarity)
+    .reversed()
+    .thenComparing(m -> m.product.getSku());
+
+  private final double minSimilarity;
+  private final Map<String, Postings> postings = new HashMap<>();
+  private final Map<String, Integer> idsBySku = new HashMap<>();
+  private Product[] products = new Product[1024];
+  private int[] trigramCounts = new int[1024];
+  // IDs of removed products, reused before new ones are handed out
+  private int[] freeIds = new int[16];
+  private int freeCount;
+  private int nextId;
+  // Per-query scratch; every entry is back to zero between queries
+  private int[] shared = new int[1024];
+  private int[] touched = new int[1024];
+
+  TrigramIndex(double minSimilarity) {
+    this.minSimilarity = minSimilarity;
+  }
+
+  synchronized void put(Product product) {
+    remove(product.getSku());
+    Set<String> trigrams = trigrams(product.getName());
+    if (trigrams.isEmpty()) {
+      return;
+    }
+    int id = allocateId();
+    products[id] = product;
+    trigramCounts[id] = trigrams.size();
+    idsBySku.put(product.getSku(), id);
+    for (String trigram : trigrams) {
+      postings.computeIfAbsent(trigram, t -> new Postings()).add(id);
+    }
+  }
+
+  synchronized void remove(String sku) {
+    Integer id = idsBySku.remove(sku);
+    if (id == null) {
+      return;
+    }
+    // Names never change, so these are the trigrams it was indexed under
+    for (String trigram : trigrams(products[id].getName())) {
+      Postings list = postings.get(trigram);
+      if (list != null && list.remove(id) && list.size == 0) {
+        postings.remove(trigram);
+      }
+    }
+    products[id] = null;
+    if (freeCount == freeIds.length) {
+      freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+    }
+    freeIds[freeCount++] = id;
+  }
+
+  synchronized void rebuild(Collection<Product> all) {
+    postings.clear();
+    idsBySku.clear();
+    int capacity = Math.max(1024, all.size());
+    products = new Product[capacity];
+    trigramCounts = new int[capacity];
+    shared = new int[capacity];
+    touched = new int[capacity];
+    freeCount = 0;
+    nextId = 0;
+    for (Product product : all) {
+      put(product);
+    }
+  }
+
+  // Most similar names first; only those at or above the threshold
+  synchronized List<Product> search(String query, int limit) {
+    Set<String> queryTrigrams = trigrams(query);
+    if (queryTrigrams.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    int touchedCount = 0;
+    for (String trigram : queryTrigrams) {
+      Postings list = postings.get(trigram);
+      if (list == null) {
+        continue;
+      }
+      for (int i = 0; i < list.size; i++) {
+        int id = list.ids[i];
+        if (shared[id]++ == 0) {
+          touched[touchedCount++] = id;
+        }
+      }
+    }
+
+    // A name sharing fewer than this many trigrams cannot reach the
+    // threshold, whatever its length
+    int minShared = Math.max(
+      1,
+      (int) Math.ceil(minSimilarity * queryTrigrams.size())
+    );
+    // Worst of the best kept at the head, so each candidate costs log(limit)
+    PriorityQueue<Match> best = new PriorityQueue<>(
+      limit + 1,
+      BEST_FIRST.reversed()
+    );
+    for (int i = 0; i < touchedCount; i++) {
+      int id = touched[i];
+      int count = shared[id];
+      shared[id] = 0;
+      if (count < minShared) {
+        continue;
+      }
+      double similarity =
+        (double) count / (queryTrigrams.size() + trigramCounts[id] - count);
+      if (similarity < minSimilarity) {
+        continue;
+      }
+      if (best.size() == limit && similarity < best.peek().similarity) {
+        continue;
+      }
+      best.add(new Match(products[id], similarity));
+      if (best.size() > limit) {
+        best.poll();
+      }
+    }
+
+    List<Product> top = new ArrayList<>(best.size());
+    while (!best.isEmpty()) {
+      top.add(best.poll().product);
+    }
+    Collections.reverse(top);
+    return top;
+  }
+
+  private int allocateId() {
+    if (freeCount > 0) {
+      return freeIds[--freeCount];
+    }
+    if (nextId == products.length) {
+      int capacity = products.length * 2;
+      products = Arrays.copyOf(products, capacity);
+      trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+      shared = Arrays.copyOf(shared, capacity);
+      touched = Arrays.copyOf(touched, capacity);
+    }
+    return nextId++;
+  }
+
+  // Lowercased words, each padded as "  word " so that word starts weigh
+  // more and short words still yield trigrams
+  private static Set<String> trigrams(String text) {
+    Set<String> trigrams = new HashSet<>();
+    if (text == null) {
+      return trigrams;
+    }
+    for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+      if (word.isEmpty()) {
+        continue;
+      }
+      String padded = "  " + word + " ";
+      for (int i = 0; i + 3 <= padded.length(); i++) {
+        trigrams.add(padded.substring(i, i + 3));
+      }
+    }
+    return trigrams;
+  }
+}
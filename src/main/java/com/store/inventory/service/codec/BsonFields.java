@@ -0,0 +1,101 @@
+package com.store.inventory.service.codec;
+
+import com.store.inventory.OrderItem;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+
+// Null- and type-tolerant field readers shared by the model codecs. Documents
+// written by older versions or by hand may store numbers with other widths.
+final class BsonFields {
+
+  private BsonFields() {}
+
+  static String readString(BsonReader reader) {
+    BsonType type = reader.getCurrentBsonType();
+    if (type == BsonType.STRING) {
+      return reader.readString();
+    }
+    reader.skipValue();
+    return null;
+  }
+
+  static int readInt(BsonReader reader) {
+    switch (reader.getCurrentBsonType()) {
+      case INT32:
+        return reader.readInt32();
+      case INT64:
+        return (int) reader.readInt64();
+      case DOUBLE:
+        return (int) reader.readDouble();
+      default:
+        reader.skipValue();
+        return 0;
+    }
+  }
+
+  static double readDouble(BsonReader reader) {
+    switch (reader.getCurrentBsonType()) {
+      case DOUBLE:
+        return reader.readDouble();
+      case INT32:
+        return reader.readInt32();
+      case INT64:
+        return reader.readInt64();
+      default:
+        reader.skipValue();
+        return 0;
+    }
+  }
+
+  static void writeString(BsonWriter writer, String name, String value) {
+    if (value == null) {
+      writer.writeNull(name);
+    } else {
+      writer.writeString(name, value);
+    }
+  }
+
+  static void writeItems(BsonWriter writer, List<OrderItem> items) {
+    writer.writeStartArray("items");
+    for (OrderItem item : items) {
+      writer.writeStartDocument();
+      writeString(writer, "sku", item.getSku());
+      writer.writeInt32("quantity", item.getQuantity());
+      writer.writeEndDocument();
+    }
+    writer.writeEndArray();
+  }
+
+  static List<OrderItem> readItems(BsonReader reader) {
+    List<OrderItem> items = new ArrayList<>();
+    if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+      reader.skipValue();
+      return items;
+    }
+    reader.readStartArray();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String sku = null;
+      int quantity = 0;
+      reader.readStartDocument();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+        switch (reader.readName()) {
+          case "sku":
+            sku = readString(reader);
+            break;
+          case "quantity":
+            quantity = readInt(reader);
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.readEndDocument();
+      items.add(new OrderItem(sku, quantity));
+    }
+    reader.readEndArray();
+    return items;
+  }
+}
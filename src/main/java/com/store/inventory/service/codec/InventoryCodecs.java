@@ -0,0 +1,25 @@
+package com.store.inventory.service.codec;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+public final class InventoryCodecs {
+
+  private static final CodecRegistry REGISTRY = CodecRegistries.fromRegistries(
+    CodecRegistries.fromCodecs(
+      new ProductCodec(),
+      new SupplierCodec(),
+      new OrderCodec(),
+      new SellOrderCodec()
+    ),
+    MongoClientSettings.getDefaultCodecRegistry()
+  );
+
+  private InventoryCodecs() {}
+
+  // Model codecs on top of the driver defaults (Document, filters, ...)
+  public static CodecRegistry registry() {
+    return REGISTRY;
+  }
+}
@@ -0,0 +1,79 @@
+package com.store.inventory.service.codec;
+
+import com.store.inventory.Order;
+import com.store.inventory.OrderItem;
+import java.time.LocalDate;
+import java.util.List;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+// Purchase orders, including their embedded OrderItems
+public class OrderCodec implements Codec<Order> {
+
+  @Override
+  public void encode(
+    BsonWriter writer,
+    Order order,
+    EncoderContext encoderContext
+  ) {
+    writer.writeStartDocument();
+    BsonFields.writeString(writer, "orderId", order.getOrderId());
+    BsonFields.writeString(writer, "supplierId", order.getSupplierId());
+    writer.writeString("orderDate", order.getOrderDate().toString());
+    BsonFields.writeItems(writer, order.getItems());
+    if (order.getLocation() != null) {
+      writer.writeString("location", order.getLocation());
+    }
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public Order decode(BsonReader reader, DecoderContext decoderContext) {
+    String orderId = null;
+    String supplierId = null;
+    String orderDate = null;
+    List<OrderItem> items = List.of();
+    String location = null;
+
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      switch (reader.readName()) {
+        case "orderId":
+          orderId = BsonFields.readString(reader);
+          break;
+        case "supplierId":
+          supplierId = BsonFields.readString(reader);
+          break;
+        case "orderDate":
+          orderDate = BsonFields.readString(reader);
+          break;
+        case "items":
+          items = BsonFields.readItems(reader);
+          break;
+        case "location":
+          location = BsonFields.readString(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.readEndDocument();
+
+    return new Order(
+      orderId,
+      supplierId,
+      items,
+      LocalDate.parse(orderDate),
+      location
+    );
+  }
+
+  @Override
+  public Class<Order> getEncoderClass() {
+    return Order.class;
+  }
+}
@@ -0,0 +1,86 @@
+package com.store.inventory.service.codec;
+
+import com.store.inventory.Product;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+public class ProductCodec implements Codec<Product> {
+
+  @Override
+  public void encode(
+    BsonWriter writer,
+    Product product,
+    EncoderContext encoderContext
+  ) {
+    writer.writeStartDocument();
+    BsonFields.writeString(writer, "sku", product.getSku());
+    BsonFields.writeString(writer, "name", product.getName());
+    BsonFields.writeString(writer, "description", product.getDescription());
+    writer.writeInt32("quantity", product.getQuantity());
+    writer.writeDouble("price", product.getPrice());
+    BsonFields.writeString(writer, "supplierId", product.getSupplierId());
+    BsonFields.writeString(writer, "dateReceived", product.getDateReceived());
+    writer.writeDateTime("updatedAt", System.currentTimeMillis());
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public Product decode(BsonReader reader, DecoderContext decoderContext) {
+    String sku = null;
+    String name = null;
+    String description = null;
+    int quantity = 0;
+    double price = 0;
+    String supplierId = null;
+    String dateReceived = null;
+
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      switch (reader.readName()) {
+        case "sku":
+          sku = BsonFields.readString(reader);
+          break;
+        case "name":
+          name = BsonFields.readString(reader);
+          break;
+        case "description":
+          description = BsonFields.readString(reader);
+          break;
+        case "quantity":
+          quantity = BsonFields.readInt(reader);
+          break;
+        case "price":
+          price = BsonFields.readDouble(reader);
+          break;
+        case "supplierId":
+          supplierId = BsonFields.readString(reader);
+          break;
+        case "dateReceived":
+          dateReceived = BsonFields.readString(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.readEndDocument();
+
+    return new Product(
+      sku,
+      name,
+      description,
+      quantity,
+      price,
+      supplierId,
+      dateReceived
+    );
+  }
+
+  @Override
+  public Class<Product> getEncoderClass() {
+    return Product.class;
+  }
+}
@@ -0,0 +1,78 @@
+package com.store.inventory.service.codec;
+
+import com.store.inventory.OrderItem;
+import com.store.inventory.SellOrder;
+import java.time.LocalDate;
+import java.util.List;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+public class SellOrderCodec implements Codec<SellOrder> {
+
+  @Override
+  public void encode(
+    BsonWriter writer,
+    SellOrder sellOrder,
+    EncoderContext encoderContext
+  ) {
+    writer.writeStartDocument();
+    BsonFields.writeString(writer, "sellOrderId", sellOrder.getOrderId());
+    BsonFields.writeString(writer, "customerName", sellOrder.getCustomerName());
+    writer.writeString("sellDate", sellOrder.getOrderDate().toString());
+    BsonFields.writeItems(writer, sellOrder.getItems());
+    if (sellOrder.getLocation() != null) {
+      writer.writeString("location", sellOrder.getLocation());
+    }
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public SellOrder decode(BsonReader reader, DecoderContext decoderContext) {
+    String sellOrderId = null;
+    String customerName = null;
+    String sellDate = null;
+    List<OrderItem> items = List.of();
+    String location = null;
+
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      switch (reader.readName()) {
+        case "sellOrderId":
+          sellOrderId = BsonFields.readString(reader);
+          break;
+        case "customerName":
+          customerName = BsonFields.readString(reader);
+          break;
+        case "sellDate":
+          sellDate = BsonFields.readString(reader);
+          break;
+        case "items":
+          items = BsonFields.readItems(reader);
+          break;
+        case "location":
+          location = BsonFields.readString(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.readEndDocument();
+
+    return new SellOrder(
+      sellOrderId,
+      customerName,
+      items,
+      LocalDate.parse(sellDate),
+      location
+    );
+  }
+
+  @Override
+  public Class<SellOrder> getEncoderClass() {
+    return SellOrder.class;
+  }
+}
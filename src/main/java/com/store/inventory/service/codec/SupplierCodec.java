@@ -0,0 +1,57 @@
+package com.store.inventory.service.codec;
+
+import com.store.inventory.Supplier;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+public class SupplierCodec implements Codec<Supplier> {
+
+  @Override
+  public void encode(
+    BsonWriter writer,
+    Supplier supplier,
+    EncoderContext encoderContext
+  ) {
+    writer.writeStartDocument();
+    BsonFields.writeString(writer, "id", supplier.getId());
+    BsonFields.writeString(writer, "name", supplier.getName());
+    BsonFields.writeString(writer, "contact", supplier.getContact());
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public Supplier decode(BsonReader reader, DecoderContext decoderContext) {
+    String id = null;
+    String name = null;
+    String contact = null;
+
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      switch (reader.readName()) {
+        case "id":
+          id = BsonFields.readString(reader);
+          break;
+        case "name":
+          name = BsonFields.readString(reader);
+          break;
+        case "contact":
+          contact = BsonFields.readString(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.readEndDocument();
+
+    return new Supplier(id, name, contact);
+  }
+
+  @Override
+  public Class<Supplier> getEncoderClass() {
+    return Supplier.class;
+  }
+}
@@ -0,0 +1,146 @@
+package com.store.inventory.bench;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.store.inventory.Product;
+import com.store.inventory.service.codec.InventoryCodecs;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+
+/**
+ * Compares loading products through Document plus per-field getters with
+ * decoding them straight into Product through ProductCodec.
+ *
+ * Needs a running mongod; uses (and drops) the inventory_bench database.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.store.inventory.bench.CodecLoadBenchmark
+ */
+public class CodecLoadBenchmark {
+
+  private static final int PRODUCTS = Integer.getInteger(
+    "bench.products",
+    1_000_000
+  );
+  private static final int ROUNDS = Integer.getInteger("bench.rounds", 5);
+
+  public static void main(String[] args) {
+    String uri = System.getProperty(
+      "inventory.mongo.uri",
+      "mongodb://localhost:27017"
+    );
+    String databaseName = System.getProperty(
+      "inventory.mongo.database",
+      "inventory_bench"
+    );
+
+    try (MongoClient client = MongoClients.create(uri)) {
+      MongoDatabase database = client
+        .getDatabase(databaseName)
+        .withCodecRegistry(InventoryCodecs.registry());
+      seed(database);
+      MongoCollection<Document> documents = database.getCollection("products");
+      MongoCollection<Product> typed = database.getCollection(
+        "products",
+        Product.class
+      );
+
+      System.out.printf(
+        "%-10s %-10s %12s %15s%n",
+        "round",
+        "decoder",
+        "millis",
+        "MB allocated"
+      );
+      for (int round = 1; round <= ROUNDS; round++) {
+        measure(round, "document", () -> loadDocuments(documents));
+        measure(round, "codec", () -> loadTyped(typed));
+      }
+    }
+  }
+
+  private static void seed(MongoDatabase database) {
+    database.drop();
+    MongoCollection<Product> products = database.getCollection(
+      "products",
+      Product.class
+    );
+    List<Product> batch = new ArrayList<>();
+    for (int i = 0; i < PRODUCTS; i++) {
+      batch.add(
+        new Product(
+          String.format("BENCH-%07d", i),
+          "Product " + i,
+          "Benchmark product",
+          1_000,
+          9.99,
+          "S1",
+          "2024-01-01"
+        )
+      );
+      if (batch.size() == 10_000) {
+        products.insertMany(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      products.insertMany(batch);
+    }
+  }
+
+  // The mapping InventoryService did before the codecs existed
+  private static int loadDocuments(MongoCollection<Document> collection) {
+    List<Product> products = new ArrayList<>();
+    try (MongoCursor<Document> cursor = collection.find().iterator()) {
+      while (cursor.hasNext()) {
+        Document doc = cursor.next();
+        products.add(
+          new Product(
+            doc.getString("sku"),
+            doc.getString("name"),
+            doc.getString("description"),
+            doc.getInteger("quantity", 0),
+            doc.getDouble("price"),
+            doc.getString("supplierId"),
+            doc.getString("dateReceived")
+          )
+        );
+      }
+    }
+    return products.size();
+  }
+
+  private static int loadTyped(MongoCollection<Product> collection) {
+    return collection.find().into(new ArrayList<>()).size();
+  }
+
+  private static void measure(int round, String label, Load load) {
+    com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+    long start = System.nanoTime();
+    int loaded = load.run();
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+    if (loaded != PRODUCTS) {
+      System.err.println("Loaded " + loaded + " of " + PRODUCTS + " products");
+    }
+    System.out.printf(
+      "%-10d %-10s %12d %15.1f%n",
+      round,
+      label,
+      millis,
+      allocated / (1024.0 * 1024.0)
+    );
+  }
+
+  @FunctionalInterface
+  private interface Load {
+    int run();
+  }
+}
@@ -0,0 +1,172 @@
+package com.store.inventory.bench;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.store.inventory.server.InventoryServer;
+import com.store.inventory.service.InventoryService;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.bson.Document;
+
+/**
+ * Drives the HTTP API from concurrent keep-alive clients and reports
+ * requests/sec for product lookups, dashboard stats and sell orders.
+ *
+ * Needs a running mongod; uses (and drops) the inventory_bench database.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.store.inventory.bench.HttpApiBenchmark
+ */
+public class HttpApiBenchmark {
+
+  private static final int PRODUCTS = 1_000;
+  private static final int CLIENTS = Integer.getInteger("bench.clients", 64);
+  private static final long SECONDS = Long.getLong("bench.seconds", 10);
+
+  private interface Call {
+    HttpRequest request(URI base, int n);
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (System.getProperty("inventory.mongo.database") == null) {
+      System.setProperty("inventory.mongo.database", "inventory_bench");
+    }
+    System.setProperty("inventory.snapshot.enabled", "false");
+    String uri = System.getProperty(
+      "inventory.mongo.uri",
+      "mongodb://localhost:27017"
+    );
+    seed(uri, System.getProperty("inventory.mongo.database"));
+    InventoryService service = InventoryService.getInstance();
+    InventoryServer server = new InventoryServer(service, 0);
+    server.start();
+    URI base = URI.create("http://localhost:" + server.getPort());
+    HttpClient client = HttpClient
+      .newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .build();
+
+    AtomicInteger orderIds = new AtomicInteger();
+    System.out.printf(
+      "%-14s %15s %10s%n",
+      "endpoint",
+      "requests/sec",
+      "errors"
+    );
+    run(
+      client,
+      base,
+      "lookup",
+      (b, n) ->
+        HttpRequest
+          .newBuilder(b.resolve("/products/" + sku(n % PRODUCTS)))
+          .build()
+    );
+    run(
+      client,
+      base,
+      "stats",
+      (b, n) -> HttpRequest.newBuilder(b.resolve("/stats")).build()
+    );
+    run(
+      client,
+      base,
+      "sell-order",
+      (b, n) ->
+        HttpRequest
+          .newBuilder(b.resolve("/sell-orders"))
+          .header("Content-Type", "application/json")
+          .POST(
+            HttpRequest.BodyPublishers.ofString(
+              new Document("orderId", "http-" + orderIds.incrementAndGet())
+                .append("customerName", "Bench customer")
+                .append(
+                  "items",
+                  List.of(
+                    new Document("sku", sku(n % PRODUCTS))
+                      .append("quantity", 1)
+                  )
+                )
+                .toJson()
+            )
+          )
+          .build()
+    );
+    server.stop();
+    service.close();
+  }
+
+  private static void run(
+    HttpClient client,
+    URI base,
+    String name,
+    Call call
+  ) throws InterruptedException {
+    LongAdder completed = new LongAdder();
+    LongAdder errors = new LongAdder();
+    long deadline = System.nanoTime() + SECONDS * 1_000_000_000L;
+    List<Thread> threads = new ArrayList<>(CLIENTS);
+    for (int c = 0; c < CLIENTS; c++) {
+      int offset = c * 7919;
+      Thread thread = new Thread(() -> {
+        for (int n = offset; System.nanoTime() < deadline; n++) {
+          try {
+            HttpResponse<Void> response = client.send(
+              call.request(base, n),
+              HttpResponse.BodyHandlers.discarding()
+            );
+            if (response.statusCode() >= 400) {
+              errors.increment();
+            }
+          } catch (Exception e) {
+            errors.increment();
+          }
+          completed.increment();
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    System.out.printf(
+      "%-14s %15.0f %10d%n",
+      name,
+      completed.sum() / (double) SECONDS,
+      errors.sum()
+    );
+  }
+
+  private static void seed(String uri, String database) {
+    try (MongoClient client = MongoClients.create(uri)) {
+      client.getDatabase(database).drop();
+      MongoCollection<Document> products = client
+        .getDatabase(database)
+        .getCollection("products");
+      List<Document> docs = new ArrayList<>();
+      for (int i = 0; i < PRODUCTS; i++) {
+        docs.add(
+          new Document("sku", sku(i))
+            .append("name", "Product " + i)
+            .append("description", "Benchmark product")
+            .append("quantity", 10_000_000)
+            .append("price", 9.99)
+            .append("supplierId", "S1")
+            .append("dateReceived", "2024-01-01")
+        );
+      }
+      products.insertMany(docs);
+    }
+  }
+
+  private static String sku(int i) {
+    return String.format("BENCH-%05d", i);
+  }
+}
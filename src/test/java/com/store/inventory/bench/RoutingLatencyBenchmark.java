@@ -0,0 +1,142 @@
+package com.store.inventory.bench;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+
+/**
+ * Measures per-operation latency of stock updates under w:1 and majority
+ * write concerns, and of a report-style scan on the primary and on
+ * secondaries with a bounded-staleness read preference.
+ *
+ * Needs a local replica set; uses (and drops) the inventory_bench database.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.store.inventory.bench.RoutingLatencyBenchmark
+ *   -Dinventory.mongo.uri=mongodb://localhost:27017/?replicaSet=rs0
+ */
+public class RoutingLatencyBenchmark {
+
+  private static final int PRODUCTS = 1_000;
+  private static final int WRITES = Integer.getInteger("bench.writes", 5_000);
+  private static final int SCANS = Integer.getInteger("bench.scans", 200);
+
+  public static void main(String[] args) {
+    String uri = System.getProperty(
+      "inventory.mongo.uri",
+      "mongodb://localhost:27017/?replicaSet=rs0"
+    );
+    String database = System.getProperty(
+      "inventory.mongo.database",
+      "inventory_bench"
+    );
+    try (MongoClient client = MongoClients.create(uri)) {
+      client.getDatabase(database).drop();
+      MongoCollection<Document> products = client
+        .getDatabase(database)
+        .getCollection("products");
+      seed(products);
+
+      System.out.printf(
+        "%-28s %10s %10s %10s%n",
+        "setting",
+        "p50 ms",
+        "p99 ms",
+        "max ms"
+      );
+      write(products, "write w:1", WriteConcern.W1);
+      write(products, "write majority", WriteConcern.MAJORITY);
+      write(
+        products,
+        "write majority, journaled",
+        WriteConcern.MAJORITY.withJournal(true)
+      );
+      scan(products, "scan primary", ReadPreference.primary());
+      scan(
+        products,
+        "scan secondaryPreferred 90s",
+        ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS)
+      );
+      scan(
+        products,
+        "scan nearest 90s",
+        ReadPreference.nearest(90, TimeUnit.SECONDS)
+      );
+      client.getDatabase(database).drop();
+    }
+  }
+
+  private static void write(
+    MongoCollection<Document> products,
+    String name,
+    WriteConcern concern
+  ) {
+    MongoCollection<Document> target = products.withWriteConcern(concern);
+    long[] nanos = new long[WRITES];
+    for (int i = 0; i < WRITES; i++) {
+      long start = System.nanoTime();
+      target.updateOne(
+        Filters.eq("sku", sku(i % PRODUCTS)),
+        Updates.inc("quantity", -1)
+      );
+      nanos[i] = System.nanoTime() - start;
+    }
+    print(name, nanos);
+  }
+
+  private static void scan(
+    MongoCollection<Document> products,
+    String name,
+    ReadPreference preference
+  ) {
+    MongoCollection<Document> target = products.withReadPreference(
+      preference
+    );
+    long[] nanos = new long[SCANS];
+    for (int i = 0; i < SCANS; i++) {
+      long start = System.nanoTime();
+      target.find().into(new ArrayList<>(PRODUCTS));
+      nanos[i] = System.nanoTime() - start;
+    }
+    print(name, nanos);
+  }
+
+  private static void print(String name, long[] nanos) {
+    Arrays.sort(nanos);
+    System.out.printf(
+      "%-28s %10.2f %10.2f %10.2f%n",
+      name,
+      nanos[nanos.length / 2] / 1e6,
+      nanos[(int) (nanos.length * 0.99)] / 1e6,
+      nanos[nanos.length - 1] / 1e6
+    );
+  }
+
+  private static void seed(MongoCollection<Document> products) {
+    List<Document> docs = new ArrayList<>();
+    for (int i = 0; i < PRODUCTS; i++) {
+      docs.add(
+        new Document("sku", sku(i))
+          .append("name", "Product " + i)
+          .append("description", "Benchmark product")
+          .append("quantity", 10_000_000)
+          .append("price", 9.99)
+          .append("supplierId", "S1")
+          .append("dateReceived", "2024-01-01")
+      );
+    }
+    products.insertMany(docs);
+  }
+
+  private static String sku(int i) {
+    return String.format("BENCH-%05d", i);
+  }
+}
@@ -0,0 +1,113 @@
+package com.store.inventory.bench;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.store.inventory.OrderItem;
+import com.store.inventory.SellOrder;
+import com.store.inventory.service.InventoryService;
+import com.store.inventory.service.SellOrderResult;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+
+/**
+ * Compares ingesting sell orders one addSellOrder call at a time with
+ * addSellOrders batches of 10, 100 and 1000.
+ *
+ * Needs a running mongod; uses (and drops) the inventory_bench database.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.store.inventory.bench.SellOrderIngestBenchmark
+ */
+public class SellOrderIngestBenchmark {
+
+  private static final int PRODUCTS = 1_000;
+  private static final int ORDERS = Integer.getInteger("bench.orders", 20_000);
+  private static final int ITEMS_PER_ORDER = 3;
+  private static final int[] BATCH_SIZES = { 10, 100, 1000 };
+
+  public static void main(String[] args) {
+    if (System.getProperty("inventory.mongo.database") == null) {
+      System.setProperty("inventory.mongo.database", "inventory_bench");
+    }
+    System.setProperty("inventory.snapshot.enabled", "false");
+    String uri = System.getProperty(
+      "inventory.mongo.uri",
+      "mongodb://localhost:27017"
+    );
+    seed(uri, System.getProperty("inventory.mongo.database"));
+    InventoryService service = InventoryService.getInstance();
+
+    System.out.printf("%-12s %15s%n", "batch", "orders/sec");
+    long start = System.nanoTime();
+    for (int i = 0; i < ORDERS; i++) {
+      service.addSellOrder(order("single", i));
+    }
+    System.out.printf("%-12s %15.0f%n", "1 (single)", rate(start));
+
+    for (int batchSize : BATCH_SIZES) {
+      start = System.nanoTime();
+      int rejected = 0;
+      for (int i = 0; i < ORDERS; i += batchSize) {
+        List<SellOrder> batch = new ArrayList<>(batchSize);
+        for (int j = i; j < Math.min(ORDERS, i + batchSize); j++) {
+          batch.add(order("batch" + batchSize, j));
+        }
+        for (SellOrderResult result : service.addSellOrders(batch)) {
+          if (!result.isAccepted()) {
+            rejected++;
+          }
+        }
+      }
+      System.out.printf("%-12d %15.0f%n", batchSize, rate(start));
+      if (rejected > 0) {
+        System.err.println(rejected + " orders rejected; seed more stock");
+      }
+    }
+    service.close();
+  }
+
+  private static void seed(String uri, String database) {
+    try (MongoClient client = MongoClients.create(uri)) {
+      client.getDatabase(database).drop();
+      MongoCollection<Document> products = client
+        .getDatabase(database)
+        .getCollection("products");
+      List<Document> docs = new ArrayList<>();
+      for (int i = 0; i < PRODUCTS; i++) {
+        docs.add(
+          new Document("sku", sku(i))
+            .append("name", "Product " + i)
+            .append("description", "Benchmark product")
+            .append("quantity", 10_000_000)
+            .append("price", 9.99)
+            .append("supplierId", "S1")
+            .append("dateReceived", "2024-01-01")
+        );
+      }
+      products.insertMany(docs);
+    }
+  }
+
+  private static SellOrder order(String run, int n) {
+    List<OrderItem> items = new ArrayList<>(ITEMS_PER_ORDER);
+    for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+      items.add(new OrderItem(sku((n * 7 + i * 131) % PRODUCTS), 1));
+    }
+    return new SellOrder(
+      run + "-" + n,
+      "Bench customer",
+      items,
+      LocalDate.now()
+    );
+  }
+
+  private static double rate(long startNanos) {
+    return ORDERS * 1e9 / (System.nanoTime() - startNanos);
+  }
+
+  private static String sku(int i) {
+    return String.format("BENCH-%05d", i);
+  }
+}
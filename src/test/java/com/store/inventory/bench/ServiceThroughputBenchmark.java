@@ -0,0 +1,150 @@
+package com.store.inventory.bench;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.store.inventory.service.InventoryService;
+import com.store.inventory.service.ReactiveInventoryService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.bson.Document;
+
+/**
+ * Compares updateProduct throughput of the blocking InventoryService with the
+ * ReactiveInventoryService at 1, 16 and 256 concurrent callers.
+ *
+ * Needs a running mongod; uses (and drops) the inventory_bench database.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.store.inventory.bench.ServiceThroughputBenchmark
+ */
+public class ServiceThroughputBenchmark {
+
+  private static final int PRODUCTS = 1_000;
+  private static final int[] CALLERS = { 1, 16, 256 };
+  private static final long RUN_MILLIS = Long.getLong("bench.millis", 10_000);
+
+  public static void main(String[] args) throws Exception {
+    if (System.getProperty("inventory.mongo.database") == null) {
+      System.setProperty("inventory.mongo.database", "inventory_bench");
+    }
+    String uri = System.getProperty(
+      "inventory.mongo.uri",
+      "mongodb://localhost:27017"
+    );
+    String database = System.getProperty("inventory.mongo.database");
+    seed(uri, database);
+
+    InventoryService sync = InventoryService.getInstance();
+    ReactiveInventoryService reactive = new ReactiveInventoryService(
+      uri,
+      database
+    );
+
+    System.out.printf("%-10s %-10s %15s%n", "callers", "service", "ops/sec");
+    for (int callers : CALLERS) {
+      System.out.printf(
+        "%-10d %-10s %15.0f%n",
+        callers,
+        "sync",
+        runSync(sync, callers)
+      );
+      System.out.printf(
+        "%-10d %-10s %15.0f%n",
+        callers,
+        "reactive",
+        runReactive(reactive, callers)
+      );
+    }
+
+    reactive.close();
+    sync.close();
+  }
+
+  private static void seed(String uri, String database) {
+    try (MongoClient client = MongoClients.create(uri)) {
+      client.getDatabase(database).drop();
+      MongoCollection<Document> products = client
+        .getDatabase(database)
+        .getCollection("products");
+      List<Document> docs = new ArrayList<>();
+      for (int i = 0; i < PRODUCTS; i++) {
+        docs.add(
+          new Document("sku", sku(i))
+            .append("name", "Product " + i)
+            .append("description", "Benchmark product")
+            .append("quantity", 1_000)
+            .append("price", 9.99)
+            .append("supplierId", "S1")
+            .append("dateReceived", "2024-01-01")
+        );
+      }
+      products.insertMany(docs);
+    }
+  }
+
+  private static double runSync(InventoryService service, int callers)
+    throws InterruptedException {
+    LongAdder completed = new LongAdder();
+    AtomicBoolean running = new AtomicBoolean(true);
+    CountDownLatch done = new CountDownLatch(callers);
+    for (int i = 0; i < callers; i++) {
+      Thread caller = new Thread(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running.get()) {
+          service.updateProduct(sku(random.nextInt(PRODUCTS)), 1_000, 9.99);
+          completed.increment();
+        }
+        done.countDown();
+      });
+      caller.setDaemon(true);
+      caller.start();
+    }
+    Thread.sleep(RUN_MILLIS);
+    running.set(false);
+    done.await();
+    return completed.sum() * 1000.0 / RUN_MILLIS;
+  }
+
+  private static double runReactive(
+    ReactiveInventoryService service,
+    int callers
+  ) throws InterruptedException {
+    LongAdder completed = new LongAdder();
+    AtomicBoolean running = new AtomicBoolean(true);
+    CountDownLatch done = new CountDownLatch(callers);
+    for (int i = 0; i < callers; i++) {
+      issueNext(service, completed, running, done);
+    }
+    Thread.sleep(RUN_MILLIS);
+    running.set(false);
+    done.await();
+    return completed.sum() * 1000.0 / RUN_MILLIS;
+  }
+
+  // Each caller keeps exactly one request in flight, like a blocking caller
+  private static void issueNext(
+    ReactiveInventoryService service,
+    LongAdder completed,
+    AtomicBoolean running,
+    CountDownLatch done
+  ) {
+    if (!running.get()) {
+      done.countDown();
+      return;
+    }
+    service
+      .updateProduct(sku(ThreadLocalRandom.current().nextInt(PRODUCTS)), 1_000, 9.99)
+      .whenComplete((r, e) -> {
+        completed.increment();
+        issueNext(service, completed, running, done);
+      });
+  }
+
+  private static String sku(int i) {
+    return String.format("BENCH-%05d", i);
+  }
+}
@@ -0,0 +1,74 @@
+package com.store.inventory.service;
+
+import java.util.List;
+import junit.framework.TestCase;
+
+public class AppendOnlyListTest extends TestCase {
+
+  public void testSnapshotDoesNotSeeLaterAppends() {
+    AppendOnlyList<String> list = new AppendOnlyList<>(2);
+    list.append("a");
+    list.append("b");
+    List<String> before = list.snapshot();
+    // Forces the backing array to grow
+    list.append("c");
+    list.append("d");
+    assertEquals(List.of("a", "b"), before);
+    assertEquals(List.of("a", "b", "c", "d"), list.snapshot());
+    assertEquals(4, list.size());
+  }
+
+  public void testSnapshotSharingArrayStaysBounded() {
+    AppendOnlyList<String> list = new AppendOnlyList<>(8);
+    list.append("a");
+    List<String> before = list.snapshot();
+    list.append("b");
+    assertEquals(1, before.size());
+    try {
+      before.get(1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {}
+  }
+
+  public void testSnapshotIsReadOnly() {
+    AppendOnlyList<String> list = new AppendOnlyList<>();
+    list.append("a");
+    try {
+      list.snapshot().add("b");
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+    try {
+      list.snapshot().set(0, "b");
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+    assertEquals(List.of("a"), list.snapshot());
+  }
+
+  public void testEmptySnapshot() {
+    assertTrue(new AppendOnlyList<String>(0).snapshot().isEmpty());
+  }
+
+  public void testReaderSeesConsistentPrefixWhileWriterAppends()
+    throws InterruptedException {
+    AppendOnlyList<Integer> list = new AppendOnlyList<>(1);
+    int count = 100_000;
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        list.append(i);
+      }
+    });
+    writer.start();
+    int checks = 0;
+    while (writer.isAlive() || checks == 0) {
+      List<Integer> snapshot = list.snapshot();
+      int size = snapshot.size();
+      if (size > 0) {
+        assertEquals(Integer.valueOf(size - 1), snapshot.get(size - 1));
+        assertEquals(Integer.valueOf(size / 2), snapshot.get(size / 2));
+      }
+      checks++;
+    }
+    writer.join();
+    assertEquals(count, list.size());
+  }
+}
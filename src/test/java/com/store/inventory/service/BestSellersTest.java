@@ -0,0 +1,87 @@
+package com.store.inventory.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+public class BestSellersTest extends TestCase {
+
+  // Clock whose day the test moves by hand
+  private static final class DayClock extends Clock {
+
+    LocalDate day;
+
+    DayClock(LocalDate day) {
+      this.day = day;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+  }
+
+  // A Wednesday
+  private static final LocalDate WEDNESDAY = LocalDate.of(2024, 6, 5);
+
+  private final DayClock clock = new DayClock(WEDNESDAY);
+  private final BestSellers sellers = new BestSellers(8, clock);
+
+  private List<String> top(BestSeller.Window window) {
+    List<String> skus = new ArrayList<>();
+    for (BestSeller seller : sellers.top(window, 10)) {
+      skus.add(seller.getSku() + "=" + seller.getUnits());
+    }
+    return skus;
+  }
+
+  public void testWindowsCountOnlyTheirOwnSales() {
+    sellers.record(WEDNESDAY, "A", 2);
+    sellers.record(WEDNESDAY.minusDays(2), "B", 5);
+    sellers.record(WEDNESDAY.minusDays(3), "C", 7);
+    assertEquals(List.of("A=2"), top(BestSeller.Window.TODAY));
+    assertEquals(List.of("B=5", "A=2"), top(BestSeller.Window.THIS_WEEK));
+    assertEquals(
+      List.of("C=7", "B=5", "A=2"),
+      top(BestSeller.Window.ALL_TIME)
+    );
+  }
+
+  public void testUndatedAndFutureSalesCountAsToday() {
+    sellers.record(null, "A", 1);
+    sellers.record(WEDNESDAY.plusDays(3), "A", 1);
+    assertEquals(List.of("A=2"), top(BestSeller.Window.TODAY));
+  }
+
+  public void testDayAndWeekRollOver() {
+    sellers.record(WEDNESDAY, "A", 3);
+    clock.day = WEDNESDAY.plusDays(1);
+    assertTrue(top(BestSeller.Window.TODAY).isEmpty());
+    assertEquals(List.of("A=3"), top(BestSeller.Window.THIS_WEEK));
+    // The following Monday starts a new week
+    clock.day = WEDNESDAY.plusDays(5);
+    assertTrue(top(BestSeller.Window.THIS_WEEK).isEmpty());
+    assertEquals(List.of("A=3"), top(BestSeller.Window.ALL_TIME));
+  }
+
+  public void testNonPositiveUnitsAreIgnored() {
+    sellers.record(WEDNESDAY, "A", 0);
+    sellers.record(WEDNESDAY, "A", -4);
+    assertTrue(top(BestSeller.Window.ALL_TIME).isEmpty());
+  }
+}
@@ -0,0 +1,95 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Product;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class CatalogTotalsTest extends TestCase {
+
+  private final CatalogTotals totals = new CatalogTotals();
+
+  private static Product product(String sku, int quantity, double price) {
+    return new Product(sku, sku, null, quantity, price, null, null);
+  }
+
+  public void testTotalsFollowChanges() {
+    Product a = product("A", 5, 2.0);
+    totals.put(a);
+    totals.put(product("B", 20, 1.0));
+    InventoryStats stats = totals.stats(10);
+    assertEquals(2, stats.getTotalProducts());
+    assertEquals(25, stats.getTotalQuantity());
+    assertEquals(30.0, stats.getTotalValue(), 1e-9);
+    assertEquals(1, stats.getLowStockCount());
+
+    a.setQuantity(15);
+    a.setPrice(3.0);
+    totals.put(a);
+    stats = totals.stats(10);
+    assertEquals(2, stats.getTotalProducts());
+    assertEquals(35, stats.getTotalQuantity());
+    assertEquals(65.0, stats.getTotalValue(), 1e-9);
+    assertEquals(0, stats.getLowStockCount());
+  }
+
+  public void testRemoveWithdrawsProduct() {
+    totals.put(product("A", 1, 2.0));
+    totals.put(product("B", 1, 3.0));
+    totals.remove("A");
+    totals.remove("missing");
+    InventoryStats stats = totals.stats(5);
+    assertEquals(1, stats.getTotalProducts());
+    assertEquals(1, stats.getTotalQuantity());
+    assertEquals(3.0, totals.value(), 1e-9);
+    assertEquals(1, stats.getLowStockCount());
+  }
+
+  public void testLowStockIsBelowThreshold() {
+    totals.put(product("A", 9, 1.0));
+    totals.put(product("B", 10, 1.0));
+    totals.put(product("C", 9, 1.0));
+    assertEquals(2, totals.stats(10).getLowStockCount());
+    assertEquals(3, totals.stats(11).getLowStockCount());
+    assertEquals(0, totals.stats(0).getLowStockCount());
+  }
+
+  public void testMatchesFullScanAfterRandomChanges() {
+    List<Product> products = new ArrayList<>();
+    Random random = new Random(3);
+    for (int i = 0; i < 300; i++) {
+      Product product = product("P" + i, random.nextInt(50), 1 + i % 7);
+      products.add(product);
+      totals.put(product);
+    }
+    for (int i = 0; i < 2_000; i++) {
+      Product product = products.get(random.nextInt(products.size()));
+      product.setQuantity(random.nextInt(50));
+      product.setPrice(0.25 * random.nextInt(40));
+      totals.put(product);
+    }
+    for (int i = 0; i < 30; i++) {
+      totals.remove(products.remove(random.nextInt(products.size())).getSku());
+    }
+    long quantity = 0;
+    double value = 0;
+    int low = 0;
+    for (Product product : products) {
+      quantity += product.getQuantity();
+      value += product.getQuantity() * product.getPrice();
+      if (product.getQuantity() < 12) {
+        low++;
+      }
+    }
+    InventoryStats stats = totals.stats(12);
+    assertEquals(products.size(), stats.getTotalProducts());
+    assertEquals(quantity, stats.getTotalQuantity());
+    assertEquals(value, stats.getTotalValue(), 1e-6);
+    assertEquals(low, stats.getLowStockCount());
+
+    totals.rebuild(products);
+    assertEquals(value, totals.stats(12).getTotalValue(), 1e-9);
+    assertEquals(low, totals.stats(12).getLowStockCount());
+  }
+}
@@ -0,0 +1,112 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+public class InventoryEventRingTest extends TestCase {
+
+  private static long publish(InventoryEventRing ring, int quantity) {
+    return ring.publish(
+      InventoryEvent.Type.STOCK_CHANGED,
+      "S" + quantity,
+      quantity,
+      quantity + 1,
+      0,
+      0,
+      null
+    );
+  }
+
+  private static List<Long> drain(InventoryEventRing.Subscriber subscriber) {
+    List<Long> sequences = new ArrayList<>();
+    subscriber.poll(event -> sequences.add(event.getSequence()));
+    return sequences;
+  }
+
+  public void testCapacityMustBePowerOfTwo() {
+    try {
+      new InventoryEventRing(12);
+      fail();
+    } catch (IllegalArgumentException expected) {}
+  }
+
+  public void testSubscriberSeesEventsInOrder() {
+    InventoryEventRing ring = new InventoryEventRing(8);
+    InventoryEventRing.Subscriber subscriber = ring.subscribe();
+    List<Integer> quantities = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      publish(ring, i);
+    }
+    assertEquals(5, subscriber.getLag());
+    subscriber.poll(event -> {
+      assertEquals("S" + event.getOldQuantity(), event.getKey());
+      assertEquals(1, event.getQuantityDelta());
+      quantities.add(event.getOldQuantity());
+    });
+    assertEquals(List.of(0, 1, 2, 3, 4), quantities);
+    assertEquals(0, subscriber.getLag());
+    assertEquals(0, subscriber.getLostCount());
+  }
+
+  public void testSubscribeStartsAfterCursor() {
+    InventoryEventRing ring = new InventoryEventRing(8);
+    publish(ring, 0);
+    publish(ring, 1);
+    InventoryEventRing.Subscriber subscriber = ring.subscribe();
+    publish(ring, 2);
+    assertEquals(List.of(2L), drain(subscriber));
+  }
+
+  public void testPollHonoursMaxEvents() {
+    InventoryEventRing ring = new InventoryEventRing(8);
+    InventoryEventRing.Subscriber subscriber = ring.subscribe();
+    for (int i = 0; i < 5; i++) {
+      publish(ring, i);
+    }
+    assertEquals(2, subscriber.poll(event -> {}, 2));
+    assertEquals(2, subscriber.getSequence());
+  }
+
+  public void testOverrunSubscriberSkipsAheadAndCountsLost() {
+    InventoryEventRing ring = new InventoryEventRing(4);
+    InventoryEventRing.Subscriber subscriber = ring.subscribe();
+    for (int i = 0; i < 10; i++) {
+      publish(ring, i);
+    }
+    // Only the last capacity events are still in the ring
+    assertEquals(List.of(6L, 7L, 8L, 9L), drain(subscriber));
+    assertEquals(6, subscriber.getLostCount());
+    publish(ring, 10);
+    assertEquals(List.of(10L), drain(subscriber));
+    assertEquals(6, subscriber.getLostCount());
+  }
+
+  public void testConcurrentReaderNeverSeesTornEvent()
+    throws InterruptedException {
+    InventoryEventRing ring = new InventoryEventRing(16);
+    InventoryEventRing.Subscriber subscriber = ring.subscribe();
+    int count = 200_000;
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        publish(ring, i);
+      }
+    });
+    long[] seen = { 0, -1 };
+    writer.start();
+    while (writer.isAlive() || subscriber.getLag() > 0) {
+      subscriber.poll(event -> {
+        // Every field must come from the same publish
+        assertEquals(event.getSequence(), event.getOldQuantity());
+        assertEquals(event.getSequence() + 1, event.getNewQuantity());
+        assertEquals("S" + event.getSequence(), event.getKey());
+        assertTrue(event.getSequence() > seen[1]);
+        seen[1] = event.getSequence();
+        seen[0]++;
+      });
+    }
+    writer.join();
+    assertEquals(count - 1, seen[1]);
+    assertEquals(count, seen[0] + subscriber.getLostCount());
+  }
+}
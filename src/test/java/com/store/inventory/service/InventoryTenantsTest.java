@@ -0,0 +1,135 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+
+public class InventoryTenantsTest extends TestCase {
+
+  private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+  // Databases in the order they were loaded
+  private final List<String> loads = new ArrayList<>();
+  private InventoryTenants tenants;
+
+  private InventoryTenants open(int maxActive, long idleMillis) {
+    tenants =
+      new InventoryTenants(
+        null,
+        (database, scheduler) -> {
+          synchronized (loads) {
+            loads.add(database);
+          }
+          return InventoryService.inMemory(database);
+        },
+        maxActive,
+        idleMillis
+      );
+    return tenants;
+  }
+
+  @Override
+  protected void tearDown() {
+    if (tenants != null) {
+      tenants.close();
+    }
+  }
+
+  private InventoryService use(String storeId) {
+    try (InventoryTenants.Handle handle = tenants.acquire(storeId)) {
+      return handle.service();
+    }
+  }
+
+  public void testStoreLoadedOnceAndSharedAcrossCase() {
+    open(10, HOUR);
+    InventoryService first = use("Store1");
+    assertSame(first, use("store1"));
+    assertSame(first, use("STORE1"));
+    assertEquals(
+      List.of(InventoryService.DATABASE_NAME + "_store1"),
+      loads
+    );
+    assertEquals(Set.of("store1"), tenants.getActiveStores());
+  }
+
+  public void testInvalidStoreIdRejected() {
+    open(10, HOUR);
+    for (String id : new String[] { null, "", "a.b", "../x" }) {
+      try {
+        tenants.acquire(id);
+        fail("Accepted " + id);
+      } catch (IllegalArgumentException expected) {}
+    }
+    assertTrue(loads.isEmpty());
+  }
+
+  public void testLeastRecentlyUsedEvictedOverLimit() {
+    open(2, HOUR);
+    InventoryService a = use("a");
+    use("b");
+    use("a");
+    use("c");
+    assertEquals(Set.of("a", "c"), tenants.getActiveStores());
+    assertSame(a, use("a"));
+    // b was closed; using it again loads a fresh instance
+    use("b");
+    assertEquals(4, loads.size());
+    assertEquals(Set.of("a", "b"), tenants.getActiveStores());
+  }
+
+  public void testPinnedStoresSurviveLimit() {
+    open(1, HOUR);
+    try (
+      InventoryTenants.Handle a = tenants.acquire("a");
+      InventoryTenants.Handle b = tenants.acquire("b")
+    ) {
+      // Both are in use, so the limit is exceeded rather than closing one
+      assertEquals(2, tenants.getActiveCount());
+      assertSame(a.service(), use("a"));
+      assertSame(b.service(), use("b"));
+    }
+    // The next load brings the count back down to the limit
+    use("c");
+    assertEquals(Set.of("c"), tenants.getActiveStores());
+  }
+
+  public void testEvictWaitsForOpenHandle() {
+    open(10, HOUR);
+    InventoryService evicted;
+    try (InventoryTenants.Handle handle = tenants.acquire("a")) {
+      evicted = handle.service();
+      assertTrue(tenants.evict("a"));
+      assertFalse(tenants.evict("a"));
+      assertTrue(tenants.getActiveStores().isEmpty());
+      // A request arriving now gets a new instance, not the retiring one
+      assertNotSame(evicted, use("a"));
+      // The open handle keeps working on its own instance
+      assertEquals(0, handle.service().getTotalProducts());
+    }
+    assertEquals(2, loads.size());
+  }
+
+  public void testIdleStoresEvictedUnlessPinned() {
+    open(10, 0);
+    use("idle");
+    try (InventoryTenants.Handle busy = tenants.acquire("busy")) {
+      tenants.evictIdle();
+      assertEquals(Set.of("busy"), tenants.getActiveStores());
+      assertSame(busy.service(), use("busy"));
+    }
+  }
+
+  public void testClosedTenantsRefuseStores() {
+    open(10, HOUR);
+    use("a");
+    tenants.close();
+    assertTrue(tenants.getActiveStores().isEmpty());
+    try {
+      tenants.acquire("a");
+      fail("Acquired after close");
+    } catch (IllegalStateException expected) {}
+  }
+}
@@ -0,0 +1,85 @@
+package com.store.inventory.service;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.TaggableReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+import org.bson.Document;
+
+public class MongoRoutingTest extends TestCase {
+
+  public void testKnownReadPreferenceKeepsStalenessBound() {
+    ReadPreference preference = MongoRouting.readPreference(
+      "secondaryPreferred",
+      120
+    );
+    assertEquals(
+      ReadPreference.secondaryPreferred().getName(),
+      preference.getName()
+    );
+    assertEquals(
+      Long.valueOf(120),
+      ((TaggableReadPreference) preference).getMaxStaleness(TimeUnit.SECONDS)
+    );
+  }
+
+  public void testPrimaryAndUnknownModesReadThePrimary() {
+    assertEquals(
+      ReadPreference.primary(),
+      MongoRouting.readPreference("PRIMARY", 90)
+    );
+    assertEquals(
+      ReadPreference.primary(),
+      MongoRouting.readPreference("fastest", 90)
+    );
+  }
+
+  public void testWriteConcernByName() {
+    assertEquals(
+      WriteConcern.MAJORITY,
+      MongoRouting.writeConcern("Majority", 0)
+    );
+    assertEquals(new WriteConcern(2), MongoRouting.writeConcern(" 2 ", 0));
+  }
+
+  public void testUnparseableWriteConcernFallsBackToMajority() {
+    assertEquals(WriteConcern.MAJORITY, MongoRouting.writeConcern("all", 0));
+    assertEquals(WriteConcern.MAJORITY, MongoRouting.writeConcern("-1", 0));
+  }
+
+  public void testWriteTimeoutOnlyWhenPositive() {
+    WriteConcern concern = MongoRouting.writeConcern("1", 2_500);
+    assertEquals(
+      Integer.valueOf(2_500),
+      concern.getWTimeout(TimeUnit.MILLISECONDS)
+    );
+    assertNull(
+      MongoRouting.writeConcern("1", 0).getWTimeout(TimeUnit.MILLISECONDS)
+    );
+  }
+
+  public void testCollectionsAreRoutedByOperationClass() {
+    // Collections are configured locally; nothing here contacts a server
+    try (MongoClient client = MongoClients.create()) {
+      MongoCollection<Document> collection = client
+        .getDatabase("routing_test")
+        .getCollection("products")
+        .withReadPreference(ReadPreference.nearest());
+      MongoCollection<Document> stock = MongoRouting.forStock(collection);
+      assertEquals(ReadPreference.primary(), stock.getReadPreference());
+      assertEquals(MongoRouting.STOCK_WRITES, stock.getWriteConcern());
+      assertEquals(
+        MongoRouting.AUDIT_WRITES,
+        MongoRouting.forAudit(collection).getWriteConcern()
+      );
+      assertEquals(
+        MongoRouting.REPORT_READS,
+        MongoRouting.forReports(collection).getReadPreference()
+      );
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.store.inventory.service;
+
+import junit.framework.TestCase;
+
+public class OrderIdIndexTest extends TestCase {
+
+  public void testRejectsDuplicateIds() {
+    OrderIdIndex index = new OrderIdIndex(4);
+    assertTrue(index.add("SO-1"));
+    assertFalse(index.add("SO-1"));
+    assertTrue(index.contains("SO-1"));
+    assertFalse(index.contains("SO-2"));
+    assertEquals(1, index.size());
+  }
+
+  public void testKeepsEveryIdPastTheExpectedCount() {
+    OrderIdIndex index = new OrderIdIndex(16);
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(index.add("SO-" + i));
+    }
+    for (int i = 0; i < 10_000; i++) {
+      assertFalse(index.add("SO-" + i));
+    }
+    assertFalse(index.contains("SO-10000"));
+    assertEquals(10_000, index.size());
+  }
+
+  public void testRemovedIdCanBeAddedAgain() {
+    OrderIdIndex index = new OrderIdIndex(4);
+    index.add("SO-1");
+    assertTrue(index.remove("SO-1"));
+    assertFalse(index.contains("SO-1"));
+    assertTrue(index.add("SO-1"));
+  }
+
+  public void testNullIdIsRejected() {
+    OrderIdIndex index = new OrderIdIndex(4);
+    assertFalse(index.contains(null));
+    try {
+      index.add(null);
+      fail("null ID accepted");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+}
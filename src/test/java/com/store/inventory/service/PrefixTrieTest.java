@@ -0,0 +1,109 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import junit.framework.TestCase;
+
+public class PrefixTrieTest extends TestCase {
+
+  private final PrefixTrie trie = new PrefixTrie();
+
+  public void testCompletesInKeyOrder() {
+    for (String key : List.of("SKU-20", "SKU-1", "SKU-10", "SKU", "SUP-1")) {
+      trie.add(key);
+    }
+    assertEquals(
+      List.of("SKU", "SKU-1", "SKU-10", "SKU-20"),
+      trie.complete("SK", 10)
+    );
+    assertEquals(List.of("SKU-1", "SKU-10"), trie.complete("SKU-1", 10));
+    assertEquals(List.of("SKU", "SKU-1"), trie.complete("S", 2));
+    assertTrue(trie.complete("SKX", 10).isEmpty());
+    assertTrue(trie.complete("SKU-100", 10).isEmpty());
+    assertTrue(trie.complete("S", 0).isEmpty());
+  }
+
+  public void testDuplicateAddAndMissingRemove() {
+    assertTrue(trie.add("A-1"));
+    assertFalse(trie.add("A-1"));
+    assertEquals(1, trie.size());
+    assertFalse(trie.remove("A-"));
+    assertFalse(trie.remove("A-12"));
+    assertTrue(trie.remove("A-1"));
+    assertFalse(trie.contains("A-1"));
+    assertEquals(0, trie.size());
+  }
+
+  public void testRemovingInnerKeyKeepsChildren() {
+    trie.add("AB");
+    trie.add("ABC");
+    trie.add("ABD");
+    trie.remove("AB");
+    assertFalse(trie.contains("AB"));
+    assertEquals(List.of("ABC", "ABD"), trie.complete("A", 10));
+    trie.remove("ABC");
+    assertEquals(List.of("ABD"), trie.complete("AB", 10));
+    assertTrue(trie.contains("ABD"));
+  }
+
+  public void testPagesResumeAfterLastKey() {
+    for (int i = 0; i < 30; i++) {
+      trie.add(String.format("P%02d", i));
+    }
+    List<String> seen = new ArrayList<>();
+    String after = null;
+    while (true) {
+      List<String> page = trie.complete("P", after, 7);
+      if (page.isEmpty()) {
+        break;
+      }
+      seen.addAll(page);
+      after = page.get(page.size() - 1);
+    }
+    assertEquals(30, seen.size());
+    assertEquals("P00", seen.get(0));
+    assertEquals("P29", seen.get(29));
+    // A cursor that is not itself a key still resumes after it
+    assertEquals(List.of("P11", "P12"), trie.complete("P", "P105", 2));
+  }
+
+  public void testMatchesSortedSetUnderRandomEdits() {
+    TreeSet<String> expected = new TreeSet<>();
+    Random random = new Random(11);
+    for (int i = 0; i < 5_000; i++) {
+      String key = randomKey(random);
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), trie.remove(key));
+      } else {
+        assertEquals(expected.add(key), trie.add(key));
+      }
+    }
+    assertEquals(expected.size(), trie.size());
+    for (int i = 0; i < 200; i++) {
+      String sample = randomKey(random);
+      String prefix = sample.substring(0, random.nextInt(sample.length()));
+      String after = random.nextBoolean() ? null : randomKey(random);
+      List<String> want = new ArrayList<>();
+      for (String key : expected.tailSet(prefix, true)) {
+        if (!key.startsWith(prefix) || want.size() == 5) {
+          break;
+        }
+        if (after == null || key.compareTo(after) > 0) {
+          want.add(key);
+        }
+      }
+      assertEquals(want, trie.complete(prefix, after, 5));
+    }
+  }
+
+  private static String randomKey(Random random) {
+    StringBuilder key = new StringBuilder();
+    int length = 1 + random.nextInt(5);
+    for (int i = 0; i < length; i++) {
+      key.append("ab-1".charAt(random.nextInt(4)));
+    }
+    return key.toString();
+  }
+}
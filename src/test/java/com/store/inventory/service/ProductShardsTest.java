@@ -0,0 +1,50 @@
+package com.store.inventory.service;
+
+import junit.framework.TestCase;
+
+public class ProductShardsTest extends TestCase {
+
+  public void testOneShardHoldsEverything() {
+    assertEquals(0, ProductShards.indexOf("SKU-1", 1));
+    assertEquals(0, ProductShards.indexOf("", 1));
+  }
+
+  public void testIndexIsStableAndInRange() {
+    for (int shards = 1; shards <= 7; shards++) {
+      for (int i = 0; i < 1_000; i++) {
+        String sku = "SKU-" + i;
+        int index = ProductShards.indexOf(sku, shards);
+        assertTrue(index >= 0 && index < shards);
+        assertEquals(index, ProductShards.indexOf(new String(sku), shards));
+      }
+    }
+  }
+
+  public void testNegativeHashCodesStayInRange() {
+    // "polygenelubricants" hashes to Integer.MIN_VALUE
+    assertEquals(Integer.MIN_VALUE, "polygenelubricants".hashCode());
+    int index = ProductShards.indexOf("polygenelubricants", 3);
+    assertTrue(index >= 0 && index < 3);
+  }
+
+  public void testSequentialSkusSpreadEvenly() {
+    int shards = 4;
+    int[] counts = new int[shards];
+    int total = 40_000;
+    for (int i = 0; i < total; i++) {
+      counts[ProductShards.indexOf(String.format("SKU-%06d", i), shards)]++;
+    }
+    for (int count : counts) {
+      assertTrue(
+        String.valueOf(count),
+        Math.abs(count - total / shards) < total / shards / 10
+      );
+    }
+  }
+
+  public void testLegacyMessageNamesDatabaseAndFlag() {
+    String message = ProductShards.legacyMessage("store_a");
+    assertTrue(message.contains("store_a.products"));
+    assertTrue(message.contains("-Dinventory.products.migrate=true"));
+  }
+}
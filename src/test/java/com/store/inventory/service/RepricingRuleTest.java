@@ -0,0 +1,102 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Product;
+import java.time.LocalDate;
+import junit.framework.TestCase;
+
+public class RepricingRuleTest extends TestCase {
+
+  private static final LocalDate MARCH_1 = LocalDate.of(2024, 3, 1);
+  private static final LocalDate MARCH_31 = LocalDate.of(2024, 3, 31);
+
+  private static Product product(String sku, int quantity, String received) {
+    return new Product(sku, sku, null, quantity, 10.0, "S1", received);
+  }
+
+  public void testGlobMatchesWholeSku() {
+    RepricingRule rule = RepricingRule.percent(10).skuMatching("ELEC-*");
+    assertTrue(rule.matches(product("ELEC-1", 1, null)));
+    assertTrue(rule.matches(product("ELEC-", 1, null)));
+    assertFalse(rule.matches(product("XELEC-1", 1, null)));
+    assertFalse(rule.matches(product("ELEC", 1, null)));
+  }
+
+  public void testGlobQuestionMarkIsOneCharacter() {
+    RepricingRule rule = RepricingRule.percent(10).skuMatching("A?-1");
+    assertTrue(rule.matches(product("AB-1", 1, null)));
+    assertFalse(rule.matches(product("A-1", 1, null)));
+    assertFalse(rule.matches(product("ABC-1", 1, null)));
+  }
+
+  public void testGlobTreatsRegexCharactersLiterally() {
+    RepricingRule rule = RepricingRule.percent(10).skuMatching("A.B+*");
+    assertTrue(rule.matches(product("A.B+7", 1, null)));
+    assertFalse(rule.matches(product("AxBB7", 1, null)));
+  }
+
+  public void testReceivedDatesAreInclusive() {
+    RepricingRule rule = RepricingRule
+      .percent(10)
+      .receivedBetween(MARCH_1, MARCH_31);
+    assertFalse(rule.matches(product("A", 1, "2024-02-29")));
+    assertTrue(rule.matches(product("A", 1, "2024-03-01")));
+    assertTrue(rule.matches(product("A", 1, " 2024-03-31 ")));
+    assertFalse(rule.matches(product("A", 1, "2024-04-01")));
+  }
+
+  public void testOpenEndedDateRange() {
+    RepricingRule before = RepricingRule
+      .percent(10)
+      .receivedBetween(null, MARCH_1);
+    assertTrue(before.matches(product("A", 1, "1999-01-01")));
+    assertFalse(before.matches(product("A", 1, "2024-03-02")));
+    RepricingRule after = RepricingRule
+      .percent(10)
+      .receivedBetween(MARCH_1, null);
+    assertTrue(after.matches(product("A", 1, "2099-12-31")));
+  }
+
+  public void testMissingOrUnreadableDateNeverMatchesDateFilter() {
+    RepricingRule rule = RepricingRule.percent(10).receivedBetween(null, null);
+    assertTrue(rule.matches(product("A", 1, "2024-03-01")));
+    rule = RepricingRule.percent(10).receivedBetween(MARCH_1, null);
+    assertFalse(rule.matches(product("A", 1, null)));
+    assertFalse(rule.matches(product("A", 1, "03/05/2024")));
+  }
+
+  public void testStockBoundsAreInclusive() {
+    RepricingRule rule = RepricingRule.absolute(1).stockBetween(5, 10);
+    assertFalse(rule.matches(product("A", 4, null)));
+    assertTrue(rule.matches(product("A", 5, null)));
+    assertTrue(rule.matches(product("A", 10, null)));
+    assertFalse(rule.matches(product("A", 11, null)));
+  }
+
+  public void testFiltersCombine() {
+    RepricingRule rule = RepricingRule
+      .percent(-20)
+      .forSupplier("S1")
+      .skuMatching("A*");
+    assertTrue(rule.matches(product("A1", 1, null)));
+    assertFalse(rule.matches(product("B1", 1, null)));
+    RepricingRule other = RepricingRule.percent(-20).forSupplier("S2");
+    assertFalse(other.matches(product("A1", 1, null)));
+    // Narrowing returns a new rule and leaves the original alone
+    RepricingRule base = RepricingRule.percent(5);
+    base.forSupplier("S2");
+    assertTrue(base.matches(product("A1", 1, null)));
+  }
+
+  public void testRepriceRoundsToCentAndNeverGoesNegative() {
+    assertEquals(8.99, RepricingRule.percent(-10).reprice(9.99), 0);
+    assertEquals(0.0, RepricingRule.absolute(-5).reprice(3.0), 0);
+    assertEquals(13.49, RepricingRule.absolute(3.5).reprice(9.99), 0);
+  }
+
+  public void testPercentMustStayAboveMinusHundred() {
+    try {
+      RepricingRule.percent(-100);
+      fail();
+    } catch (IllegalArgumentException expected) {}
+  }
+}
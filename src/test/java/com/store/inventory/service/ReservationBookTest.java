@@ -0,0 +1,55 @@
+package com.store.inventory.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import junit.framework.TestCase;
+
+public class ReservationBookTest extends TestCase {
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final ReservationBook book = new ReservationBook(10, 16, nanos::get);
+
+  private void passMillis(long millis) {
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    book.expire();
+  }
+
+  public void testHoldsAddUpPerSkuAndLocation() {
+    book.reserve("A", "MAIN", 3, 1_000);
+    book.reserve("A", "MAIN", 2, 1_000);
+    book.reserve("A", "BACK", 4, 1_000);
+    assertEquals(5, book.held("A", "MAIN"));
+    assertEquals(4, book.held("A", "BACK"));
+    assertEquals(0, book.held("B", "MAIN"));
+  }
+
+  public void testExpiredHoldReleasesStock() {
+    ReservationBook.Hold hold = book.reserve("A", "MAIN", 3, 100);
+    book.reserve("A", "MAIN", 2, 500);
+    passMillis(90);
+    assertSame(hold, book.get(hold.id));
+    passMillis(10);
+    assertNull(book.get(hold.id));
+    assertNull(book.remove(hold.id));
+    assertEquals(2, book.held("A", "MAIN"));
+  }
+
+  public void testRemovedHoldDoesNotExpireLater() {
+    ReservationBook.Hold hold = book.reserve("A", "MAIN", 3, 100);
+    assertSame(hold, book.remove(hold.id));
+    assertEquals(0, book.held("A", "MAIN"));
+    ReservationBook.Hold other = book.reserve("A", "MAIN", 1, 1_000);
+    passMillis(200);
+    assertNull(book.remove(hold.id));
+    assertEquals(1, book.held("A", "MAIN"));
+    assertSame(other, book.get(other.id));
+  }
+
+  public void testIdsAreUnique() {
+    assertFalse(
+      book.reserve("A", "MAIN", 1, 10).id.equals(
+        book.reserve("A", "MAIN", 1, 10).id
+      )
+    );
+  }
+}
@@ -0,0 +1,161 @@
+package com.store.inventory.service;
+
+import com.mongodb.MongoSocketWriteException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import com.mongodb.client.MongoCollection;
+import com.store.inventory.OrderItem;
+import com.store.inventory.Product;
+import com.store.inventory.SellOrder;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import junit.framework.TestCase;
+import org.bson.BsonDocument;
+
+public class SellOrderReservationTest extends TestCase {
+
+  private static final String MAIN = InventoryService.DEFAULT_LOCATION;
+  private static final Duration TTL = Duration.ofMinutes(10);
+
+  private InventoryService service;
+
+  @Override
+  protected void setUp() {
+    service = InventoryService.inMemory("sell_order_test");
+    service.addProduct(new Product("A", "Kettle", null, 10, 20.0, null, null));
+  }
+
+  @Override
+  protected void tearDown() {
+    service.close();
+  }
+
+  private static SellOrder order(String id, int quantity) {
+    return new SellOrder(
+      id,
+      "Ann",
+      List.of(new OrderItem("A", quantity)),
+      LocalDate.now(),
+      MAIN
+    );
+  }
+
+  private int quantity() {
+    return service.findProductBySku("A").get().getQuantity();
+  }
+
+  // Every sell order insert fails with the given exception
+  private void failInserts(RuntimeException failure) throws Exception {
+    Object collection = Proxy.newProxyInstance(
+      MongoCollection.class.getClassLoader(),
+      new Class<?>[] { MongoCollection.class },
+      (proxy, method, args) -> {
+        if (method.getName().equals("insertOne")) {
+          throw failure;
+        }
+        throw new UnsupportedOperationException(method.getName());
+      }
+    );
+    Field field = InventoryService.class.getDeclaredField(
+      "sellOrderCollection"
+    );
+    field.setAccessible(true);
+    field.set(service, collection);
+  }
+
+  private static MongoWriteException writeError(int code) {
+    return new MongoWriteException(
+      new WriteError(code, "write failed", new BsonDocument()),
+      new ServerAddress()
+    );
+  }
+
+  public void testAddSellOrderCannotTakeHeldStock() {
+    assertTrue(service.reserve("A", MAIN, 8, TTL).isPresent());
+    assertFalse(service.addSellOrder(order("S1", 3)));
+    assertFalse(service.hasSellOrder("S1"));
+    assertEquals(10, quantity());
+    assertTrue(service.addSellOrder(order("S2", 2)));
+    assertEquals(8, quantity());
+  }
+
+  public void testConfirmUsesItsOwnHoldsAndReleasesThem() {
+    String hold = service.reserve("A", MAIN, 8, TTL).get();
+    assertTrue(service.confirmSellOrder(order("S1", 8), List.of(hold)));
+    assertEquals(2, quantity());
+    assertEquals(2, service.getAvailableToPromise("A", MAIN));
+    assertFalse(service.release(hold));
+  }
+
+  public void testConfirmShortOfStockKeepsHolds() {
+    String hold = service.reserve("A", MAIN, 4, TTL).get();
+    service.reserve("A", MAIN, 5, TTL);
+    assertFalse(service.confirmSellOrder(order("S1", 6), List.of(hold)));
+    assertEquals(10, quantity());
+    assertEquals(1, service.getAvailableToPromise("A", MAIN));
+    assertTrue(service.release(hold));
+  }
+
+  public void testConfirmDuplicateKeepsHolds() {
+    assertTrue(service.addSellOrder(order("S1", 1)));
+    String hold = service.reserve("A", MAIN, 2, TTL).get();
+    assertFalse(service.confirmSellOrder(order("S1", 2), List.of(hold)));
+    assertEquals(9, quantity());
+    assertEquals(7, service.getAvailableToPromise("A", MAIN));
+  }
+
+  public void testConfirmSavedElsewhereKeepsHolds() throws Exception {
+    String hold = service.reserve("A", MAIN, 2, TTL).get();
+    failInserts(writeError(11000));
+    assertFalse(service.confirmSellOrder(order("S1", 2), List.of(hold)));
+    assertTrue(service.hasSellOrder("S1"));
+    assertEquals(10, quantity());
+    assertTrue(service.release(hold));
+  }
+
+  public void testConfirmWhoseSaveFailsKeepsHolds() throws Exception {
+    String hold = service.reserve("A", MAIN, 2, TTL).get();
+    failInserts(
+      new MongoSocketWriteException(
+        "connection reset",
+        new ServerAddress(),
+        new IOException()
+      )
+    );
+    try {
+      service.confirmSellOrder(order("S1", 2), List.of(hold));
+      fail();
+    } catch (MongoSocketWriteException expected) {}
+    assertFalse(service.hasSellOrder("S1"));
+    assertEquals(10, quantity());
+    assertEquals(8, service.getAvailableToPromise("A", MAIN));
+    assertTrue(service.release(hold));
+  }
+
+  public void testConfirmWithoutIdIsRejectedBeforeTouchingHolds() {
+    String hold = service.reserve("A", MAIN, 2, TTL).get();
+    try {
+      service.confirmSellOrder(order(" ", 2), List.of(hold));
+      fail();
+    } catch (IllegalArgumentException expected) {}
+    assertEquals(8, service.getAvailableToPromise("A", MAIN));
+    assertTrue(service.release(hold));
+  }
+
+  public void testBatchOrdersRespectHolds() {
+    service.reserve("A", MAIN, 7, TTL);
+    List<SellOrderResult> results = service.addSellOrders(
+      List.of(order("S1", 2), order("S2", 2))
+    );
+    assertEquals(SellOrderResult.Status.ACCEPTED, results.get(0).getStatus());
+    assertEquals(
+      SellOrderResult.Status.INSUFFICIENT_STOCK,
+      results.get(1).getStatus()
+    );
+  }
+}
@@ -0,0 +1,143 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Order;
+import com.store.inventory.OrderItem;
+import com.store.inventory.Product;
+import com.store.inventory.SellOrder;
+import com.store.inventory.Supplier;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import junit.framework.TestCase;
+
+public class SnapshotStoreTest extends TestCase {
+
+  private Path dir;
+  private SnapshotStore store;
+
+  @Override
+  protected void setUp() throws IOException {
+    dir = Files.createTempDirectory("snapshot-test");
+    store = new SnapshotStore(dir.resolve("inventory.snap"));
+  }
+
+  @Override
+  protected void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path file : (Iterable<Path>) files
+        .sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  public void testRoundTrip() throws IOException {
+    LocalDate day = LocalDate.of(2024, 2, 29);
+    store.save(
+      42L,
+      List.of(
+        new Product(
+          "A-1",
+          "Kettle",
+          "Steel, 1.7 l",
+          5,
+          19.99,
+          "S1",
+          "2024-01-02"
+        ),
+        new Product("B-2", "Caf\u00e9 mug", null, 0, 3.5, null, null)
+      ),
+      List.of(new Supplier("S1", "Acme", "acme@example.com")),
+      List.of(
+        new Order("O1", "S1", List.of(new OrderItem("A-1", 5)), day, "BACK")
+      ),
+      List.of(
+        new SellOrder(
+          "X1",
+          "Ann",
+          List.of(new OrderItem("A-1", 1), new OrderItem("B-2", 2)),
+          day,
+          "MAIN"
+        )
+      ),
+      Map.of("BACK", Map.of("A-1", 3))
+    );
+
+    SnapshotStore.Contents contents = store.load();
+    assertEquals(42L, contents.savedAt);
+
+    assertEquals(2, contents.products.size());
+    Product kettle = contents.products.get(0);
+    assertEquals("A-1", kettle.getSku());
+    assertEquals("Steel, 1.7 l", kettle.getDescription());
+    assertEquals(5, kettle.getQuantity());
+    assertEquals(19.99, kettle.getPrice(), 0);
+    assertEquals("S1", kettle.getSupplierId());
+    assertEquals("2024-01-02", kettle.getDateReceived());
+    Product mug = contents.products.get(1);
+    assertEquals("Caf\u00e9 mug", mug.getName());
+    assertNull(mug.getDescription());
+    assertNull(mug.getSupplierId());
+
+    assertEquals("acme@example.com", contents.suppliers.get(0).getContact());
+
+    Order order = contents.orders.get(0);
+    assertEquals("O1", order.getOrderId());
+    assertEquals(day, order.getOrderDate());
+    assertEquals("BACK", order.getLocation());
+    assertEquals(5, order.getItems().get(0).getQuantity());
+
+    SellOrder sellOrder = contents.sellOrders.get(0);
+    assertEquals("Ann", sellOrder.getCustomerName());
+    assertEquals(2, sellOrder.getItems().size());
+    assertEquals("B-2", sellOrder.getItems().get(1).getSku());
+
+    assertEquals(Map.of("BACK", Map.of("A-1", 3)), contents.placements);
+  }
+
+  public void testMissingFileLoadsNull() throws IOException {
+    assertNull(store.load());
+  }
+
+  public void testTruncatedFileLoadsNull() throws IOException {
+    store.save(
+      1L,
+      List.of(new Product("A", "Kettle", null, 1, 1.0, null, null)),
+      List.of(),
+      List.of(),
+      List.of(),
+      Map.of()
+    );
+    byte[] bytes = Files.readAllBytes(store.getPath());
+    Files.write(store.getPath(), Arrays.copyOf(bytes, 30));
+    assertNull(store.load());
+  }
+
+  public void testForeignFileLoadsNull() throws IOException {
+    Files.write(store.getPath(), "not a snapshot at all".getBytes());
+    assertNull(store.load());
+  }
+
+  public void testSaveReplacesAndLeavesNoTempFile() throws IOException {
+    store.save(1L, List.of(), List.of(), List.of(), List.of(), Map.of());
+    store.save(2L, List.of(), List.of(), List.of(), List.of(), Map.of());
+    assertEquals(2L, store.load().savedAt);
+    try (Stream<Path> files = Files.list(dir)) {
+      assertEquals(1, files.count());
+    }
+  }
+
+  // The service loads at startup and saves over the same file later
+  public void testSaveOverLoadedFile() throws IOException {
+    store.save(1L, List.of(), List.of(), List.of(), List.of(), Map.of());
+    assertEquals(1L, store.load().savedAt);
+    store.save(2L, List.of(), List.of(), List.of(), List.of(), Map.of());
+    assertEquals(2L, store.load().savedAt);
+  }
+}
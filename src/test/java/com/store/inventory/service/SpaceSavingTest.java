@@ -0,0 +1,71 @@
+package com.store.inventory.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class SpaceSavingTest extends TestCase {
+
+  public void testExactWhileUnderCapacity() {
+    SpaceSaving summary = new SpaceSaving(4);
+    summary.add("a", 3);
+    summary.add("b", 5);
+    summary.add("a", 4);
+    List<SpaceSaving.Counter> top = summary.top(10);
+    assertEquals(2, top.size());
+    assertEquals("a", top.get(0).item);
+    assertEquals(7, top.get(0).count);
+    assertEquals(0, top.get(0).error);
+    assertEquals("b", top.get(1).item);
+  }
+
+  public void testNewItemInheritsSmallestCountAsError() {
+    SpaceSaving summary = new SpaceSaving(2);
+    summary.add("a", 10);
+    summary.add("b", 2);
+    summary.add("c", 1);
+    List<SpaceSaving.Counter> top = summary.top(2);
+    assertEquals("a", top.get(0).item);
+    assertEquals("c", top.get(1).item);
+    assertEquals(3, top.get(1).count);
+    assertEquals(2, top.get(1).error);
+  }
+
+  public void testHeavyHittersAreFoundWithinErrorBounds() {
+    int capacity = 20;
+    SpaceSaving summary = new SpaceSaving(capacity);
+    Map<String, Long> truth = new HashMap<>();
+    Random random = new Random(7);
+    long total = 0;
+    for (int i = 0; i < 50_000; i++) {
+      // Three hot items among a long tail of rare ones
+      String item = random.nextInt(10) < 6
+        ? "hot" + random.nextInt(3)
+        : "tail" + random.nextInt(5_000);
+      summary.add(item, 1);
+      truth.merge(item, 1L, Long::sum);
+      total++;
+    }
+    List<SpaceSaving.Counter> top = summary.top(3);
+    for (SpaceSaving.Counter counter : top) {
+      assertTrue(counter.item, counter.item.startsWith("hot"));
+    }
+    for (SpaceSaving.Counter counter : summary.top(capacity)) {
+      long actual = truth.get(counter.item);
+      assertTrue(counter.count >= actual);
+      assertTrue(counter.count - counter.error <= actual);
+      assertTrue(counter.error <= total / capacity);
+    }
+  }
+
+  public void testTopIsLimited() {
+    SpaceSaving summary = new SpaceSaving(8);
+    for (int i = 0; i < 5; i++) {
+      summary.add("i" + i, i + 1);
+    }
+    assertEquals(2, summary.top(2).size());
+    assertEquals("i4", summary.top(1).get(0).item);
+  }
+}
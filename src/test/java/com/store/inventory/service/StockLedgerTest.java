@@ -0,0 +1,120 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import junit.framework.TestCase;
+
+public class StockLedgerTest extends TestCase {
+
+  private static final int INTERVAL = 4;
+  private static final long WINDOW = 1_000;
+
+  private final AtomicLong now = new AtomicLong(10_000);
+  private StockLedger ledger;
+
+  @Override
+  protected void setUp() {
+    ledger = new StockLedger(INTERVAL, WINDOW, now::get);
+    ledger.load(List.of(), sku -> 0, now.get());
+  }
+
+  private void move(String sku, int delta, int balanceBefore) {
+    ledger.record(
+      new StockMovement(
+        ledger.nextTimestamp(),
+        sku,
+        "MAIN",
+        delta,
+        StockMovement.Reason.ADJUSTMENT
+      ),
+      balanceBefore
+    );
+  }
+
+  public void testBalanceAtEveryMomentMatchesReplay() {
+    int balance = 100;
+    List<Long> times = new ArrayList<>();
+    List<Integer> balances = new ArrayList<>();
+    for (int i = 0; i < 11; i++) {
+      now.addAndGet(10);
+      int delta = i % 3 == 0 ? 5 : -2;
+      move("A", delta, balance);
+      balance += delta;
+      times.add(now.get());
+      balances.add(balance);
+    }
+    for (int i = 0; i < times.size(); i++) {
+      assertEquals(
+        balances.get(i).longValue(),
+        (long) ledger.balanceAt("A", times.get(i))
+      );
+    }
+    assertEquals(100L, (long) ledger.balanceAt("A", times.get(0) - 1));
+  }
+
+  public void testSkuWithoutHistoryHasNoBalance() {
+    assertNull(ledger.balanceAt("unknown", now.get()));
+    assertTrue(ledger.covers("unknown", now.get()));
+    assertFalse(ledger.covers("unknown", now.get() - 1));
+  }
+
+  public void testTimestampsNeverGoBackwards() {
+    long first = ledger.nextTimestamp();
+    now.addAndGet(-500);
+    assertEquals(first, ledger.nextTimestamp());
+  }
+
+  public void testWholeIntervalsOlderThanWindowAreDropped() {
+    int balance = 0;
+    for (int i = 0; i < 2 * INTERVAL; i++) {
+      now.addAndGet(1);
+      move("A", 1, balance++);
+    }
+    long lastOld = now.get();
+    assertEquals(2 * INTERVAL, ledger.size());
+
+    now.addAndGet(WINDOW + 1);
+    move("A", 1, balance++);
+
+    // Both old intervals went; the newest movement is kept
+    assertEquals(1, ledger.size());
+    assertEquals(2L * INTERVAL, (long) ledger.balanceAt("A", lastOld));
+    assertEquals(2L * INTERVAL + 1, (long) ledger.balanceAt("A", now.get()));
+    assertTrue(ledger.covers("A", lastOld));
+    assertFalse(ledger.covers("A", lastOld - 1));
+    assertFalse(ledger.coversAll(lastOld - 1));
+  }
+
+  public void testPartialIntervalIsKeptUntilComplete() {
+    for (int i = 0; i < INTERVAL - 1; i++) {
+      now.addAndGet(1);
+      move("A", 1, i);
+    }
+    now.addAndGet(WINDOW * 2);
+    move("B", 1, 0);
+    assertEquals(INTERVAL, ledger.size());
+  }
+
+  public void testIdleSkusAreTrimmedBySweep() {
+    for (int i = 0; i < INTERVAL; i++) {
+      now.addAndGet(1);
+      move("idle", 1, i);
+    }
+    now.addAndGet(WINDOW * 2);
+    move("busy", 1, 0);
+    assertEquals(1, ledger.size());
+    assertEquals(List.of(), ledger.movements("idle"));
+    assertEquals((long) INTERVAL, (long) ledger.balanceAt("idle", now.get()));
+  }
+
+  public void testLoadSetsOpeningFromCurrentQuantity() {
+    List<StockMovement> stored = List.of(
+      new StockMovement(now.get() + 1, "A", "MAIN", 5, null),
+      new StockMovement(now.get() + 2, "A", "MAIN", -3, null)
+    );
+    ledger.load(stored, sku -> 12, now.get());
+    assertEquals(10L, (long) ledger.balanceAt("A", now.get()));
+    assertEquals(12L, (long) ledger.balanceAt("A", now.get() + 2));
+  }
+}
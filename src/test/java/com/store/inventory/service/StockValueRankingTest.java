@@ -0,0 +1,82 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Product;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+public class StockValueRankingTest extends TestCase {
+
+  private final StockValueRanking ranking = new StockValueRanking();
+
+  private static Product product(String sku, int quantity, double price) {
+    return new Product(sku, sku, null, quantity, price, null, null);
+  }
+
+  private List<String> top(int limit) {
+    List<String> skus = new ArrayList<>();
+    for (Product product : ranking.top(limit)) {
+      skus.add(product.getSku());
+    }
+    return skus;
+  }
+
+  public void testHighestStockValueFirst() {
+    ranking.put(product("A", 10, 1.0));
+    ranking.put(product("B", 2, 20.0));
+    ranking.put(product("C", 1, 5.0));
+    assertEquals(List.of("B", "A", "C"), top(10));
+    assertEquals(List.of("B", "A"), top(2));
+  }
+
+  public void testEqualValuesOrderedBySku() {
+    ranking.put(product("B", 1, 4.0));
+    ranking.put(product("A", 2, 2.0));
+    assertEquals(List.of("A", "B"), top(10));
+  }
+
+  public void testPutReranksChangedProduct() {
+    Product a = product("A", 10, 1.0);
+    ranking.put(a);
+    ranking.put(product("B", 5, 1.0));
+    a.setQuantity(1);
+    ranking.put(a);
+    assertEquals(List.of("B", "A"), top(10));
+  }
+
+  public void testRemoveAndRebuild() {
+    ranking.put(product("A", 1, 1.0));
+    ranking.put(product("B", 2, 1.0));
+    ranking.remove("B");
+    ranking.remove("missing");
+    assertEquals(List.of("A"), top(10));
+    ranking.rebuild(List.of(product("C", 1, 1.0), product("D", 3, 1.0)));
+    assertEquals(List.of("D", "C"), top(10));
+  }
+
+  public void testMatchesFullSort() {
+    List<Product> products = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      Product product = product("P" + i, (i * 37) % 101, 1 + (i * 13) % 17);
+      products.add(product);
+      ranking.put(product);
+    }
+    // Re-price some products after they were ranked
+    for (int i = 0; i < 500; i += 7) {
+      products.get(i).setPrice(products.get(i).getPrice() * 3);
+      ranking.put(products.get(i));
+    }
+    products.sort((x, y) -> {
+      int byValue = Double.compare(
+        y.getQuantity() * y.getPrice(),
+        x.getQuantity() * x.getPrice()
+      );
+      return byValue != 0 ? byValue : x.getSku().compareTo(y.getSku());
+    });
+    List<String> expected = new ArrayList<>();
+    for (Product product : products.subList(0, 25)) {
+      expected.add(product.getSku());
+    }
+    assertEquals(expected, top(25));
+  }
+}
@@ -0,0 +1,128 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Product;
+import com.store.inventory.Supplier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class SupplierIndexTest extends TestCase {
+
+  private final SupplierIndex index = new SupplierIndex();
+
+  private static Product product(
+    String sku,
+    String supplierId,
+    int quantity,
+    double price
+  ) {
+    return new Product(sku, sku, null, quantity, price, supplierId, null);
+  }
+
+  private static void assertStats(
+    SupplierStats stats,
+    int productCount,
+    long quantity,
+    double value
+  ) {
+    assertEquals(productCount, stats.getProductCount());
+    assertEquals(quantity, stats.getTotalQuantity());
+    assertEquals(value, stats.getStockValue(), 1e-9);
+  }
+
+  public void testTotalsFollowQuantityAndPrice() {
+    Product a = product("A", "S1", 5, 2.0);
+    index.put(a);
+    index.put(product("B", "S1", 10, 1.5));
+    assertStats(index.stats("S1"), 2, 15, 25.0);
+
+    a.setQuantity(8);
+    a.setPrice(3.0);
+    index.put(a);
+    assertStats(index.stats("S1"), 2, 18, 39.0);
+  }
+
+  public void testProductMovesBetweenSuppliers() {
+    Product a = product("A", "S1", 4, 2.5);
+    index.put(a);
+    index.put(product("B", "S1", 1, 1.0));
+    index.put(product("C", "S2", 2, 1.0));
+
+    // Reloaded from MongoDB with another supplier
+    Product moved = product("A", "S2", 4, 2.5);
+    index.put(moved);
+    assertStats(index.stats("S1"), 1, 1, 1.0);
+    assertStats(index.stats("S2"), 2, 6, 12.0);
+    assertEquals(1, index.products("S1").size());
+    assertTrue(index.products("S2").contains(moved));
+  }
+
+  public void testRemoveWithdrawsProduct() {
+    index.put(product("A", "S1", 3, 2.0));
+    index.put(product("B", "S1", 4, 1.0));
+    index.remove("A");
+    assertStats(index.stats("S1"), 1, 4, 4.0);
+
+    index.remove("B");
+    assertStats(index.stats("S1"), 0, 0, 0);
+    assertTrue(index.products("S1").isEmpty());
+    assertFalse(index.stats().containsKey("S1"));
+
+    // Unknown SKUs are ignored
+    index.remove("Z");
+  }
+
+  public void testProductWithoutSupplierIsNotCounted() {
+    index.put(product("A", "S1", 3, 2.0));
+    index.put(product("A", null, 3, 2.0));
+    assertTrue(index.stats().isEmpty());
+    assertTrue(index.products("S1").isEmpty());
+  }
+
+  public void testRebuildMatchesIncrementalUpdates() {
+    Random random = new Random(7);
+    List<Product> products = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      Product product = product("P" + i, "S" + (i % 4), i, 1.0 + i % 3);
+      products.add(product);
+      index.put(product);
+    }
+    for (int i = 0; i < 500; i++) {
+      int slot = random.nextInt(products.size());
+      Product product = product(
+        products.get(slot).getSku(),
+        "S" + random.nextInt(5),
+        random.nextInt(100),
+        random.nextInt(50) / 4.0
+      );
+      products.set(slot, product);
+      index.put(product);
+    }
+    Product gone = products.remove(0);
+    index.remove(gone.getSku());
+
+    Map<String, SupplierStats> incremental = index.stats();
+    index.rebuild(products);
+    Map<String, SupplierStats> rebuilt = index.stats();
+    assertEquals(rebuilt.keySet(), incremental.keySet());
+    for (Map.Entry<String, SupplierStats> entry : rebuilt.entrySet()) {
+      SupplierStats stats = entry.getValue();
+      assertStats(
+        incremental.get(entry.getKey()),
+        stats.getProductCount(),
+        stats.getTotalQuantity(),
+        stats.getStockValue()
+      );
+    }
+  }
+
+  public void testAddSupplierKeepsFirst() {
+    Supplier first = new Supplier("S1", "First", null);
+    assertTrue(index.addSupplier(first));
+    assertFalse(index.addSupplier(new Supplier("S1", "Second", null)));
+    assertSame(first, index.supplier("S1"));
+    assertNull(index.supplier(null));
+  }
+}
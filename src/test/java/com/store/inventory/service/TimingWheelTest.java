@@ -0,0 +1,82 @@
+package com.store.inventory.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import junit.framework.TestCase;
+
+public class TimingWheelTest extends TestCase {
+
+  private static final long TICK = 10;
+
+  private final AtomicLong nanos = new AtomicLong(123_456_789);
+  private final List<String> fired = new ArrayList<>();
+  private TimingWheel<String> wheel;
+
+  @Override
+  protected void setUp() {
+    wheel = new TimingWheel<>(TICK, 8, nanos::get);
+  }
+
+  private void passMillis(long millis) {
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    wheel.advance(fired::add);
+  }
+
+  public void testFiresAtDeadlineNotBefore() {
+    wheel.schedule("a", 35);
+    passMillis(30);
+    assertTrue(fired.isEmpty());
+    passMillis(10);
+    assertEquals(List.of("a"), fired);
+    passMillis(100);
+    assertEquals(List.of("a"), fired);
+  }
+
+  public void testTimeoutsBeyondOneRevolution() {
+    // 8 slots of 10ms: 250ms wraps the wheel three times
+    wheel.schedule("far", 250);
+    wheel.schedule("near", 20);
+    passMillis(240);
+    assertEquals(List.of("near"), fired);
+    passMillis(10);
+    assertEquals(List.of("near", "far"), fired);
+  }
+
+  public void testDeadlineCountsFromNowNotLastAdvance() {
+    passMillis(5);
+    // The wheel lags behind the clock by 200ms when this is scheduled
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+    wheel.schedule("late", 50);
+    wheel.advance(fired::add);
+    assertTrue(fired.isEmpty());
+    passMillis(45);
+    assertTrue(fired.isEmpty());
+    // Due 50ms after scheduling, rounded up to the next tick
+    passMillis(10);
+    assertEquals(List.of("late"), fired);
+  }
+
+  public void testCancelledTimeoutNeverFires() {
+    TimingWheel.Timeout<String> a = wheel.schedule("a", 20);
+    wheel.schedule("b", 20);
+    assertTrue(wheel.cancel(a));
+    assertFalse(wheel.cancel(a));
+    passMillis(50);
+    assertEquals(List.of("b"), fired);
+  }
+
+  public void testCancelAfterFiringReturnsFalse() {
+    TimingWheel.Timeout<String> a = wheel.schedule("a", 10);
+    passMillis(10);
+    assertFalse(wheel.cancel(a));
+  }
+
+  public void testSlotCountMustBePowerOfTwo() {
+    try {
+      new TimingWheel<String>(TICK, 6, nanos::get);
+      fail();
+    } catch (IllegalArgumentException expected) {}
+  }
+}
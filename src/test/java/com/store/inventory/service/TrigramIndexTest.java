@@ -0,0 +1,82 @@
+package com.store.inventory.service;
+
+import com.store.inventory.Product;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+public class TrigramIndexTest extends TestCase {
+
+  private static Product product(String sku, String name) {
+    return new Product(sku, name, null, 1, 1.0, null, null);
+  }
+
+  private static List<String> skus(List<Product> products) {
+    List<String> skus = new ArrayList<>();
+    for (Product product : products) {
+      skus.add(product.getSku());
+    }
+    return skus;
+  }
+
+  public void testFindsNameDespiteTypo() {
+    TrigramIndex index = new TrigramIndex(0.3);
+    index.put(product("A", "Wireless Keyboard"));
+    index.put(product("B", "Garden Hose"));
+    assertEquals(List.of("A"), skus(index.search("wireles keybord", 10)));
+  }
+
+  public void testMostSimilarFirstAndLimited() {
+    TrigramIndex index = new TrigramIndex(0.1);
+    index.put(product("A", "steel hammer"));
+    index.put(product("B", "hammer"));
+    index.put(product("C", "hammock"));
+    assertEquals(List.of("B", "A"), skus(index.search("hammer", 2)));
+  }
+
+  public void testBelowThresholdIsNotReturned() {
+    TrigramIndex index = new TrigramIndex(0.5);
+    index.put(product("A", "Garden Hose"));
+    assertTrue(index.search("keyboard", 10).isEmpty());
+  }
+
+  public void testRemovedProductIsNotFound() {
+    TrigramIndex index = new TrigramIndex(0.3);
+    index.put(product("A", "hammer"));
+    index.put(product("B", "hammer drill"));
+    index.remove("A");
+    assertEquals(List.of("B"), skus(index.search("hammer", 10)));
+    index.remove("A");
+    index.remove("missing");
+    assertEquals(List.of("B"), skus(index.search("hammer", 10)));
+  }
+
+  public void testReusedIdsKeepPostingsConsistent() {
+    TrigramIndex index = new TrigramIndex(0.3);
+    for (int i = 0; i < 200; i++) {
+      index.put(product("P" + i, "widget " + i));
+    }
+    // Free low IDs, then hand them out again out of order
+    for (int i = 0; i < 200; i += 3) {
+      index.remove("P" + i);
+    }
+    for (int i = 0; i < 200; i += 3) {
+      index.put(product("Q" + i, "gadget " + i));
+    }
+    List<String> widgets = skus(index.search("widget", 500));
+    List<String> gadgets = skus(index.search("gadget", 500));
+    assertEquals(200 - 67, widgets.size());
+    assertEquals(67, gadgets.size());
+    for (String sku : widgets) {
+      assertTrue(sku.startsWith("P"));
+    }
+  }
+
+  public void testPutReplacesEarlierName() {
+    TrigramIndex index = new TrigramIndex(0.3);
+    index.put(product("A", "hammer"));
+    index.put(product("A", "screwdriver"));
+    assertTrue(index.search("hammer", 10).isEmpty());
+    assertEquals(List.of("A"), skus(index.search("screwdriver", 10)));
+  }
+}